@@ -26,10 +26,17 @@ import java.io.UnsupportedEncodingException;
 import java.security.PrivateKey;
 import java.security.PublicKey;
 import java.security.cert.X509Certificate;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * Implements the signatures defined in OAuth Core 1.0. By default, PLAINTEXT signatures are not supported
  *
+ * HMAC-SHA1 and RSA-SHA1 signature methods are cached by their secrets and reused, together with the initialized
+ * crypto engines they keep, so that a consumer sending many requests does not pay for the key setup every time. A
+ * consumer whose secret changes simply gets a new signature method.
+ *
  * <p>
  * @deprecated The OAuth 1.0 Protocol <a href="https://tools.ietf.org/html/rfc5849">RFC 5849</a> is obsoleted by the OAuth 2.0 Authorization Framework <a href="https://tools.ietf.org/html/rfc6749">RFC 6749</a>.
  *
@@ -42,6 +49,8 @@ public class CoreOAuthSignatureMethodFactory implements OAuthSignatureMethodFact
   private boolean supportHMAC_SHA1 = true;
   private boolean supportRSA_SHA1 = true;
   private PasswordEncoder plainTextPasswordEncoder;
+  private int maxCachedSignatureMethods = 1000;
+  private final ConcurrentMap<SignatureMethodKey, OAuthSignatureMethod> signatureMethods = new ConcurrentHashMap<SignatureMethodKey, OAuthSignatureMethod>();
 
   public OAuthSignatureMethod getSignatureMethod(String methodName, SignatureSecret signatureSecret, String tokenSecret) throws UnsupportedSignatureMethodException {
     if (supportPlainText && PlainTextSignatureMethod.SIGNATURE_NAME.equals(methodName)) {
@@ -75,6 +84,11 @@ public class CoreOAuthSignatureMethodFactory implements OAuthSignatureMethodFact
       }
 
       String consumerSecret = ((SharedConsumerSecret) signatureSecret).getConsumerSecret();
+      SignatureMethodKey cacheKey = new SignatureMethodKey(methodName, consumerSecret, tokenSecret);
+      OAuthSignatureMethod cached = signatureMethods.get(cacheKey);
+      if (cached != null) {
+        return cached;
+      }
 
       if (consumerSecret == null) {
         consumerSecret = "";
@@ -94,13 +108,18 @@ public class CoreOAuthSignatureMethodFactory implements OAuthSignatureMethodFact
         throw new RuntimeException(e.getMessage());
       }
       SecretKeySpec spec = new SecretKeySpec(keyBytes, HMAC_SHA1SignatureMethod.MAC_NAME);
-      return new HMAC_SHA1SignatureMethod(spec);
+      return cache(cacheKey, new HMAC_SHA1SignatureMethod(spec));
     }
     else if (supportRSA_SHA1 && RSA_SHA1SignatureMethod.SIGNATURE_NAME.equals(methodName)) {
       if (signatureSecret instanceof RSAKeySecret) {
         PublicKey publicKey = ((RSAKeySecret) signatureSecret).getPublicKey();
         PrivateKey privateKey = ((RSAKeySecret) signatureSecret).getPrivateKey();
-        return new RSA_SHA1SignatureMethod(privateKey, publicKey);
+        SignatureMethodKey cacheKey = new SignatureMethodKey(methodName, publicKey, privateKey);
+        OAuthSignatureMethod cached = signatureMethods.get(cacheKey);
+        if (cached != null) {
+          return cached;
+        }
+        return cache(cacheKey, new RSA_SHA1SignatureMethod(privateKey, publicKey));
       }
       else {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
@@ -116,6 +135,25 @@ public class CoreOAuthSignatureMethodFactory implements OAuthSignatureMethodFact
     throw new UnsupportedSignatureMethodException("Unsupported signature method: " + methodName);    
   }
 
+  private OAuthSignatureMethod cache(SignatureMethodKey cacheKey, OAuthSignatureMethod signatureMethod) {
+    if (maxCachedSignatureMethods <= 0) {
+      return signatureMethod;
+    }
+    if (signatureMethods.size() >= maxCachedSignatureMethods) {
+      signatureMethods.clear();
+    }
+    OAuthSignatureMethod existing = signatureMethods.putIfAbsent(cacheKey, signatureMethod);
+    return existing != null ? existing : signatureMethod;
+  }
+
+  /**
+   * Discard the cached signature methods, e.g. after consumers were removed or their secrets changed, so that the old
+   * secrets are no longer kept in memory.
+   */
+  public void clearCache() {
+    signatureMethods.clear();
+  }
+
   /**
    * Whether to support the plain text signature method.
    *
@@ -187,4 +225,45 @@ public class CoreOAuthSignatureMethodFactory implements OAuthSignatureMethodFact
   public void setPlainTextPasswordEncoder(PasswordEncoder plainTextPasswordEncoder) {
     this.plainTextPasswordEncoder = plainTextPasswordEncoder;
   }
+
+  /**
+   * The maximum number of signature methods to cache (the cache is cleared when full). Zero disables the cache.
+   *
+   * @return The maximum number of signature methods to cache.
+   */
+  public int getMaxCachedSignatureMethods() {
+    return maxCachedSignatureMethods;
+  }
+
+  /**
+   * The maximum number of signature methods to cache (the cache is cleared when full). Zero disables the cache.
+   *
+   * @param maxCachedSignatureMethods The maximum number of signature methods to cache.
+   */
+  public void setMaxCachedSignatureMethods(int maxCachedSignatureMethods) {
+    this.maxCachedSignatureMethods = maxCachedSignatureMethods;
+    signatureMethods.clear();
+  }
+
+  private static class SignatureMethodKey {
+
+    private final Object[] parts;
+
+    private final int hashCode;
+
+    private SignatureMethodKey(Object... parts) {
+      this.parts = parts;
+      this.hashCode = Arrays.hashCode(parts);
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      return obj instanceof SignatureMethodKey && Arrays.equals(parts, ((SignatureMethodKey) obj).parts);
+    }
+  }
 }
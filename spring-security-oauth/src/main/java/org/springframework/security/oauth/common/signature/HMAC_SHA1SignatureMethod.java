@@ -25,6 +25,8 @@ import javax.crypto.SecretKey;
 import java.io.UnsupportedEncodingException;
 import java.security.InvalidKeyException;
 import java.security.NoSuchAlgorithmException;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 /**
  * HMAC-SHA1 signature method.
@@ -51,6 +53,9 @@ public class HMAC_SHA1SignatureMethod implements OAuthSignatureMethod {
 
   private final SecretKey key;
 
+  // initialized Macs, reused across requests (doFinal resets them)
+  private final Queue<Mac> macs = new ConcurrentLinkedQueue<Mac>();
+
   /**
    * Construct a HMAC-SHA1 signature method with the given HMAC-SHA1 key.
    *
@@ -78,10 +83,8 @@ public class HMAC_SHA1SignatureMethod implements OAuthSignatureMethod {
    */
   public String sign(String signatureBaseString) {
     try {
-      Mac mac = Mac.getInstance(MAC_NAME);
-      mac.init(key);
       byte[] text = signatureBaseString.getBytes("UTF-8");
-      byte[] signatureBytes = mac.doFinal(text);
+      byte[] signatureBytes = doFinal(text);
       signatureBytes = Base64.encodeBase64(signatureBytes);
       String signature = new String(signatureBytes, "UTF-8");
 
@@ -121,10 +124,8 @@ public class HMAC_SHA1SignatureMethod implements OAuthSignatureMethod {
 
       byte[] signatureBytes = Base64.decodeBase64(signature.getBytes("UTF-8"));
 
-      Mac mac = Mac.getInstance(MAC_NAME);
-      mac.init(key);
       byte[] text = signatureBaseString.getBytes("UTF-8");
-      byte[] calculatedBytes = mac.doFinal(text);
+      byte[] calculatedBytes = doFinal(text);
       if (!safeArrayEquals(calculatedBytes, signatureBytes)) {
         throw new InvalidSignatureException("Invalid signature for signature method " + getName());
       }
@@ -140,6 +141,17 @@ public class HMAC_SHA1SignatureMethod implements OAuthSignatureMethod {
     }
   }
 
+  private byte[] doFinal(byte[] text) throws NoSuchAlgorithmException, InvalidKeyException {
+    Mac mac = macs.poll();
+    if (mac == null) {
+      mac = Mac.getInstance(MAC_NAME);
+      mac.init(key);
+    }
+    byte[] result = mac.doFinal(text);
+    macs.offer(mac);
+    return result;
+  }
+
   boolean safeArrayEquals(byte[] a1, byte[] a2) {
     if (a1 == null || a2 == null) {
       return (a1 == a2);
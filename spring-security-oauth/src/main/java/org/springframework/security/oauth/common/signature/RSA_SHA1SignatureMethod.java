@@ -20,6 +20,8 @@ import org.apache.commons.codec.binary.Base64;
 
 import java.io.UnsupportedEncodingException;
 import java.security.*;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 /**
  * RSA-SHA1 signature method. The RSA-SHA1 signature method uses the RSASSA-PKCS1-v1_5 signature algorithm as defined in RFC3447
@@ -41,6 +43,10 @@ public class RSA_SHA1SignatureMethod implements OAuthSignatureMethod {
   private final PrivateKey privateKey;
   private final PublicKey publicKey;
 
+  // initialized Signatures, reused across requests (sign and verify reset them)
+  private final Queue<Signature> signers = new ConcurrentLinkedQueue<Signature>();
+  private final Queue<Signature> verifiers = new ConcurrentLinkedQueue<Signature>();
+
   /**
    * Construct a RSA-SHA1 signature method with the given RSA-SHA1 public/private key pair.
    *
@@ -99,10 +105,15 @@ public class RSA_SHA1SignatureMethod implements OAuthSignatureMethod {
     }
 
     try {
-      Signature signer = Signature.getInstance("SHA1withRSA");
-      signer.initSign(privateKey);
-      signer.update(signatureBaseString.getBytes("UTF-8"));
+      byte[] text = signatureBaseString.getBytes("UTF-8");
+      Signature signer = signers.poll();
+      if (signer == null) {
+        signer = Signature.getInstance("SHA1withRSA");
+        signer.initSign(privateKey);
+      }
+      signer.update(text);
       byte[] signatureBytes = signer.sign();
+      signers.offer(signer);
       signatureBytes = Base64.encodeBase64(signatureBytes);
       return new String(signatureBytes, "UTF-8");
     }
@@ -138,10 +149,16 @@ public class RSA_SHA1SignatureMethod implements OAuthSignatureMethod {
 
     try {
       byte[] signatureBytes = Base64.decodeBase64(signature.getBytes("UTF-8"));
-      Signature verifier = Signature.getInstance("SHA1withRSA");
-      verifier.initVerify(publicKey);
-      verifier.update(signatureBaseString.getBytes("UTF-8"));
-      if (!verifier.verify(signatureBytes)) {
+      byte[] text = signatureBaseString.getBytes("UTF-8");
+      Signature verifier = verifiers.poll();
+      if (verifier == null) {
+        verifier = Signature.getInstance("SHA1withRSA");
+        verifier.initVerify(publicKey);
+      }
+      verifier.update(text);
+      boolean verified = verifier.verify(signatureBytes);
+      verifiers.offer(verifier);
+      if (!verified) {
         throw new InvalidSignatureException("Invalid signature for signature method " + getName());
       }
     }
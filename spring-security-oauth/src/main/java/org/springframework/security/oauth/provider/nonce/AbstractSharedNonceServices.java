@@ -0,0 +1,100 @@
+/*
+ * Copyright 2008-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.security.oauth.provider.nonce;
+
+import org.springframework.security.authentication.CredentialsExpiredException;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.oauth.provider.ConsumerDetails;
+
+/**
+ * Base class for nonce services that record the nonces in a store shared by all the nodes of a cluster, so that a
+ * request replayed to another node is rejected as well. The timestamp is validated as by the
+ * {@link org.springframework.security.oauth.provider.nonce.ExpiringTimestampNonceServices}, then the nonce is recorded
+ * with an atomic insert-if-absent that fails if the nonce was already used with the same timestamp by the same
+ * consumer. A recorded nonce only needs to be kept until its timestamp leaves the validity window.
+ *
+ * By default the nonces are also recorded in an {@link InMemoryNonceServices} in front of the store, so that a request
+ * replayed to the same node is rejected without a round trip.
+ *
+ * <p>
+ * @deprecated The OAuth 1.0 Protocol <a href="https://tools.ietf.org/html/rfc5849">RFC 5849</a> is obsoleted by the OAuth 2.0 Authorization Framework <a href="https://tools.ietf.org/html/rfc6749">RFC 6749</a>.
+ */
+@Deprecated
+public abstract class AbstractSharedNonceServices implements OAuthNonceServices {
+
+	private final InMemoryNonceServices localNonceServices = new InMemoryNonceServices();
+
+	private boolean localCache = true;
+
+	// same default as the InMemoryNonceServices, every request in the window costs an entry in the store.
+	private long validityWindowSeconds = 60 * 10;
+
+	public void validateNonce(ConsumerDetails consumerDetails, long timestamp, String nonce)
+			throws AuthenticationException {
+		long now = System.currentTimeMillis() / 1000;
+		if (now - timestamp > getValidityWindowSeconds()) {
+			throw new CredentialsExpiredException("Expired timestamp.");
+		}
+
+		if (localCache) {
+			localNonceServices.validateNonce(consumerDetails, timestamp, nonce);
+		}
+		if (!storeNonce(consumerDetails.getConsumerKey(), timestamp, nonce, timestamp + getValidityWindowSeconds())) {
+			throw new NonceAlreadyUsedException("Nonce already used: " + nonce);
+		}
+	}
+
+	/**
+	 * Record a nonce in the shared store, unless it is already there.
+	 *
+	 * @param consumerKey the consumer key
+	 * @param timestamp the timestamp of the request (in seconds)
+	 * @param nonce the nonce
+	 * @param expiresAt the time (in seconds) after which the nonce no longer needs to be kept
+	 * @return false if the nonce was already recorded
+	 */
+	protected abstract boolean storeNonce(String consumerKey, long timestamp, String nonce, long expiresAt);
+
+	/**
+	 * The timestamp validity window (in seconds).
+	 *
+	 * @return the timestamp validity window (in seconds).
+	 */
+	public long getValidityWindowSeconds() {
+		return validityWindowSeconds;
+	}
+
+	/**
+	 * The timestamp validity window (in seconds).
+	 *
+	 * @param validityWindowSeconds the timestamp validity window (in seconds).
+	 */
+	public void setValidityWindowSeconds(long validityWindowSeconds) {
+		this.validityWindowSeconds = validityWindowSeconds;
+		this.localNonceServices.setValidityWindowSeconds(validityWindowSeconds);
+	}
+
+	/**
+	 * Flag to indicate that nonces should also be recorded in memory, to reject replays to this node without a round
+	 * trip to the store. Default true.
+	 *
+	 * @param localCache the flag to set
+	 */
+	public void setLocalCache(boolean localCache) {
+		this.localCache = localCache;
+	}
+}
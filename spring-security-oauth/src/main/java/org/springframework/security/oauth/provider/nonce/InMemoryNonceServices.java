@@ -16,8 +16,12 @@
 
 package org.springframework.security.oauth.provider.nonce;
 
-import java.util.Iterator;
-import java.util.TreeSet;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.springframework.security.authentication.CredentialsExpiredException;
 import org.springframework.security.oauth.provider.ConsumerDetails;
@@ -30,7 +34,10 @@ import org.springframework.security.oauth.provider.ConsumerDetails;
  * {@link org.springframework.security.oauth.provider.nonce.ExpiringTimestampNonceServices}. Assuming the consumer and
  * timestamp are valid, the InMemoryNonceServices further ensures that the specified nonce was not used with the
  * specified timestamp within the specified validity window. The list of nonces used within the validity window is kept
- * in memory.
+ * in memory, by this instance only.
+ *
+ * The nonces are kept in one concurrent set per timestamp (second), so requests are validated without a global lock
+ * and the nonces of a second that has left the validity window are dropped in one go.
  *
  * Note: the default validity window in this class is different from the one used in
  * {@link org.springframework.security.oauth.provider.nonce.ExpiringTimestampNonceServices}. The reason for this is that
@@ -47,54 +54,64 @@ import org.springframework.security.oauth.provider.ConsumerDetails;
 public class InMemoryNonceServices implements OAuthNonceServices {
 
 	/**
-	 * Contains all the nonces that were used inside the validity window.
+	 * Contains all the nonces that were used inside the validity window, keyed by their timestamp.
 	 */
-	static final TreeSet<NonceEntry> NONCES = new TreeSet<NonceEntry>();
+	private final ConcurrentNavigableMap<Long, Set<NonceEntry>> nonces = new ConcurrentSkipListMap<Long, Set<NonceEntry>>();
 
-	private volatile long lastCleaned = 0;
+	private final AtomicLong lastCleaned = new AtomicLong();
 
-	// we'll default to a 10 minute validity window, otherwise the amount of memory used on NONCES can get quite large.
+	// we'll default to a 10 minute validity window, otherwise the amount of memory used on nonces can get quite large.
 	private long validityWindowSeconds = 60 * 10;
 
 	public void validateNonce(ConsumerDetails consumerDetails, long timestamp, String nonce) {
-		if (System.currentTimeMillis() / 1000 - timestamp > getValidityWindowSeconds()) {
+		long now = System.currentTimeMillis() / 1000;
+		if (now - timestamp > getValidityWindowSeconds()) {
 			throw new CredentialsExpiredException("Expired timestamp.");
 		}
 
-		NonceEntry entry = new NonceEntry(consumerDetails.getConsumerKey(), timestamp, nonce);
+		if (!add(new NonceEntry(consumerDetails.getConsumerKey(), timestamp, nonce))) {
+			throw new NonceAlreadyUsedException("Nonce already used: " + nonce);
+		}
+		cleanupNonces(now);
+	}
 
-		synchronized (NONCES) {
-			if (NONCES.contains(entry)) {
-				throw new NonceAlreadyUsedException("Nonce already used: " + nonce);
-			}
-			else {
-				NONCES.add(entry);
+	/**
+	 * Record a nonce.
+	 *
+	 * @param entry the nonce to record
+	 * @return false if the nonce was already recorded
+	 */
+	boolean add(NonceEntry entry) {
+		Set<NonceEntry> bucket = nonces.get(entry.timestamp);
+		if (bucket == null) {
+			bucket = Collections.newSetFromMap(new ConcurrentHashMap<NonceEntry, Boolean>());
+			Set<NonceEntry> existing = nonces.putIfAbsent(entry.timestamp, bucket);
+			if (existing != null) {
+				bucket = existing;
 			}
-			cleanupNonces();
 		}
+		return bucket.add(entry);
 	}
 
-	private void cleanupNonces() {
-		long now = System.currentTimeMillis() / 1000;
-		// don't clean out the NONCES for each request, this would cause the service to be constantly locked on this
-		// loop under load. One second is small enough that cleaning up does not become too expensive.
+	/**
+	 * @return the number of nonces currently recorded
+	 */
+	int size() {
+		int size = 0;
+		for (Set<NonceEntry> bucket : nonces.values()) {
+			size += bucket.size();
+		}
+		return size;
+	}
+
+	private void cleanupNonces(long now) {
+		// don't clean out the nonces for each request, once a second is enough to keep memory bounded. Only the thread
+		// that wins the update does the work, the others carry on.
 		// Also see SECOAUTH-180 for reasons this class was refactored.
-		if (now - lastCleaned > 1) {
-			Iterator<NonceEntry> iterator = NONCES.iterator();
-			while (iterator.hasNext()) {
-				// the nonces are already sorted, so simply iterate and remove until the first nonce within the validity
-				// window.
-				NonceEntry nextNonce = iterator.next();
-				long difference = now - nextNonce.timestamp;
-				if (difference > getValidityWindowSeconds()) {
-					iterator.remove();
-				}
-				else {
-					break;
-				}
-			}
-			// keep track of when cleanupNonces last ran
-			lastCleaned = now;
+		long last = lastCleaned.get();
+		if (now - last > 1 && lastCleaned.compareAndSet(last, now)) {
+			// the buckets are sorted by timestamp, so drop every bucket that has left the validity window.
+			nonces.headMap(now - getValidityWindowSeconds()).clear();
 		}
 	}
 
@@ -117,10 +134,9 @@ public class InMemoryNonceServices implements OAuthNonceServices {
 	}
 
 	/**
-	 * Representation of a nonce with the right hashCode, equals, and compareTo methods for the TreeSet approach above
-	 * to work.
+	 * Representation of a nonce with the right hashCode and equals methods for the concurrent sets above to work.
 	 */
-	static class NonceEntry implements Comparable<NonceEntry> {
+	static class NonceEntry {
 		private final String consumerKey;
 
 		private final long timestamp;
@@ -135,7 +151,9 @@ public class InMemoryNonceServices implements OAuthNonceServices {
 
 		@Override
 		public int hashCode() {
-			return consumerKey.hashCode() * nonce.hashCode() * Long.valueOf(timestamp).hashCode();
+			int result = consumerKey.hashCode();
+			result = 31 * result + nonce.hashCode();
+			return 31 * result + (int) (timestamp ^ (timestamp >>> 32));
 		}
 
 		@Override
@@ -147,25 +165,6 @@ public class InMemoryNonceServices implements OAuthNonceServices {
 			return timestamp == arg.timestamp && consumerKey.equals(arg.consumerKey) && nonce.equals(arg.nonce);
 		}
 
-		public int compareTo(NonceEntry o) {
-			// sort by timestamp
-			if (timestamp < o.timestamp) {
-				return -1;
-			}
-			else if (timestamp == o.timestamp) {
-				int consumerKeyCompare = consumerKey.compareTo(o.consumerKey);
-				if (consumerKeyCompare == 0) {
-					return nonce.compareTo(o.nonce);
-				}
-				else {
-					return consumerKeyCompare;
-				}
-			}
-			else {
-				return 1;
-			}
-		}
-
 		@Override
 		public String toString() {
 			return timestamp + " " + consumerKey + " " + nonce;
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2008-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.security.oauth.provider.nonce;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.sql.DataSource;
+
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.util.Assert;
+
+/**
+ * Nonce services that record the nonces in a database table, shared by all the nodes of a cluster. The table needs a
+ * unique key on the consumer key, timestamp and nonce, so that inserting a nonce that was already used fails:
+ *
+ * <pre>
+ * create table oauth_nonce (
+ *   consumer_key VARCHAR(256),
+ *   nonce_timestamp BIGINT,
+ *   nonce VARCHAR(256),
+ *   expires_at BIGINT,
+ *   primary key (consumer_key, nonce_timestamp, nonce)
+ * );
+ * </pre>
+ *
+ * Expired nonces are deleted with a single statement, at most once every {@link #setCleanupIntervalSeconds(long)
+ * cleanup interval} per node. Rows that are not yet deleted do no harm, since their timestamps are rejected anyway.
+ *
+ * <p>
+ * @deprecated The OAuth 1.0 Protocol <a href="https://tools.ietf.org/html/rfc5849">RFC 5849</a> is obsoleted by the OAuth 2.0 Authorization Framework <a href="https://tools.ietf.org/html/rfc6749">RFC 6749</a>.
+ */
+@Deprecated
+public class JdbcNonceServices extends AbstractSharedNonceServices {
+
+	private static final String DEFAULT_INSERT_STATEMENT = "insert into oauth_nonce (consumer_key, nonce_timestamp, nonce, expires_at) values (?, ?, ?, ?)";
+
+	private static final String DEFAULT_DELETE_EXPIRED_STATEMENT = "delete from oauth_nonce where expires_at < ?";
+
+	private String insertNonceSql = DEFAULT_INSERT_STATEMENT;
+
+	private String deleteExpiredNoncesSql = DEFAULT_DELETE_EXPIRED_STATEMENT;
+
+	private long cleanupIntervalSeconds = 60;
+
+	private final AtomicLong lastCleaned = new AtomicLong();
+
+	private final JdbcTemplate jdbcTemplate;
+
+	public JdbcNonceServices(DataSource dataSource) {
+		Assert.notNull(dataSource, "DataSource required");
+		this.jdbcTemplate = new JdbcTemplate(dataSource);
+	}
+
+	@Override
+	protected boolean storeNonce(String consumerKey, long timestamp, String nonce, long expiresAt) {
+		boolean stored;
+		try {
+			jdbcTemplate.update(insertNonceSql, consumerKey, timestamp, nonce, expiresAt);
+			stored = true;
+		}
+		catch (DuplicateKeyException e) {
+			stored = false;
+		}
+		cleanupNonces();
+		return stored;
+	}
+
+	/**
+	 * Delete all the nonces that have left the validity window.
+	 */
+	public void cleanupNonces() {
+		long now = System.currentTimeMillis() / 1000;
+		long last = lastCleaned.get();
+		if (now - last >= cleanupIntervalSeconds && lastCleaned.compareAndSet(last, now)) {
+			jdbcTemplate.update(deleteExpiredNoncesSql, now);
+		}
+	}
+
+	/**
+	 * The minimum number of seconds between two deletions of expired nonces by this node. Default 60.
+	 *
+	 * @param cleanupIntervalSeconds the interval to set
+	 */
+	public void setCleanupIntervalSeconds(long cleanupIntervalSeconds) {
+		this.cleanupIntervalSeconds = cleanupIntervalSeconds;
+	}
+
+	public void setInsertNonceSql(String insertNonceSql) {
+		this.insertNonceSql = insertNonceSql;
+	}
+
+	public void setDeleteExpiredNoncesSql(String deleteExpiredNoncesSql) {
+		this.deleteExpiredNoncesSql = deleteExpiredNoncesSql;
+	}
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2008-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.security.oauth.provider.nonce;
+
+import java.nio.charset.Charset;
+
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.util.Assert;
+
+/**
+ * Nonce services that record the nonces in Redis, shared by all the nodes of a cluster. Each nonce is stored with
+ * <code>SET key value EX seconds NX</code>, so the check and the insert are atomic and Redis drops the nonce by itself
+ * once its timestamp has left the validity window.
+ *
+ * <p>
+ * @deprecated The OAuth 1.0 Protocol <a href="https://tools.ietf.org/html/rfc5849">RFC 5849</a> is obsoleted by the OAuth 2.0 Authorization Framework <a href="https://tools.ietf.org/html/rfc6749">RFC 6749</a>.
+ */
+@Deprecated
+public class RedisNonceServices extends AbstractSharedNonceServices {
+
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+
+	private static final byte[] VALUE = "1".getBytes(UTF8);
+
+	private static final byte[] EX = "EX".getBytes(UTF8);
+
+	private static final byte[] NX = "NX".getBytes(UTF8);
+
+	private final RedisConnectionFactory connectionFactory;
+
+	private String prefix = "oauth_nonce:";
+
+	public RedisNonceServices(RedisConnectionFactory connectionFactory) {
+		Assert.notNull(connectionFactory, "RedisConnectionFactory required");
+		this.connectionFactory = connectionFactory;
+	}
+
+	/**
+	 * The prefix of the keys of the nonces. Default "oauth_nonce:".
+	 *
+	 * @param prefix the prefix to set
+	 */
+	public void setPrefix(String prefix) {
+		this.prefix = prefix;
+	}
+
+	@Override
+	protected boolean storeNonce(String consumerKey, long timestamp, String nonce, long expiresAt) {
+		byte[] key = (prefix + consumerKey + ":" + timestamp + ":" + nonce).getBytes(UTF8);
+		long ttl = Math.max(expiresAt - System.currentTimeMillis() / 1000 + 1, 1);
+		RedisConnection conn = connectionFactory.getConnection();
+		try {
+			// a null reply means the key was already set
+			return conn.execute("SET", key, VALUE, EX, String.valueOf(ttl).getBytes(UTF8), NX) != null;
+		}
+		finally {
+			conn.close();
+		}
+	}
+}
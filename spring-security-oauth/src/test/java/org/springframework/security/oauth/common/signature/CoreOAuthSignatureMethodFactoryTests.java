@@ -17,6 +17,8 @@
 package org.springframework.security.oauth.common.signature;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
@@ -82,4 +84,30 @@ public class CoreOAuthSignatureMethodFactoryTests {
 		assertEquals(keyPair.getPublic(), ((RSA_SHA1SignatureMethod) signatureMethod).getPublicKey());
 	}
 
+	/**
+	 * tests that signature methods are reused for the same secrets.
+	 */
+	@Test
+	public void testSignatureMethodsCached() throws Exception {
+		CoreOAuthSignatureMethodFactory factory = new CoreOAuthSignatureMethodFactory();
+		SharedConsumerSecret sharedSecret = new SharedConsumerSecretImpl("consumer_shhhhhhhhhh");
+		OAuthSignatureMethod signatureMethod = factory.getSignatureMethod(HMAC_SHA1SignatureMethod.SIGNATURE_NAME,
+				sharedSecret, "token");
+		assertSame(signatureMethod, factory.getSignatureMethod(HMAC_SHA1SignatureMethod.SIGNATURE_NAME,
+				new SharedConsumerSecretImpl("consumer_shhhhhhhhhh"), "token"));
+		assertNotSame(signatureMethod, factory.getSignatureMethod(HMAC_SHA1SignatureMethod.SIGNATURE_NAME,
+				sharedSecret, "other_token"));
+		assertNotSame(signatureMethod, factory.getSignatureMethod(HMAC_SHA1SignatureMethod.SIGNATURE_NAME,
+				new SharedConsumerSecretImpl("changed_secret"), "token"));
+
+		factory.clearCache();
+		assertNotSame(signatureMethod, factory.getSignatureMethod(HMAC_SHA1SignatureMethod.SIGNATURE_NAME,
+				sharedSecret, "token"));
+
+		factory.setMaxCachedSignatureMethods(0);
+		signatureMethod = factory.getSignatureMethod(HMAC_SHA1SignatureMethod.SIGNATURE_NAME, sharedSecret, "token");
+		assertNotSame(signatureMethod, factory.getSignatureMethod(HMAC_SHA1SignatureMethod.SIGNATURE_NAME,
+				sharedSecret, "token"));
+	}
+
 }
@@ -17,6 +17,7 @@
 package org.springframework.security.oauth.common.signature;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
 
 import javax.crypto.spec.SecretKeySpec;
 
@@ -68,4 +69,26 @@ public class HMAC_SHA1SignatureMethodTests {
 		signatureMethod.verify(baseString, otherSignature);
 	}
 
+	/**
+	 * Test that a signature method can be reused.
+	 */
+	@Test
+	public void testSignAndVerifyRepeatedly() throws Exception {
+		SecretKeySpec spec = new SecretKeySpec("xxxxxx&".getBytes("UTF-8"), HMAC_SHA1SignatureMethod.MAC_NAME);
+		HMAC_SHA1SignatureMethod signatureMethod = new HMAC_SHA1SignatureMethod(spec);
+		String baseString = "GET&http%3A%2F%2Flocalhost%3A8080%2Fgrailscrowd%2Foauth%2Frequest_token&oauth_consumer_key%3Dtonrconsumerkey%26oauth_nonce%3D1227967049787975000%26oauth_signature_method%3DHMAC-SHA1%26oauth_timestamp%3D1227967049%26oauth_version%3D1.0";
+		for (int i = 0; i < 3; i++) {
+			assertEquals("4KaVKEnW6e1a+vwJTpz0VFqIaGU=", signatureMethod.sign(baseString));
+			signatureMethod.verify(baseString, "4KaVKEnW6e1a+vwJTpz0VFqIaGU=");
+		}
+		try {
+			signatureMethod.verify(baseString, "invalid");
+			fail("should have failed with an invalid signature.");
+		}
+		catch (InvalidSignatureException e) {
+			// fall thru...
+		}
+		signatureMethod.verify(baseString, "4KaVKEnW6e1a+vwJTpz0VFqIaGU=");
+	}
+
 }
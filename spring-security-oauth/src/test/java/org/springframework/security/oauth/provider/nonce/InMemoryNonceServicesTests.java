@@ -24,7 +24,6 @@ public class InMemoryNonceServicesTests {
 		// seconds since epoch, reset for every test
 		now = System.currentTimeMillis() / 1000;
 		nonceServices.setValidityWindowSeconds(10);
-		InMemoryNonceServices.NONCES.clear();
 	}
 
 	@Test
@@ -32,7 +31,7 @@ public class InMemoryNonceServicesTests {
 		String nonce = nonce();
 		nonceServices.validateNonce(consumer("foo"), now, nonce);
 		nonceServices.validateNonce(consumer("foo"), now+5, nonce);
-		assertEquals(2, InMemoryNonceServices.NONCES.size());
+		assertEquals(2, nonceServices.size());
 	}
 
 	@Test(expected=NonceAlreadyUsedException.class)
@@ -52,19 +51,27 @@ public class InMemoryNonceServicesTests {
 		String nonce = nonce();
 		nonceServices.validateNonce(consumer("foo"), now, nonce);
 		nonceServices.validateNonce(consumer("bar"), now, nonce);
-		assertEquals(2, InMemoryNonceServices.NONCES.size());
+		assertEquals(2, nonceServices.size());
 	}
 
 	@Test
 	public void shouldRemoveOldNonces() {
 		// order should not matter
-		InMemoryNonceServices.NONCES.add(new InMemoryNonceServices.NonceEntry("foo", now-2, nonce()));
-		InMemoryNonceServices.NONCES.add(new InMemoryNonceServices.NonceEntry("foo", now-11, nonce()));
-		InMemoryNonceServices.NONCES.add(new InMemoryNonceServices.NonceEntry("foo", now+8, nonce()));
-		InMemoryNonceServices.NONCES.add(new InMemoryNonceServices.NonceEntry("foo", now-15, nonce()));
-		assertEquals(4, InMemoryNonceServices.NONCES.size());
+		nonceServices.add(new InMemoryNonceServices.NonceEntry("foo", now-2, nonce()));
+		nonceServices.add(new InMemoryNonceServices.NonceEntry("foo", now-11, nonce()));
+		nonceServices.add(new InMemoryNonceServices.NonceEntry("foo", now+8, nonce()));
+		nonceServices.add(new InMemoryNonceServices.NonceEntry("foo", now-15, nonce()));
+		assertEquals(4, nonceServices.size());
 		nonceServices.validateNonce(consumer("foo"), now, nonce());
-		assertEquals("should have removed two from the original four nonces and added one",3, InMemoryNonceServices.NONCES.size());
+		assertEquals("should have removed two from the original four nonces and added one",3, nonceServices.size());
+	}
+
+	@Test
+	public void shouldNotShareNoncesBetweenInstances() {
+		String nonce = nonce();
+		nonceServices.validateNonce(consumer("foo"), now, nonce);
+		new InMemoryNonceServices().validateNonce(consumer("foo"), now, nonce);
+		assertEquals(1, nonceServices.size());
 	}
 
 	private String nonce() {
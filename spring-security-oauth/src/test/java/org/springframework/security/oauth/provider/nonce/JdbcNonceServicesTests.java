@@ -0,0 +1,83 @@
+package org.springframework.security.oauth.provider.nonce;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.UUID;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.security.authentication.CredentialsExpiredException;
+import org.springframework.security.oauth.provider.BaseConsumerDetails;
+import org.springframework.security.oauth.provider.ConsumerDetails;
+
+public class JdbcNonceServicesTests {
+
+	private long now;
+
+	private EmbeddedDatabase db;
+
+	private JdbcNonceServices nonceServices;
+
+	@Before
+	public void setUp() throws Exception {
+		// creates a HSQL in-memory db populated from default scripts classpath:schema.sql and classpath:data.sql
+		db = new EmbeddedDatabaseBuilder().addDefaultScripts().build();
+		nonceServices = new JdbcNonceServices(db);
+		nonceServices.setValidityWindowSeconds(10);
+		now = System.currentTimeMillis() / 1000;
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		db.shutdown();
+	}
+
+	@Test(expected = NonceAlreadyUsedException.class)
+	public void shouldRejectNonceUsedOnAnotherNode() {
+		String nonce = nonce();
+		nonceServices.validateNonce(consumer("foo"), now, nonce);
+		new JdbcNonceServices(db).validateNonce(consumer("foo"), now, nonce);
+	}
+
+	@Test
+	public void shouldAcceptSameNonceWithDifferentTimestampOrConsumer() {
+		String nonce = nonce();
+		nonceServices.setLocalCache(false);
+		nonceServices.validateNonce(consumer("foo"), now, nonce);
+		nonceServices.validateNonce(consumer("foo"), now + 5, nonce);
+		nonceServices.validateNonce(consumer("bar"), now, nonce);
+		assertEquals(3, count());
+	}
+
+	@Test(expected = CredentialsExpiredException.class)
+	public void shouldRejectTooOldTimestamp() {
+		nonceServices.validateNonce(consumer("foo"), now - 11, nonce());
+	}
+
+	@Test
+	public void shouldRemoveExpiredNonces() {
+		JdbcTemplate jdbcTemplate = new JdbcTemplate(db);
+		jdbcTemplate.update("insert into oauth_nonce values (?, ?, ?, ?)", "foo", now - 20, nonce(), now - 10);
+		jdbcTemplate.update("insert into oauth_nonce values (?, ?, ?, ?)", "foo", now - 2, nonce(), now + 8);
+		nonceServices.validateNonce(consumer("foo"), now, nonce());
+		assertEquals(2, count());
+	}
+
+	private int count() {
+		return new JdbcTemplate(db).queryForObject("select count(*) from oauth_nonce", Integer.class);
+	}
+
+	private String nonce() {
+		return UUID.randomUUID().toString();
+	}
+
+	private ConsumerDetails consumer(String name) {
+		BaseConsumerDetails details = new BaseConsumerDetails();
+		details.setConsumerKey(name);
+		return details;
+	}
+}
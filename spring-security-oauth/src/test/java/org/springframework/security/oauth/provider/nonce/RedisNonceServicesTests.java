@@ -0,0 +1,86 @@
+package org.springframework.security.oauth.provider.nonce;
+
+import static org.junit.Assert.fail;
+import static org.mockito.AdditionalMatchers.aryEq;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.security.authentication.CredentialsExpiredException;
+import org.springframework.security.oauth.provider.BaseConsumerDetails;
+import org.springframework.security.oauth.provider.ConsumerDetails;
+
+public class RedisNonceServicesTests {
+
+	private long now;
+
+	private RedisConnection connection = mock(RedisConnection.class);
+
+	private RedisNonceServices nonceServices;
+
+	@Before
+	public void setUp() throws Exception {
+		RedisConnectionFactory connectionFactory = mock(RedisConnectionFactory.class);
+		when(connectionFactory.getConnection()).thenReturn(connection);
+		nonceServices = new RedisNonceServices(connectionFactory);
+		nonceServices.setValidityWindowSeconds(10);
+		now = System.currentTimeMillis() / 1000;
+	}
+
+	@Test
+	public void shouldSetNonceIfAbsentWithExpiry() {
+		when(connection.execute(eq("SET"), any(byte[].class), any(byte[].class), any(byte[].class), any(byte[].class),
+				any(byte[].class))).thenReturn("OK".getBytes());
+		nonceServices.validateNonce(consumer("foo"), now, "bar");
+		verify(connection).execute(eq("SET"), aryEq(("oauth_nonce:foo:" + now + ":bar").getBytes()), any(byte[].class),
+				aryEq("EX".getBytes()), any(byte[].class), aryEq("NX".getBytes()));
+		verify(connection).close();
+	}
+
+	@Test(expected = NonceAlreadyUsedException.class)
+	public void shouldRejectNonceUsedOnAnotherNode() {
+		nonceServices.validateNonce(consumer("foo"), now, "bar");
+	}
+
+	@Test
+	public void shouldRejectNonceUsedOnThisNodeWithoutRoundTrip() {
+		when(connection.execute(eq("SET"), any(byte[].class), any(byte[].class), any(byte[].class), any(byte[].class),
+				any(byte[].class))).thenReturn("OK".getBytes());
+		nonceServices.validateNonce(consumer("foo"), now, "bar");
+		try {
+			nonceServices.validateNonce(consumer("foo"), now, "bar");
+			fail("Expected NonceAlreadyUsedException");
+		}
+		catch (NonceAlreadyUsedException e) {
+			// expected
+		}
+		verify(connection, times(1)).execute(eq("SET"), any(byte[].class), any(byte[].class), any(byte[].class),
+				any(byte[].class), any(byte[].class));
+	}
+
+	@Test
+	public void shouldNotCallRedisForExpiredTimestamp() {
+		try {
+			nonceServices.validateNonce(consumer("foo"), now - 11, "bar");
+			fail("Expected CredentialsExpiredException");
+		}
+		catch (CredentialsExpiredException e) {
+			// expected
+		}
+		verify(connection, never()).close();
+	}
+
+	private ConsumerDetails consumer(String name) {
+		BaseConsumerDetails details = new BaseConsumerDetails();
+		details.setConsumerKey(name);
+		return details;
+	}
+}
@@ -24,3 +24,11 @@ create table oauth_refresh_token (
 create table oauth_code (
   code VARCHAR(256), authentication LONGVARBINARY
 );
+
+create table oauth_nonce (
+  consumer_key VARCHAR(256),
+  nonce_timestamp BIGINT,
+  nonce VARCHAR(256),
+  expires_at BIGINT,
+  primary key (consumer_key, nonce_timestamp, nonce)
+);
@@ -29,6 +29,11 @@ import org.springframework.util.StringUtils;
 @Deprecated
 public class DefaultOAuth2RequestAuthenticator implements OAuth2RequestAuthenticator {
 
+	/**
+	 * The header for the last token seen, since the same token is normally used for many requests.
+	 */
+	private volatile CachedHeader cachedHeader;
+
 	@Override
 	public void authenticate(OAuth2ProtectedResourceDetails resource, OAuth2ClientContext clientContext,
 			ClientHttpRequest request) {
@@ -36,6 +41,19 @@ public class DefaultOAuth2RequestAuthenticator implements OAuth2RequestAuthentic
 		if (accessToken == null) {
 			throw new AccessTokenRequiredException(resource);
 		}
+		request.getHeaders().set("Authorization", getAuthorizationHeader(accessToken));
+	}
+
+	/**
+	 * @param accessToken an access token
+	 * @return the value of the Authorization header for the token
+	 */
+	public String getAuthorizationHeader(OAuth2AccessToken accessToken) {
+		CachedHeader cached = this.cachedHeader;
+		if (cached != null && cached.token == accessToken && cached.value == accessToken.getValue()
+				&& cached.tokenType == accessToken.getTokenType()) {
+			return cached.header;
+		}
 		String tokenType = accessToken.getTokenType();
 		if (!StringUtils.hasText(tokenType)) {
 			tokenType = OAuth2AccessToken.BEARER_TYPE; // we'll assume basic bearer token type if none is specified.
@@ -43,7 +61,29 @@ public class DefaultOAuth2RequestAuthenticator implements OAuth2RequestAuthentic
 			// gh-1346
 			tokenType = OAuth2AccessToken.BEARER_TYPE; // Ensure we use the correct syntax for the "Bearer" authentication scheme
 		}
-		request.getHeaders().set("Authorization", String.format("%s %s", tokenType, accessToken.getValue()));
+		String header = tokenType + " " + accessToken.getValue();
+		this.cachedHeader = new CachedHeader(accessToken, header);
+		return header;
+	}
+
+	private static class CachedHeader {
+
+		private final OAuth2AccessToken token;
+
+		private final String value;
+
+		private final String tokenType;
+
+		private final String header;
+
+		public CachedHeader(OAuth2AccessToken token, String header) {
+			this.token = token;
+			// Remembered separately in case the token is modified
+			this.value = token.getValue();
+			this.tokenType = token.getTokenType();
+			this.header = header;
+		}
+
 	}
 
 }
@@ -7,7 +7,7 @@ import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URLEncoder;
 import java.util.Arrays;
-import java.util.Calendar;
+import java.util.Date;
 
 import org.springframework.http.HttpMethod;
 import org.springframework.http.client.ClientHttpRequest;
@@ -16,6 +16,7 @@ import org.springframework.security.oauth2.client.http.OAuth2ErrorHandler;
 import org.springframework.security.oauth2.client.resource.OAuth2AccessDeniedException;
 import org.springframework.security.oauth2.client.resource.OAuth2ProtectedResourceDetails;
 import org.springframework.security.oauth2.client.resource.UserRedirectRequiredException;
+import org.springframework.security.oauth2.client.token.AccessTokenManager;
 import org.springframework.security.oauth2.client.token.AccessTokenProvider;
 import org.springframework.security.oauth2.client.token.AccessTokenProviderChain;
 import org.springframework.security.oauth2.client.token.AccessTokenRequest;
@@ -27,6 +28,7 @@ import org.springframework.security.oauth2.common.AuthenticationScheme;
 import org.springframework.security.oauth2.common.OAuth2AccessToken;
 import org.springframework.security.oauth2.common.exceptions.InvalidTokenException;
 import org.springframework.util.Assert;
+import org.springframework.util.ObjectUtils;
 import org.springframework.util.ReflectionUtils;
 import org.springframework.web.client.RequestCallback;
 import org.springframework.web.client.ResponseErrorHandler;
@@ -60,6 +62,10 @@ public class OAuth2RestTemplate extends RestTemplate implements OAuth2RestOperat
 
 	private int clockSkew = 30;
 
+	private AccessTokenManager accessTokenManager;
+
+	private volatile EncodedToken encodedToken;
+
 	public OAuth2RestTemplate(OAuth2ProtectedResourceDetails resource) {
 		this(resource, new DefaultOAuth2ClientContext());
 	}
@@ -96,6 +102,19 @@ public class OAuth2RestTemplate extends RestTemplate implements OAuth2RestOperat
 		this.retryBadAccessTokens = retryBadAccessTokens;
 	}
 
+	/**
+	 * A manager that holds (and renews ahead of expiry) the access token for the resource, instead of this template
+	 * acquiring it on demand. Only for resources that need no user interaction (<code>client_credentials</code> or
+	 * <code>password</code> grant), and the same manager can be shared by all the templates for a resource.
+	 * 
+	 * @param accessTokenManager the access token manager to set
+	 */
+	public void setAccessTokenManager(AccessTokenManager accessTokenManager) {
+		Assert.isTrue(accessTokenManager == null || accessTokenManager.getResource() == resource,
+				"The access token manager must be for the same resource");
+		this.accessTokenManager = accessTokenManager;
+	}
+
 	@Override
 	public void setErrorHandler(ResponseErrorHandler errorHandler) {
 		if (!(errorHandler instanceof OAuth2ErrorHandler)) {
@@ -148,6 +167,12 @@ public class OAuth2RestTemplate extends RestTemplate implements OAuth2RestOperat
 			rethrow = new OAuth2AccessDeniedException("Invalid token for client=" + getClientId());
 		}
 		if (accessToken != null && retryBadAccessTokens) {
+			if (accessTokenManager != null) {
+				accessTokenManager.invalidate(accessToken);
+			}
+			else if (accessTokenProvider instanceof AccessTokenProviderChain) {
+				((AccessTokenProviderChain) accessTokenProvider).removeAccessToken(resource, accessToken);
+			}
 			context.setAccessToken(null);
 			try {
 				return super.doExecute(url, method, requestCallback, responseExtractor);
@@ -176,6 +201,14 @@ public class OAuth2RestTemplate extends RestTemplate implements OAuth2RestOperat
 	 */
 	public OAuth2AccessToken getAccessToken() throws UserRedirectRequiredException {
 
+		if (accessTokenManager != null) {
+			OAuth2AccessToken accessToken = accessTokenManager.getAccessToken();
+			if (accessToken != context.getAccessToken()) {
+				context.setAccessToken(accessToken);
+			}
+			return accessToken;
+		}
+
 		OAuth2AccessToken accessToken = context.getAccessToken();
 
 		if (accessToken == null || hasTokenExpired(accessToken)) {
@@ -200,13 +233,8 @@ public class OAuth2RestTemplate extends RestTemplate implements OAuth2RestOperat
 	}
 
 	private boolean hasTokenExpired(OAuth2AccessToken accessToken) {
-		Calendar now = Calendar.getInstance();
-		Calendar expiresAt = (Calendar) now.clone();
-		if (accessToken.getExpiration() != null) {
-			expiresAt.setTime(accessToken.getExpiration());
-			expiresAt.add(Calendar.SECOND, -this.clockSkew);
-		}
-		return now.after(expiresAt);
+		Date expiration = accessToken.getExpiration();
+		return expiration != null && System.currentTimeMillis() > expiration.getTime() - this.clockSkew * 1000L;
 	}
 
 	/**
@@ -251,28 +279,23 @@ public class OAuth2RestTemplate extends RestTemplate implements OAuth2RestOperat
 
 		try {
 
-			// TODO: there is some duplication with UriUtils here. Probably unavoidable as long as this
-			// method signature uses URI not String.
-			String query = uri.getRawQuery(); // Don't decode anything here
-			String queryFragment = resource.getTokenName() + "=" + URLEncoder.encode(accessToken.getValue(), "UTF-8");
-			if (query == null) {
-				query = queryFragment;
-			}
-			else {
-				query = query + "&" + queryFragment;
-			}
+			String queryFragment = getQueryFragment(accessToken);
 
-			// first form the URI without query and fragment parts, so that it doesn't re-encode some query string chars
-			// (SECOAUTH-90)
-			URI update = new URI(uri.getScheme(), uri.getUserInfo(), uri.getHost(), uri.getPort(), uri.getPath(), null,
-					null);
-			// now add the encoded query string and the then fragment
-			StringBuffer sb = new StringBuffer(update.toString());
-			sb.append("?");
-			sb.append(query);
-			if (uri.getFragment() != null) {
-				sb.append("#");
-				sb.append(uri.getFragment());
+			// Work on the raw (encoded) form, so that nothing in the query or fragment is re-encoded (SECOAUTH-90)
+			String raw = uri.toString();
+			String fragment = null;
+			int hash = raw.indexOf('#');
+			if (hash >= 0) {
+				fragment = raw.substring(hash);
+				raw = raw.substring(0, hash);
+			}
+			StringBuilder sb = new StringBuilder(raw.length() + queryFragment.length()
+					+ (fragment == null ? 1 : fragment.length() + 1));
+			sb.append(raw);
+			sb.append(uri.getRawQuery() == null ? "?" : "&");
+			sb.append(queryFragment);
+			if (fragment != null) {
+				sb.append(fragment);
 			}
 
 			return new URI(sb.toString());
@@ -287,6 +310,21 @@ public class OAuth2RestTemplate extends RestTemplate implements OAuth2RestOperat
 
 	}
 
+	/**
+	 * The encoded token parameter, computed once per token.
+	 */
+	private String getQueryFragment(OAuth2AccessToken accessToken) throws UnsupportedEncodingException {
+		EncodedToken encoded = this.encodedToken;
+		String tokenName = resource.getTokenName();
+		if (encoded == null || encoded.token != accessToken || encoded.value != accessToken.getValue()
+				|| !ObjectUtils.nullSafeEquals(encoded.tokenName, tokenName)) {
+			encoded = new EncodedToken(accessToken, tokenName, tokenName + "="
+					+ URLEncoder.encode(accessToken.getValue(), "UTF-8"));
+			this.encodedToken = encoded;
+		}
+		return encoded.queryFragment;
+	}
+
 	public void setAccessTokenProvider(AccessTokenProvider accessTokenProvider) {
 		this.accessTokenProvider = accessTokenProvider;
 		propagateClockSkewToAccessTokenProvider(this.clockSkew, accessTokenProvider);
@@ -327,4 +365,25 @@ public class OAuth2RestTemplate extends RestTemplate implements OAuth2RestOperat
 		field.setAccessible(true);
 		ReflectionUtils.setField(field, accessTokenProvider, clockSkew);
 	}
-}
\ No newline at end of file
+
+	private static class EncodedToken {
+
+		private final OAuth2AccessToken token;
+
+		private final String value;
+
+		private final String tokenName;
+
+		private final String queryFragment;
+
+		public EncodedToken(OAuth2AccessToken token, String tokenName, String queryFragment) {
+			this.token = token;
+			// Remembered separately in case the token is modified
+			this.value = token.getValue();
+			this.tokenName = tokenName;
+			this.queryFragment = queryFragment;
+		}
+
+	}
+
+}
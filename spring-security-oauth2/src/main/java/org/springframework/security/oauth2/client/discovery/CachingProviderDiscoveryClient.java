@@ -0,0 +1,331 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.security.oauth2.client.discovery;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+import org.springframework.web.client.RestClientException;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A {@link ProviderDiscoveryClient} that caches the provider configuration information
+ * for as long as the provider allows through the <code>Cache-Control</code> response header.
+ * Once the configuration is stale it is revalidated with a conditional request
+ * (<code>If-None-Match</code> / <code>If-Modified-Since</code>), so an unchanged document costs
+ * a <code>304 Not Modified</code> instead of a full download. Only one request is in flight at a time.
+ *
+ * <p>
+ * By default the configuration is revalidated in the background shortly before it goes stale,
+ * with a random offset so that many instances started together do not all call the provider at once.
+ * If the provider cannot be reached once a configuration is cached, the cached one is kept
+ * and revalidation is retried after {@link #setMinMaxAgeSeconds(int) the minimum age}.
+ *
+ * <p>
+ * @deprecated See the <a href="https://github.com/spring-projects/spring-security/wiki/OAuth-2.0-Migration-Guide">OAuth 2.0 Migration Guide</a> for Spring Security 5.
+ *
+ * @since 2.5
+ * @see ProviderDiscoveryClient
+ * @see <a target="_blank" href="https://tools.ietf.org/html/rfc7234">HTTP/1.1 Caching</a>
+ */
+@Deprecated
+public class CachingProviderDiscoveryClient extends ProviderDiscoveryClient implements DisposableBean {
+	private static final Log logger = LogFactory.getLog(CachingProviderDiscoveryClient.class);
+	private final Object monitor = new Object();
+	private final Random random = new Random();
+	private int defaultMaxAgeSeconds = 300;
+	private int minMaxAgeSeconds = 30;
+	private boolean backgroundRefresh = true;
+	private ScheduledExecutorService scheduler;
+	private boolean ownScheduler;
+	private boolean destroyed;
+	private volatile CachedConfiguration cachedConfiguration;
+	private volatile ScheduledFuture<?> scheduledRefresh;
+
+	public CachingProviderDiscoveryClient(String providerLocationUri) {
+		super(providerLocationUri);
+	}
+
+	/**
+	 * The number of seconds the configuration is cached when the provider does not send a <code>max-age</code>.
+	 * Default 300.
+	 *
+	 * @param defaultMaxAgeSeconds the default age to set
+	 */
+	public void setDefaultMaxAgeSeconds(int defaultMaxAgeSeconds) {
+		Assert.isTrue(defaultMaxAgeSeconds >= 0, "defaultMaxAgeSeconds must be >= 0");
+		this.defaultMaxAgeSeconds = defaultMaxAgeSeconds;
+	}
+
+	/**
+	 * The minimum number of seconds the configuration is cached, whatever the provider sends
+	 * (including <code>no-cache</code>), and the delay before retrying a failed revalidation. Default 30.
+	 *
+	 * @param minMaxAgeSeconds the minimum age to set
+	 */
+	public void setMinMaxAgeSeconds(int minMaxAgeSeconds) {
+		Assert.isTrue(minMaxAgeSeconds >= 0, "minMaxAgeSeconds must be >= 0");
+		this.minMaxAgeSeconds = minMaxAgeSeconds;
+	}
+
+	/**
+	 * Flag to indicate that the configuration should be revalidated in the background before it goes stale.
+	 * Otherwise the first caller that finds it stale revalidates it. Default true.
+	 *
+	 * @param backgroundRefresh the flag to set
+	 */
+	public void setBackgroundRefresh(boolean backgroundRefresh) {
+		this.backgroundRefresh = backgroundRefresh;
+	}
+
+	/**
+	 * The scheduler used to revalidate the configuration in the background. By default a single daemon thread
+	 * is created (when first needed) and shut down when this client is destroyed. A scheduler set here is not shut down.
+	 *
+	 * @param scheduler the scheduler to set
+	 */
+	public synchronized void setScheduler(ScheduledExecutorService scheduler) {
+		if (this.ownScheduler) {
+			this.scheduler.shutdownNow();
+			this.ownScheduler = false;
+		}
+		this.scheduler = scheduler;
+	}
+
+	/**
+	 * Return the cached provider configuration information, discovering it if it is not cached yet
+	 * or revalidating it if it is stale.
+	 *
+	 * @throws RestClientException if the provider does not support discovery or for any HTTP-related errors
+	 * while no configuration is cached
+	 * @return the provider configuration information
+	 */
+	@Override
+	public ProviderConfiguration discover() {
+		CachedConfiguration current = this.cachedConfiguration;
+		if (current == null || current.isStale(System.currentTimeMillis())) {
+			current = revalidate(current);
+		}
+		return current.configuration;
+	}
+
+	/**
+	 * Discard the cached configuration, so that the next call to {@link #discover()} fetches it again.
+	 */
+	public void evict() {
+		synchronized (this.monitor) {
+			this.cachedConfiguration = null;
+			cancelRefresh();
+		}
+	}
+
+	public void destroy() throws Exception {
+		cancelRefresh();
+		synchronized (this) {
+			this.destroyed = true;
+			if (this.ownScheduler) {
+				this.scheduler.shutdownNow();
+				this.scheduler = null;
+				this.ownScheduler = false;
+			}
+		}
+	}
+
+	private CachedConfiguration revalidate(CachedConfiguration seen) {
+		synchronized (this.monitor) {
+			CachedConfiguration current = this.cachedConfiguration;
+			if (current != seen && current != null) {
+				// Revalidated by another thread while we were waiting
+				return current;
+			}
+			CachedConfiguration updated;
+			try {
+				updated = fetch(current);
+			} catch (RestClientException ex) {
+				if (current == null) {
+					throw ex;
+				}
+				logger.warn("Could not revalidate provider configuration from " + getProviderLocation() +
+						", using the cached one: " + ex.getMessage());
+				updated = current.withExpiry(System.currentTimeMillis() + this.minMaxAgeSeconds * 1000L);
+			}
+			this.cachedConfiguration = updated;
+			scheduleRefresh(updated);
+			return updated;
+		}
+	}
+
+	private CachedConfiguration fetch(CachedConfiguration current) {
+		HttpHeaders headers = new HttpHeaders();
+		headers.setAccept(Collections.singletonList(MediaType.APPLICATION_JSON));
+		if (current != null) {
+			if (current.etag != null) {
+				headers.setIfNoneMatch(current.etag);
+			}
+			if (current.lastModified >= 0) {
+				headers.setIfModifiedSince(current.lastModified);
+			}
+		}
+		ResponseEntity<Map> response = getRestTemplate().exchange(getProviderLocation(), HttpMethod.GET,
+				new HttpEntity<Void>(headers), Map.class);
+		HttpHeaders responseHeaders = response.getHeaders();
+		long expiry = System.currentTimeMillis() + getMaxAgeSeconds(responseHeaders) * 1000L;
+
+		if (current != null && response.getStatusCode() == HttpStatus.NOT_MODIFIED) {
+			if (logger.isDebugEnabled()) {
+				logger.debug("Provider configuration from " + getProviderLocation() + " not modified");
+			}
+			return current.withExpiry(expiry);
+		}
+		if (response.getBody() == null) {
+			throw new RestClientException("No provider configuration returned from " + getProviderLocation());
+		}
+		return new CachedConfiguration(toProviderConfiguration(response.getBody()),
+				responseHeaders.getETag(), responseHeaders.getLastModified(), expiry);
+	}
+
+	private long getMaxAgeSeconds(HttpHeaders headers) {
+		long maxAge = this.defaultMaxAgeSeconds;
+		String cacheControl = headers.getCacheControl();
+		if (StringUtils.hasText(cacheControl)) {
+			for (String directive : StringUtils.commaDelimitedListToStringArray(cacheControl)) {
+				directive = directive.trim().toLowerCase();
+				if (directive.equals("no-cache") || directive.equals("no-store")) {
+					maxAge = 0;
+					break;
+				}
+				if (directive.startsWith("max-age=")) {
+					try {
+						maxAge = Long.parseLong(directive.substring("max-age=".length()).trim());
+					} catch (NumberFormatException ex) {
+						// Ignore and keep the default
+					}
+				}
+			}
+		}
+		return Math.max(maxAge, this.minMaxAgeSeconds);
+	}
+
+	private void scheduleRefresh(CachedConfiguration configuration) {
+		cancelRefresh();
+		if (!this.backgroundRefresh) {
+			return;
+		}
+		long ttl = configuration.expiry - System.currentTimeMillis();
+		if (ttl <= 0) {
+			return;
+		}
+		// Revalidate within the last tenth of the lifetime, spread across instances
+		long delay = ttl - 1 - (long) (this.random.nextDouble() * (ttl / 10));
+		ScheduledExecutorService scheduler = getScheduler();
+		if (scheduler == null) {
+			return;
+		}
+		try {
+			this.scheduledRefresh = scheduler.schedule(new RefreshTask(configuration), delay, TimeUnit.MILLISECONDS);
+		} catch (RejectedExecutionException ex) {
+			logger.debug("Could not schedule revalidation of the provider configuration: " + ex.getMessage());
+		}
+	}
+
+	private void cancelRefresh() {
+		ScheduledFuture<?> refresh = this.scheduledRefresh;
+		if (refresh != null) {
+			refresh.cancel(false);
+			this.scheduledRefresh = null;
+		}
+	}
+
+	/**
+	 * @return the scheduler, or null once this client is destroyed
+	 */
+	private synchronized ScheduledExecutorService getScheduler() {
+		if (this.destroyed) {
+			return null;
+		}
+		if (this.scheduler == null) {
+			this.scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+				public Thread newThread(Runnable runnable) {
+					Thread thread = new Thread(runnable, "oauth2-provider-discovery");
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+			this.ownScheduler = true;
+		}
+		return this.scheduler;
+	}
+
+	private class RefreshTask implements Runnable {
+		private final CachedConfiguration configuration;
+
+		private RefreshTask(CachedConfiguration configuration) {
+			this.configuration = configuration;
+		}
+
+		public void run() {
+			if (cachedConfiguration != this.configuration) {
+				// Already revalidated or evicted
+				return;
+			}
+			try {
+				revalidate(this.configuration);
+			} catch (RuntimeException ex) {
+				logger.warn("Could not revalidate provider configuration from " + getProviderLocation() +
+						": " + ex.getMessage());
+			}
+		}
+	}
+
+	private static class CachedConfiguration {
+		private final ProviderConfiguration configuration;
+		private final String etag;
+		private final long lastModified;
+		private final long expiry;
+
+		private CachedConfiguration(ProviderConfiguration configuration, String etag, long lastModified, long expiry) {
+			this.configuration = configuration;
+			this.etag = etag;
+			this.lastModified = lastModified;
+			this.expiry = expiry;
+		}
+
+		private boolean isStale(long now) {
+			return now >= this.expiry;
+		}
+
+		private CachedConfiguration withExpiry(long expiry) {
+			return new CachedConfiguration(this.configuration, this.etag, this.lastModified, expiry);
+		}
+	}
+}
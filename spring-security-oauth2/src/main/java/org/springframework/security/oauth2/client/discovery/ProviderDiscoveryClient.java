@@ -37,6 +37,7 @@ import java.util.Map;
  * @author Joe Grandja
  * @since 2.2
  * @see ProviderConfiguration
+ * @see CachingProviderDiscoveryClient
  * @see <a target="_blank" href="https://openid.net/specs/openid-connect-discovery-1_0.html">OpenID Connect Discovery 1.0</a>
  */
 @Deprecated
@@ -71,7 +72,18 @@ public class ProviderDiscoveryClient {
 	 */
 	public ProviderConfiguration discover() {
 		Map responseAttributes = this.restTemplate.getForObject(this.providerLocation, Map.class);
+		return toProviderConfiguration(responseAttributes);
+	}
+
+	RestTemplate getRestTemplate() {
+		return this.restTemplate;
+	}
+
+	URI getProviderLocation() {
+		return this.providerLocation;
+	}
 
+	static ProviderConfiguration toProviderConfiguration(Map responseAttributes) {
 		ProviderConfiguration.Builder builder = new ProviderConfiguration.Builder();
 
 		builder.issuer((String)responseAttributes.get(ISSUER_ATTR_NAME));
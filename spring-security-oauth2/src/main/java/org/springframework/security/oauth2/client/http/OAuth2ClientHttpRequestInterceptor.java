@@ -0,0 +1,64 @@
+/*
+ * Copyright 2006-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.springframework.security.oauth2.client.http;
+
+import java.io.IOException;
+
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.security.oauth2.client.DefaultOAuth2RequestAuthenticator;
+import org.springframework.security.oauth2.client.token.AccessTokenManager;
+import org.springframework.security.oauth2.common.OAuth2AccessToken;
+import org.springframework.util.Assert;
+
+/**
+ * Interceptor that adds the Authorization header for the token of an {@link AccessTokenManager} to each request, so
+ * that a plain {@link org.springframework.web.client.RestTemplate} can call protected resources. Unlike
+ * {@link org.springframework.security.oauth2.client.OAuth2RestTemplate} it needs no client context and never touches
+ * the request URI, and the header is only built when the token changes. A token rejected with a 401 is discarded, so
+ * the next request gets a new one; the rejected request itself is not retried.
+ *
+ * <p>
+ * @deprecated See the <a href="https://github.com/spring-projects/spring-security/wiki/OAuth-2.0-Migration-Guide">OAuth 2.0 Migration Guide</a> for Spring Security 5.
+ *
+ */
+@Deprecated
+public class OAuth2ClientHttpRequestInterceptor implements ClientHttpRequestInterceptor {
+
+	private final AccessTokenManager accessTokenManager;
+
+	private final DefaultOAuth2RequestAuthenticator authenticator = new DefaultOAuth2RequestAuthenticator();
+
+	/**
+	 * @param accessTokenManager the source of access tokens
+	 */
+	public OAuth2ClientHttpRequestInterceptor(AccessTokenManager accessTokenManager) {
+		Assert.notNull(accessTokenManager, "An access token manager is required");
+		this.accessTokenManager = accessTokenManager;
+	}
+
+	public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+			throws IOException {
+		OAuth2AccessToken accessToken = accessTokenManager.getAccessToken();
+		request.getHeaders().set("Authorization", authenticator.getAuthorizationHeader(accessToken));
+		ClientHttpResponse response = execution.execute(request, body);
+		if (response.getRawStatusCode() == HttpStatus.UNAUTHORIZED.value()) {
+			accessTokenManager.invalidate(accessToken);
+		}
+		return response;
+	}
+
+}
@@ -0,0 +1,506 @@
+/*
+ * Copyright 2006-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.springframework.security.oauth2.client.token;
+
+import java.util.Date;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.security.oauth2.client.resource.OAuth2AccessDeniedException;
+import org.springframework.security.oauth2.client.resource.OAuth2ProtectedResourceDetails;
+import org.springframework.security.oauth2.common.DefaultOAuth2AccessToken;
+import org.springframework.security.oauth2.common.OAuth2AccessToken;
+import org.springframework.security.oauth2.common.OAuth2RefreshToken;
+import org.springframework.util.Assert;
+import org.springframework.util.concurrent.ListenableFuture;
+import org.springframework.util.concurrent.ListenableFutureCallback;
+import org.springframework.util.concurrent.SettableListenableFuture;
+
+/**
+ * Holds the access token for a resource that needs no user interaction (<code>client_credentials</code> or
+ * <code>password</code> grant), so that it can be shared by all the callers using that resource, e.g. several
+ * {@link org.springframework.security.oauth2.client.OAuth2RestTemplate OAuth2RestTemplates}. The token is renewed in
+ * the background shortly before it expires, so callers are not blocked while a valid token exists, and when one has
+ * to be fetched concurrent callers wait for the same request to the token endpoint instead of each sending their own.
+ * With an {@link AsyncAccessTokenProvider} the token can also be obtained without blocking, through
+ * {@link #getAccessTokenAsync()}, sharing the same token and in-flight requests as {@link #getAccessToken()}.
+ *
+ * <p>
+ * @deprecated See the <a href="https://github.com/spring-projects/spring-security/wiki/OAuth-2.0-Migration-Guide">OAuth 2.0 Migration Guide</a> for Spring Security 5.
+ *
+ */
+@Deprecated
+public class AccessTokenManager implements DisposableBean {
+
+	private static final Log logger = LogFactory.getLog(AccessTokenManager.class);
+
+	private final OAuth2ProtectedResourceDetails resource;
+
+	private final AccessTokenProvider accessTokenProvider;
+
+	private final AsyncAccessTokenProvider asyncAccessTokenProvider;
+
+	private final AtomicReference<OAuth2AccessToken> accessToken = new AtomicReference<OAuth2AccessToken>();
+
+	private final AtomicReference<SettableListenableFuture<OAuth2AccessToken>> inFlight = new AtomicReference<SettableListenableFuture<OAuth2AccessToken>>();
+
+	private int clockSkew = 30;
+
+	private int refreshAheadSeconds = 60;
+
+	private int refreshRetrySeconds = 5;
+
+	// At most one background renewal is queued at a time, and none before this time (after a failed one)
+	private final AtomicBoolean refreshQueued = new AtomicBoolean();
+
+	private volatile long nextRefreshAttempt;
+
+	private ScheduledExecutorService scheduler;
+
+	private boolean ownScheduler;
+
+	private boolean destroyed;
+
+	private volatile ScheduledFuture<?> scheduledRefresh;
+
+	/**
+	 * @param resource the resource to obtain tokens for (<code>client_credentials</code> or <code>password</code>
+	 * grant)
+	 * @param accessTokenProvider the provider to obtain (and if possible refresh) tokens with
+	 */
+	public AccessTokenManager(OAuth2ProtectedResourceDetails resource, AccessTokenProvider accessTokenProvider) {
+		this(resource, accessTokenProvider, null);
+		Assert.notNull(accessTokenProvider, "An access token provider is required");
+	}
+
+	/**
+	 * @param resource the resource to obtain tokens for (<code>client_credentials</code> or <code>password</code>
+	 * grant)
+	 * @param asyncAccessTokenProvider the provider to obtain (and if possible refresh) tokens with, without blocking
+	 */
+	public AccessTokenManager(OAuth2ProtectedResourceDetails resource,
+			AsyncAccessTokenProvider asyncAccessTokenProvider) {
+		this(resource, null, asyncAccessTokenProvider);
+		Assert.notNull(asyncAccessTokenProvider, "An access token provider is required");
+	}
+
+	private AccessTokenManager(OAuth2ProtectedResourceDetails resource, AccessTokenProvider accessTokenProvider,
+			AsyncAccessTokenProvider asyncAccessTokenProvider) {
+		Assert.notNull(resource, "A resource is required");
+		Assert.isTrue("client_credentials".equals(resource.getGrantType())
+				|| "password".equals(resource.getGrantType()),
+				"Only client_credentials and password resources can be managed, not " + resource.getGrantType());
+		this.resource = resource;
+		this.accessTokenProvider = accessTokenProvider;
+		this.asyncAccessTokenProvider = asyncAccessTokenProvider;
+	}
+
+	/**
+	 * The maximum acceptable clock skew, in seconds: a token this close to its expiry is not used any more. Default
+	 * 30.
+	 *
+	 * @param clockSkew the clock skew to set
+	 */
+	public void setClockSkew(int clockSkew) {
+		Assert.isTrue(clockSkew >= 0, "clockSkew must be >= 0");
+		this.clockSkew = clockSkew;
+	}
+
+	/**
+	 * How long (in seconds) before a token expires it is renewed in the background. Should be larger than the clock
+	 * skew, otherwise callers have to wait for the renewal. Default 60.
+	 *
+	 * @param refreshAheadSeconds the period to set
+	 */
+	public void setRefreshAheadSeconds(int refreshAheadSeconds) {
+		Assert.isTrue(refreshAheadSeconds >= 0, "refreshAheadSeconds must be >= 0");
+		this.refreshAheadSeconds = refreshAheadSeconds;
+	}
+
+	/**
+	 * The minimum time (in seconds) between two background renewals when the last one failed, so that a token
+	 * endpoint that is slow or down is not called again on every request. Default 5.
+	 *
+	 * @param refreshRetrySeconds the period to set
+	 */
+	public void setRefreshRetrySeconds(int refreshRetrySeconds) {
+		Assert.isTrue(refreshRetrySeconds >= 0, "refreshRetrySeconds must be >= 0");
+		this.refreshRetrySeconds = refreshRetrySeconds;
+	}
+
+	/**
+	 * The scheduler used to renew tokens in the background. By default a single daemon thread is created (when first
+	 * needed) and shut down when this manager is destroyed. A scheduler set here is not shut down.
+	 *
+	 * @param scheduler the scheduler to set
+	 */
+	public synchronized void setScheduler(ScheduledExecutorService scheduler) {
+		if (ownScheduler) {
+			this.scheduler.shutdownNow();
+			ownScheduler = false;
+		}
+		this.scheduler = scheduler;
+	}
+
+	/**
+	 * @return the resource whose tokens are managed
+	 */
+	public OAuth2ProtectedResourceDetails getResource() {
+		return resource;
+	}
+
+	/**
+	 * Get a valid access token, only waiting for the token endpoint if there is no valid token yet.
+	 *
+	 * @return an access token
+	 */
+	public OAuth2AccessToken getAccessToken() {
+		OAuth2AccessToken token = accessToken.get();
+		if (isUsable(token)) {
+			return token;
+		}
+		return await(acquireAccessToken(token));
+	}
+
+	/**
+	 * Get a valid access token without blocking. The future is already complete if there is a valid token.
+	 *
+	 * @return the access token, when it is available
+	 */
+	public ListenableFuture<OAuth2AccessToken> getAccessTokenAsync() {
+		OAuth2AccessToken token = accessToken.get();
+		if (isUsable(token)) {
+			SettableListenableFuture<OAuth2AccessToken> result = new SettableListenableFuture<OAuth2AccessToken>();
+			result.set(token);
+			return result;
+		}
+		return acquireAccessToken(token);
+	}
+
+	private boolean isUsable(OAuth2AccessToken token) {
+		long now = System.currentTimeMillis();
+		if (token == null || hasExpired(token, now)) {
+			return false;
+		}
+		if (isDueForRefresh(token, now)) {
+			refreshInBackground(token);
+		}
+		return true;
+	}
+
+	/**
+	 * Discard a token, e.g. because the resource server rejected it, so that the next caller gets a new one. Does
+	 * nothing if the current token is a different one.
+	 *
+	 * @param token the token to discard
+	 */
+	public void invalidate(OAuth2AccessToken token) {
+		if (token != null) {
+			accessToken.compareAndSet(token, null);
+		}
+	}
+
+	public void destroy() throws Exception {
+		ScheduledFuture<?> refresh = scheduledRefresh;
+		if (refresh != null) {
+			refresh.cancel(false);
+		}
+		synchronized (this) {
+			destroyed = true;
+			if (ownScheduler) {
+				scheduler.shutdownNow();
+				scheduler = null;
+				ownScheduler = false;
+			}
+		}
+	}
+
+	/**
+	 * Obtain a new token to replace the one given, or join a request that is already in flight.
+	 */
+	private ListenableFuture<OAuth2AccessToken> acquireAccessToken(OAuth2AccessToken stale) {
+		while (true) {
+			SettableListenableFuture<OAuth2AccessToken> result = inFlight.get();
+			if (result != null) {
+				return result;
+			}
+			SettableListenableFuture<OAuth2AccessToken> created = new SettableListenableFuture<OAuth2AccessToken>();
+			if (inFlight.compareAndSet(null, created)) {
+				OAuth2AccessToken current = accessToken.get();
+				if (current != null && current != stale && !hasExpired(current, System.currentTimeMillis())) {
+					// Somebody else already replaced it
+					complete(created, current);
+				}
+				else if (asyncAccessTokenProvider != null) {
+					fetchAccessTokenAsync(created, current);
+				}
+				else {
+					fetchAccessToken(created, current);
+				}
+				return created;
+			}
+		}
+	}
+
+	private void fetchAccessToken(SettableListenableFuture<OAuth2AccessToken> result, OAuth2AccessToken current) {
+		try {
+			OAuth2AccessToken token = null;
+			OAuth2RefreshToken refreshToken = null;
+			if (canRefresh(current, accessTokenProvider.supportsRefresh(resource))) {
+				try {
+					token = accessTokenProvider.refreshAccessToken(resource, current.getRefreshToken(),
+							new DefaultAccessTokenRequest());
+					if (token != null) {
+						refreshToken = current.getRefreshToken();
+					}
+				}
+				catch (RuntimeException e) {
+					logger.debug("Could not refresh access token, obtaining a new one: " + e.getMessage());
+				}
+			}
+			if (token == null) {
+				token = accessTokenProvider.obtainAccessToken(resource, new DefaultAccessTokenRequest());
+			}
+			complete(result, store(token, refreshToken));
+		}
+		catch (RuntimeException e) {
+			fail(result, e);
+		}
+	}
+
+	private void fetchAccessTokenAsync(final SettableListenableFuture<OAuth2AccessToken> result,
+			final OAuth2AccessToken current) {
+		if (canRefresh(current, asyncAccessTokenProvider.supportsRefresh(resource))) {
+			asyncAccessTokenProvider.refreshAccessToken(resource, current.getRefreshToken(),
+					new DefaultAccessTokenRequest()).addCallback(new ListenableFutureCallback<OAuth2AccessToken>() {
+				public void onSuccess(OAuth2AccessToken token) {
+					if (token == null) {
+						obtainAccessTokenAsync(result);
+						return;
+					}
+					storeAndComplete(result, token, current.getRefreshToken());
+				}
+
+				public void onFailure(Throwable e) {
+					logger.debug("Could not refresh access token, obtaining a new one: " + e.getMessage());
+					obtainAccessTokenAsync(result);
+				}
+			});
+		}
+		else {
+			obtainAccessTokenAsync(result);
+		}
+	}
+
+	private void obtainAccessTokenAsync(final SettableListenableFuture<OAuth2AccessToken> result) {
+		ListenableFuture<OAuth2AccessToken> response;
+		try {
+			response = asyncAccessTokenProvider.obtainAccessToken(resource, new DefaultAccessTokenRequest());
+		}
+		catch (RuntimeException e) {
+			fail(result, e);
+			return;
+		}
+		response.addCallback(new ListenableFutureCallback<OAuth2AccessToken>() {
+			public void onSuccess(OAuth2AccessToken token) {
+				storeAndComplete(result, token, null);
+			}
+
+			public void onFailure(Throwable e) {
+				fail(result, e);
+			}
+		});
+	}
+
+	private void storeAndComplete(SettableListenableFuture<OAuth2AccessToken> result, OAuth2AccessToken token,
+			OAuth2RefreshToken refreshToken) {
+		try {
+			complete(result, store(token, refreshToken));
+		}
+		catch (RuntimeException e) {
+			fail(result, e);
+		}
+	}
+
+	private boolean canRefresh(OAuth2AccessToken current, boolean supportsRefresh) {
+		return current != null && current.getRefreshToken() != null && supportsRefresh;
+	}
+
+	/**
+	 * Make a token the current one. If it was obtained with a refresh token and came without a new one, the refresh
+	 * token that was used is kept.
+	 */
+	private OAuth2AccessToken store(OAuth2AccessToken token, OAuth2RefreshToken refreshToken) {
+		if (token == null || token.getValue() == null) {
+			throw new IllegalStateException(
+					"Access token provider returned a null access token, which is illegal according to the contract.");
+		}
+		if (token.getRefreshToken() == null && refreshToken != null) {
+			DefaultOAuth2AccessToken refreshed = new DefaultOAuth2AccessToken(token);
+			refreshed.setRefreshToken(refreshToken);
+			token = refreshed;
+		}
+		accessToken.set(token);
+		scheduleRefresh(token);
+		return token;
+	}
+
+	private void complete(SettableListenableFuture<OAuth2AccessToken> result, OAuth2AccessToken token) {
+		// Clear it first, so that callers that find the new token never join a finished request
+		inFlight.compareAndSet(result, null);
+		result.set(token);
+	}
+
+	private void fail(SettableListenableFuture<OAuth2AccessToken> result, Throwable e) {
+		inFlight.compareAndSet(result, null);
+		result.setException(e);
+	}
+
+	private OAuth2AccessToken await(ListenableFuture<OAuth2AccessToken> result) {
+		try {
+			return result.get();
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new OAuth2AccessDeniedException("Interrupted while waiting for an access token", resource, e);
+		}
+		catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new OAuth2AccessDeniedException("Unable to obtain an access token", resource, cause);
+		}
+	}
+
+	private void scheduleRefresh(final OAuth2AccessToken token) {
+		Date expiration = token.getExpiration();
+		if (expiration == null) {
+			return;
+		}
+		long delay = expiration.getTime() - refreshAheadSeconds * 1000L - System.currentTimeMillis();
+		if (delay <= 0) {
+			// Too short-lived, renewed when the next caller finds it due
+			return;
+		}
+		ScheduledExecutorService scheduler = getScheduler();
+		if (scheduler == null) {
+			return;
+		}
+		ScheduledFuture<?> previous = scheduledRefresh;
+		if (previous != null) {
+			previous.cancel(false);
+		}
+		try {
+			scheduledRefresh = scheduler.schedule(new RefreshTask(token, false), delay, TimeUnit.MILLISECONDS);
+		}
+		catch (RejectedExecutionException e) {
+			logger.debug("Could not schedule renewal of access token: " + e.getMessage());
+		}
+	}
+
+	private void refreshInBackground(OAuth2AccessToken token) {
+		if (inFlight.get() != null || System.currentTimeMillis() < nextRefreshAttempt
+				|| !refreshQueued.compareAndSet(false, true)) {
+			return;
+		}
+		ScheduledExecutorService scheduler = getScheduler();
+		if (scheduler == null) {
+			refreshQueued.set(false);
+			return;
+		}
+		try {
+			scheduler.execute(new RefreshTask(token, true));
+		}
+		catch (RejectedExecutionException e) {
+			refreshQueued.set(false);
+			logger.debug("Could not schedule renewal of access token: " + e.getMessage());
+		}
+	}
+
+	private boolean hasExpired(OAuth2AccessToken token, long now) {
+		Date expiration = token.getExpiration();
+		return expiration != null && now > expiration.getTime() - clockSkew * 1000L;
+	}
+
+	private boolean isDueForRefresh(OAuth2AccessToken token, long now) {
+		Date expiration = token.getExpiration();
+		return expiration != null && now >= expiration.getTime() - refreshAheadSeconds * 1000L;
+	}
+
+	/**
+	 * @return the scheduler, or null once this manager is destroyed
+	 */
+	private synchronized ScheduledExecutorService getScheduler() {
+		if (destroyed) {
+			return null;
+		}
+		if (scheduler == null) {
+			scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+				public Thread newThread(Runnable runnable) {
+					Thread thread = new Thread(runnable, "oauth2-token-refresh-" + resource.getId());
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+			ownScheduler = true;
+		}
+		return scheduler;
+	}
+
+	private class RefreshTask implements Runnable {
+
+		private final OAuth2AccessToken token;
+
+		private final boolean queued;
+
+		public RefreshTask(OAuth2AccessToken token, boolean queued) {
+			this.token = token;
+			this.queued = queued;
+		}
+
+		public void run() {
+			try {
+				if (accessToken.get() != token) {
+					// Already replaced or invalidated
+					return;
+				}
+				await(acquireAccessToken(token));
+			}
+			catch (RuntimeException e) {
+				nextRefreshAttempt = System.currentTimeMillis() + refreshRetrySeconds * 1000L;
+				logger.warn("Could not renew access token for resource '" + resource.getId() + "': " + e.getMessage());
+			}
+			finally {
+				if (queued) {
+					refreshQueued.set(false);
+				}
+			}
+		}
+
+	}
+
+}
@@ -15,10 +15,12 @@
  */
 package org.springframework.security.oauth2.client.token;
 
-import java.util.Calendar;
 import java.util.Collections;
+import java.util.Date;
 import java.util.List;
 
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.authentication.AnonymousAuthenticationToken;
 import org.springframework.security.authentication.InsufficientAuthenticationException;
@@ -59,7 +61,8 @@ public class AccessTokenProviderChain extends OAuth2AccessTokenSupport
 	}
 
 	/**
-	 * Token services for long-term persistence of access tokens.
+	 * Token services for long-term persistence of access tokens. Use an {@link InMemoryClientTokenServices} shared
+	 * between chains to share tokens between rest templates.
 	 *
 	 * @param clientTokenServices the clientTokenServices to set
 	 */
@@ -67,6 +70,40 @@ public class AccessTokenProviderChain extends OAuth2AccessTokenSupport
 		this.clientTokenServices = clientTokenServices;
 	}
 
+	/**
+	 * Set the request factory used by this chain and by all the providers in it (those that extend
+	 * {@link OAuth2AccessTokenSupport}) to call the authorization server, e.g. a
+	 * {@link org.springframework.security.oauth2.http.client.PooledClientHttpRequestFactory} so that connections to
+	 * the token endpoint are kept alive and reused across grants.
+	 *
+	 * @param requestFactory the request factory to set
+	 */
+	@Override
+	public void setRequestFactory(ClientHttpRequestFactory requestFactory) {
+		super.setRequestFactory(requestFactory);
+		for (AccessTokenProvider tokenProvider : chain) {
+			if (tokenProvider instanceof OAuth2AccessTokenSupport) {
+				((OAuth2AccessTokenSupport) tokenProvider).setRequestFactory(requestFactory);
+			}
+		}
+	}
+
+	/**
+	 * Set the request interceptors used by this chain and by all the providers in it (those that extend
+	 * {@link OAuth2AccessTokenSupport}), e.g. to collect metrics for the calls to the authorization server.
+	 *
+	 * @param interceptors the interceptors to set
+	 */
+	@Override
+	public void setInterceptors(List<ClientHttpRequestInterceptor> interceptors) {
+		super.setInterceptors(interceptors);
+		for (AccessTokenProvider tokenProvider : chain) {
+			if (tokenProvider instanceof OAuth2AccessTokenSupport) {
+				((OAuth2AccessTokenSupport) tokenProvider).setInterceptors(interceptors);
+			}
+		}
+	}
+
 	public boolean supportsResource(OAuth2ProtectedResourceDetails resource) {
 		for (AccessTokenProvider tokenProvider : chain) {
 			if (tokenProvider.supportsResource(resource)) {
@@ -141,6 +178,24 @@ public class AccessTokenProviderChain extends OAuth2AccessTokenSupport
 		return accessToken;
 	}
 
+	/**
+	 * Discard a token that was rejected by the resource server, so that the client token services (if any) do not
+	 * hand it out again.
+	 *
+	 * @param resource the resource the token was for
+	 * @param accessToken the rejected token
+	 */
+	public void removeAccessToken(OAuth2ProtectedResourceDetails resource, OAuth2AccessToken accessToken) {
+		if (clientTokenServices == null || accessToken == null) {
+			return;
+		}
+		Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+		OAuth2AccessToken stored = clientTokenServices.getAccessToken(resource, auth);
+		if (stored != null && accessToken.getValue().equals(stored.getValue())) {
+			clientTokenServices.removeAccessToken(resource, auth);
+		}
+	}
+
 	protected OAuth2AccessToken obtainNewAccessTokenInternal(
 			OAuth2ProtectedResourceDetails details, AccessTokenRequest request)
 			throws UserRedirectRequiredException, AccessDeniedException {
@@ -199,12 +254,7 @@ public class AccessTokenProviderChain extends OAuth2AccessTokenSupport
 	 * @return <code>true</code> if the token should be considered expired, <code>false</code> otherwise
 	 */
 	private boolean hasTokenExpired(OAuth2AccessToken token) {
-		Calendar now = Calendar.getInstance();
-		Calendar expiresAt = (Calendar) now.clone();
-		if (token.getExpiration() != null) {
-			expiresAt.setTime(token.getExpiration());
-			expiresAt.add(Calendar.SECOND, -this.clockSkew);
-		}
-		return now.after(expiresAt);
+		Date expiration = token.getExpiration();
+		return expiration != null && System.currentTimeMillis() > expiration.getTime() - this.clockSkew * 1000L;
 	}
 }
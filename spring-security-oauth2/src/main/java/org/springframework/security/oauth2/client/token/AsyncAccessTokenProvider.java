@@ -0,0 +1,70 @@
+/*
+ * Copyright 2006-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.springframework.security.oauth2.client.token;
+
+import org.springframework.security.oauth2.client.resource.OAuth2ProtectedResourceDetails;
+import org.springframework.security.oauth2.common.OAuth2AccessToken;
+import org.springframework.security.oauth2.common.OAuth2RefreshToken;
+import org.springframework.util.concurrent.ListenableFuture;
+
+/**
+ * Non-blocking counterpart of {@link AccessTokenProvider} for grants that need no user interaction. The token is
+ * delivered through a {@link ListenableFuture}, which fails with the same exceptions the blocking provider would
+ * throw (e.g. {@link org.springframework.security.oauth2.client.resource.OAuth2AccessDeniedException}).
+ *
+ * <p>
+ * @deprecated See the <a href="https://github.com/spring-projects/spring-security/wiki/OAuth-2.0-Migration-Guide">OAuth 2.0 Migration Guide</a> for Spring Security 5.
+ *
+ */
+@Deprecated
+public interface AsyncAccessTokenProvider {
+
+	/**
+	 * Obtain a new access token for the specified protected resource.
+	 *
+	 * @param details The protected resource for which this provider is to obtain an access token.
+	 * @param parameters The parameters of the request giving context for the token details if any.
+	 * @return The access token for the specified protected resource, when it arrives.
+	 */
+	ListenableFuture<OAuth2AccessToken> obtainAccessToken(OAuth2ProtectedResourceDetails details,
+			AccessTokenRequest parameters);
+
+	/**
+	 * Whether this provider supports using a refresh token to obtain an access token for the specified resource.
+	 *
+	 * @param resource The resource.
+	 * @return Whether this provider supports using a refresh token to obtain an access token for the specified
+	 * resource.
+	 */
+	boolean supportsRefresh(OAuth2ProtectedResourceDetails resource);
+
+	/**
+	 * Obtain a new access token for the specified resource using the refresh token.
+	 *
+	 * @param resource The resource.
+	 * @param refreshToken The refresh token.
+	 * @param request The parameters of the request giving context for the token details if any.
+	 * @return The access token, when it arrives.
+	 */
+	ListenableFuture<OAuth2AccessToken> refreshAccessToken(OAuth2ProtectedResourceDetails resource,
+			OAuth2RefreshToken refreshToken, AccessTokenRequest request);
+
+	/**
+	 * Whether this provider supports the specified resource.
+	 *
+	 * @param resource The resource.
+	 * @return Whether this provider supports the specified resource.
+	 */
+	boolean supportsResource(OAuth2ProtectedResourceDetails resource);
+
+}
@@ -0,0 +1,253 @@
+/*
+ * Copyright 2006-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.springframework.security.oauth2.client.token;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.oauth2.client.resource.OAuth2ProtectedResourceDetails;
+import org.springframework.security.oauth2.common.OAuth2AccessToken;
+import org.springframework.util.Assert;
+import org.springframework.util.ObjectUtils;
+
+/**
+ * Client token services that keep the tokens of another implementation (typically {@link JdbcClientTokenServices}) in
+ * memory. Tokens found in memory are returned without going to the delegate, saving a token that is already stored is
+ * a no-op, and new tokens are written to the delegate in the background: the tokens saved during each flush interval
+ * are written together, only the latest one for each key. Set the flush interval to 0 to write them straight away.
+ * Removing a token discards its pending write, or waits for a write already under way and then deletes the token.
+ *
+ * <p>
+ * @deprecated See the <a href="https://github.com/spring-projects/spring-security/wiki/OAuth-2.0-Migration-Guide">OAuth 2.0 Migration Guide</a> for Spring Security 5.
+ *
+ */
+@Deprecated
+public class CachingClientTokenServices implements ClientTokenServices, DisposableBean {
+
+	private static final Log logger = LogFactory.getLog(CachingClientTokenServices.class);
+
+	private final ClientTokenServices delegate;
+
+	private final ConcurrentHashMap<String, OAuth2AccessToken> cache = new ConcurrentHashMap<String, OAuth2AccessToken>();
+
+	private final ConcurrentHashMap<String, PendingToken> pending = new ConcurrentHashMap<String, PendingToken>();
+
+	// Serializes the write of a pending token against the removal of the same key (striped, to bound memory)
+	private final Object[] locks = new Object[64];
+
+	private ClientKeyGenerator keyGenerator = new DefaultClientKeyGenerator();
+
+	private int maxCacheEntries = 10000;
+
+	private long flushIntervalMillis = 1000;
+
+	private ScheduledExecutorService scheduler;
+
+	private boolean destroyed;
+
+	/**
+	 * @param delegate the token services that persist the tokens
+	 */
+	public CachingClientTokenServices(ClientTokenServices delegate) {
+		Assert.notNull(delegate, "Delegate token services are required");
+		this.delegate = delegate;
+		for (int i = 0; i < locks.length; i++) {
+			locks[i] = new Object();
+		}
+	}
+
+	/**
+	 * The key generator used to tell tokens apart in memory. Should be the same as the delegate's. Default
+	 * {@link DefaultClientKeyGenerator}.
+	 *
+	 * @param keyGenerator the key generator to set
+	 */
+	public void setClientKeyGenerator(ClientKeyGenerator keyGenerator) {
+		this.keyGenerator = keyGenerator;
+	}
+
+	/**
+	 * The maximum number of tokens to keep in memory. When it is reached the cache is cleared (pending writes are
+	 * kept). Default 10000.
+	 *
+	 * @param maxCacheEntries the maximum number of entries
+	 */
+	public void setMaxCacheEntries(int maxCacheEntries) {
+		this.maxCacheEntries = maxCacheEntries;
+	}
+
+	/**
+	 * The period (in milliseconds) between writes of new tokens to the delegate. Zero to write each token when it is
+	 * saved. Default 1000.
+	 *
+	 * @param flushIntervalMillis the flush interval to set
+	 */
+	public synchronized void setFlushIntervalMillis(long flushIntervalMillis) {
+		Assert.isTrue(flushIntervalMillis >= 0, "flushIntervalMillis must be >= 0");
+		Assert.state(scheduler == null, "The flush interval cannot be changed once tokens have been saved");
+		this.flushIntervalMillis = flushIntervalMillis;
+	}
+
+	public OAuth2AccessToken getAccessToken(OAuth2ProtectedResourceDetails resource, Authentication authentication) {
+		String key = keyGenerator.extractKey(resource, authentication);
+		OAuth2AccessToken accessToken = cache.get(key);
+		if (accessToken != null) {
+			return accessToken;
+		}
+		PendingToken write = pending.get(key);
+		if (write != null) {
+			return write.accessToken;
+		}
+		accessToken = delegate.getAccessToken(resource, authentication);
+		if (accessToken != null) {
+			put(key, accessToken);
+		}
+		return accessToken;
+	}
+
+	public void saveAccessToken(OAuth2ProtectedResourceDetails resource, Authentication authentication,
+			OAuth2AccessToken accessToken) {
+		String key = keyGenerator.extractKey(resource, authentication);
+		if (isSame(accessToken, cache.get(key))) {
+			return;
+		}
+		put(key, accessToken);
+		if (flushIntervalMillis == 0) {
+			delegate.saveAccessToken(resource, authentication, accessToken);
+			return;
+		}
+		pending.put(key, new PendingToken(resource, authentication, accessToken));
+		if (!startFlushing()) {
+			// Destroyed: nothing will flush it later
+			flush();
+		}
+	}
+
+	public void removeAccessToken(OAuth2ProtectedResourceDetails resource, Authentication authentication) {
+		String key = keyGenerator.extractKey(resource, authentication);
+		synchronized (lockFor(key)) {
+			cache.remove(key);
+			pending.remove(key);
+			delegate.removeAccessToken(resource, authentication);
+		}
+	}
+
+	/**
+	 * Write all the pending tokens to the delegate.
+	 */
+	public void flush() {
+		int count = 0;
+		for (Map.Entry<String, PendingToken> entry : pending.entrySet()) {
+			PendingToken write = entry.getValue();
+			// A removal of the same key either discards the write before it starts or deletes it after it is done
+			synchronized (lockFor(entry.getKey())) {
+				// Skip it if it was removed or replaced in the meantime
+				if (pending.remove(entry.getKey(), write)) {
+					try {
+						delegate.saveAccessToken(write.resource, write.authentication, write.accessToken);
+						count++;
+					}
+					catch (RuntimeException e) {
+						logger.warn("Could not save access token for client " + write.resource.getClientId() + ": "
+								+ e.getMessage());
+					}
+				}
+			}
+		}
+		if (count > 0 && logger.isDebugEnabled()) {
+			logger.debug("Saved " + count + " access tokens");
+		}
+	}
+
+	public void destroy() throws Exception {
+		synchronized (this) {
+			destroyed = true;
+			if (scheduler != null) {
+				scheduler.shutdown();
+				scheduler.awaitTermination(flushIntervalMillis, TimeUnit.MILLISECONDS);
+			}
+		}
+		flush();
+	}
+
+	private void put(String key, OAuth2AccessToken accessToken) {
+		if (cache.size() >= maxCacheEntries) {
+			cache.clear();
+		}
+		cache.put(key, accessToken);
+	}
+
+	private Object lockFor(String key) {
+		return locks[(key.hashCode() & 0x7fffffff) % locks.length];
+	}
+
+	private boolean isSame(OAuth2AccessToken accessToken, OAuth2AccessToken cached) {
+		if (cached == null) {
+			return false;
+		}
+		if (accessToken == cached) {
+			return true;
+		}
+		return accessToken.getValue().equals(cached.getValue())
+				&& ObjectUtils.nullSafeEquals(accessToken.getExpiration(), cached.getExpiration())
+				&& ObjectUtils.nullSafeEquals(accessToken.getRefreshToken(), cached.getRefreshToken());
+	}
+
+	private synchronized boolean startFlushing() {
+		if (destroyed) {
+			return false;
+		}
+		if (scheduler != null) {
+			return true;
+		}
+		scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+			public Thread newThread(Runnable runnable) {
+				Thread thread = new Thread(runnable, "oauth2-client-token-writer");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		scheduler.scheduleWithFixedDelay(new Runnable() {
+			public void run() {
+				flush();
+			}
+		}, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+		return true;
+	}
+
+	private static class PendingToken {
+
+		private final OAuth2ProtectedResourceDetails resource;
+
+		private final Authentication authentication;
+
+		private final OAuth2AccessToken accessToken;
+
+		public PendingToken(OAuth2ProtectedResourceDetails resource, Authentication authentication,
+				OAuth2AccessToken accessToken) {
+			this.resource = resource;
+			this.authentication = authentication;
+			this.accessToken = accessToken;
+		}
+
+	}
+
+}
@@ -0,0 +1,183 @@
+/*
+ * Copyright 2006-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.springframework.security.oauth2.client.token;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.util.Arrays;
+
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.AsyncClientHttpRequest;
+import org.springframework.http.client.AsyncClientHttpRequestFactory;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.http.converter.FormHttpMessageConverter;
+import org.springframework.security.oauth2.client.resource.OAuth2AccessDeniedException;
+import org.springframework.security.oauth2.client.resource.OAuth2ProtectedResourceDetails;
+import org.springframework.security.oauth2.client.token.grant.client.ClientCredentialsResourceDetails;
+import org.springframework.security.oauth2.client.token.grant.password.ResourceOwnerPasswordResourceDetails;
+import org.springframework.security.oauth2.common.OAuth2AccessToken;
+import org.springframework.security.oauth2.common.OAuth2RefreshToken;
+import org.springframework.security.oauth2.common.exceptions.OAuth2Exception;
+import org.springframework.security.oauth2.common.util.OAuth2Utils;
+import org.springframework.util.Assert;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.util.concurrent.ListenableFuture;
+import org.springframework.util.concurrent.ListenableFutureCallback;
+import org.springframework.util.concurrent.SettableListenableFuture;
+import org.springframework.web.client.AsyncRequestCallback;
+import org.springframework.web.client.AsyncRestTemplate;
+import org.springframework.web.client.RestClientException;
+
+/**
+ * Non-blocking provider for the <code>client_credentials</code> and <code>password</code> grants (and refresh tokens
+ * for the latter), sending the same requests as {@link
+ * org.springframework.security.oauth2.client.token.grant.client.ClientCredentialsAccessTokenProvider} and {@link
+ * org.springframework.security.oauth2.client.token.grant.password.ResourceOwnerPasswordAccessTokenProvider} through an
+ * {@link AsyncRestTemplate}. Client authentication, request enhancers and message converters are configured as for
+ * those providers. The default request factory sends each request from a new thread; set a non-blocking one (e.g.
+ * Netty based) with {@link #setAsyncRequestFactory(AsyncClientHttpRequestFactory)} to run on an event loop.
+ *
+ * <p>
+ * @deprecated See the <a href="https://github.com/spring-projects/spring-security/wiki/OAuth-2.0-Migration-Guide">OAuth 2.0 Migration Guide</a> for Spring Security 5.
+ *
+ */
+@Deprecated
+public class DefaultAsyncAccessTokenProvider extends OAuth2AccessTokenSupport implements AsyncAccessTokenProvider {
+
+	private static final FormHttpMessageConverter FORM_MESSAGE_CONVERTER = new FormHttpMessageConverter();
+
+	private AsyncClientHttpRequestFactory asyncRequestFactory;
+
+	private volatile AsyncRestTemplate asyncRestTemplate;
+
+	public DefaultAsyncAccessTokenProvider() {
+		SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory() {
+			@Override
+			protected void prepareConnection(HttpURLConnection connection, String httpMethod) throws IOException {
+				super.prepareConnection(connection, httpMethod);
+				connection.setInstanceFollowRedirects(false);
+				connection.setUseCaches(false);
+			}
+		};
+		requestFactory.setTaskExecutor(new SimpleAsyncTaskExecutor("oauth2-token-"));
+		this.asyncRequestFactory = requestFactory;
+	}
+
+	/**
+	 * Set the request factory used to call the token endpoint.
+	 *
+	 * @param asyncRequestFactory the request factory to set
+	 */
+	public void setAsyncRequestFactory(AsyncClientHttpRequestFactory asyncRequestFactory) {
+		Assert.notNull(asyncRequestFactory, "'asyncRequestFactory' must not be null");
+		this.asyncRequestFactory = asyncRequestFactory;
+		this.asyncRestTemplate = null;
+	}
+
+	public boolean supportsResource(OAuth2ProtectedResourceDetails resource) {
+		return resource instanceof ClientCredentialsResourceDetails
+				&& "client_credentials".equals(resource.getGrantType())
+				|| resource instanceof ResourceOwnerPasswordResourceDetails && "password".equals(resource.getGrantType());
+	}
+
+	public boolean supportsRefresh(OAuth2ProtectedResourceDetails resource) {
+		return resource instanceof ResourceOwnerPasswordResourceDetails && "password".equals(resource.getGrantType());
+	}
+
+	public ListenableFuture<OAuth2AccessToken> obtainAccessToken(OAuth2ProtectedResourceDetails details,
+			AccessTokenRequest request) {
+		MultiValueMap<String, String> form = new LinkedMultiValueMap<String, String>();
+		if (details instanceof ResourceOwnerPasswordResourceDetails) {
+			ResourceOwnerPasswordResourceDetails resource = (ResourceOwnerPasswordResourceDetails) details;
+			form.set(OAuth2Utils.GRANT_TYPE, "password");
+			form.set("username", resource.getUsername());
+			form.set("password", resource.getPassword());
+			form.putAll(request);
+		}
+		else {
+			form.set(OAuth2Utils.GRANT_TYPE, "client_credentials");
+		}
+		if (details.isScoped()) {
+			form.set("scope", OAuth2Utils.formatParameterList(details.getScope()));
+		}
+		return retrieveTokenAsync(request, details, form, new HttpHeaders());
+	}
+
+	public ListenableFuture<OAuth2AccessToken> refreshAccessToken(OAuth2ProtectedResourceDetails resource,
+			OAuth2RefreshToken refreshToken, AccessTokenRequest request) {
+		MultiValueMap<String, String> form = new LinkedMultiValueMap<String, String>();
+		form.add(OAuth2Utils.GRANT_TYPE, "refresh_token");
+		form.add("refresh_token", refreshToken.getValue());
+		return retrieveTokenAsync(request, resource, form, new HttpHeaders());
+	}
+
+	protected ListenableFuture<OAuth2AccessToken> retrieveTokenAsync(AccessTokenRequest request,
+			final OAuth2ProtectedResourceDetails resource, final MultiValueMap<String, String> form,
+			final HttpHeaders headers) {
+
+		final SettableListenableFuture<OAuth2AccessToken> result = new SettableListenableFuture<OAuth2AccessToken>();
+		ListenableFuture<OAuth2AccessToken> response;
+		try {
+			prepareTokenRequest(request, resource, form, headers);
+			response = getAsyncRestTemplate().execute(getAccessTokenUri(resource, form), getHttpMethod(),
+					new AsyncRequestCallback() {
+						public void doWithRequest(AsyncClientHttpRequest request) throws IOException {
+							request.getHeaders().putAll(headers);
+							request.getHeaders().setAccept(
+									Arrays.asList(MediaType.APPLICATION_JSON, MediaType.APPLICATION_FORM_URLENCODED));
+							FORM_MESSAGE_CONVERTER.write(form, MediaType.APPLICATION_FORM_URLENCODED, request);
+						}
+					}, getResponseExtractor(), form.toSingleValueMap());
+		}
+		catch (RuntimeException e) {
+			result.setException(translate(resource, e));
+			return result;
+		}
+
+		response.addCallback(new ListenableFutureCallback<OAuth2AccessToken>() {
+			public void onSuccess(OAuth2AccessToken accessToken) {
+				result.set(accessToken);
+			}
+
+			public void onFailure(Throwable e) {
+				result.setException(translate(resource, e));
+			}
+		});
+		return result;
+
+	}
+
+	private AsyncRestTemplate getAsyncRestTemplate() {
+		AsyncRestTemplate template = asyncRestTemplate;
+		if (template == null) {
+			template = new AsyncRestTemplate(asyncRequestFactory);
+			template.setErrorHandler(getResponseErrorHandler());
+			asyncRestTemplate = template;
+		}
+		return template;
+	}
+
+	private Throwable translate(OAuth2ProtectedResourceDetails resource, Throwable e) {
+		if (e instanceof OAuth2Exception) {
+			return new OAuth2AccessDeniedException("Access token denied.", resource, e);
+		}
+		if (e instanceof RestClientException) {
+			return new OAuth2AccessDeniedException("Error requesting access token.", resource, e);
+		}
+		return e;
+	}
+
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright 2006-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.springframework.security.oauth2.client.token;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.security.core.Authentication;
+import org.springframework.security.oauth2.client.resource.OAuth2ProtectedResourceDetails;
+import org.springframework.security.oauth2.common.OAuth2AccessToken;
+import org.springframework.util.ObjectUtils;
+
+/**
+ * Implementation of token services that keeps tokens in memory, so that one instance can be shared by the
+ * {@link AccessTokenProviderChain access token providers} of all the
+ * {@link org.springframework.security.oauth2.client.OAuth2RestTemplate OAuth2RestTemplates} in an application. Tokens
+ * are keyed by token endpoint, client id and scope (plus the user name for resources that act on behalf of a user),
+ * so templates for the same client share a token however many resource details instances describe it. Reads do not
+ * lock.
+ *
+ * <p>
+ * @deprecated See the <a href="https://github.com/spring-projects/spring-security/wiki/OAuth-2.0-Migration-Guide">OAuth 2.0 Migration Guide</a> for Spring Security 5.
+ *
+ */
+@Deprecated
+public class InMemoryClientTokenServices implements ClientTokenServices {
+
+	private final ConcurrentHashMap<TokenKey, OAuth2AccessToken> tokens = new ConcurrentHashMap<TokenKey, OAuth2AccessToken>();
+
+	private int maxEntries = 10000;
+
+	/**
+	 * The maximum number of tokens to keep. When it is reached all the tokens are discarded (and obtained again when
+	 * next needed). Default 10000.
+	 *
+	 * @param maxEntries the maximum number of entries
+	 */
+	public void setMaxEntries(int maxEntries) {
+		this.maxEntries = maxEntries;
+	}
+
+	public OAuth2AccessToken getAccessToken(OAuth2ProtectedResourceDetails resource, Authentication authentication) {
+		return tokens.get(new TokenKey(resource, authentication));
+	}
+
+	public void saveAccessToken(OAuth2ProtectedResourceDetails resource, Authentication authentication,
+			OAuth2AccessToken accessToken) {
+		TokenKey key = new TokenKey(resource, authentication);
+		if (accessToken == tokens.get(key)) {
+			return;
+		}
+		if (tokens.size() >= maxEntries) {
+			tokens.clear();
+		}
+		tokens.put(key, accessToken);
+	}
+
+	public void removeAccessToken(OAuth2ProtectedResourceDetails resource, Authentication authentication) {
+		tokens.remove(new TokenKey(resource, authentication));
+	}
+
+	private static final class TokenKey {
+
+		private final String accessTokenUri;
+
+		private final String clientId;
+
+		private final Set<String> scope;
+
+		private final String username;
+
+		private final int hashCode;
+
+		public TokenKey(OAuth2ProtectedResourceDetails resource, Authentication authentication) {
+			this.accessTokenUri = resource.getAccessTokenUri();
+			this.clientId = resource.getClientId();
+			this.scope = resource.getScope() == null ? Collections.<String> emptySet() : new HashSet<String>(
+					resource.getScope());
+			// A client-only token does not depend on who is logged in
+			this.username = resource.isClientOnly() || authentication == null ? null : authentication.getName();
+			int result = ObjectUtils.nullSafeHashCode(accessTokenUri);
+			result = 31 * result + ObjectUtils.nullSafeHashCode(clientId);
+			result = 31 * result + scope.hashCode();
+			result = 31 * result + ObjectUtils.nullSafeHashCode(username);
+			this.hashCode = result;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof TokenKey)) {
+				return false;
+			}
+			TokenKey other = (TokenKey) obj;
+			return hashCode == other.hashCode && ObjectUtils.nullSafeEquals(accessTokenUri, other.accessTokenUri)
+					&& ObjectUtils.nullSafeEquals(clientId, other.clientId) && scope.equals(other.scope)
+					&& ObjectUtils.nullSafeEquals(username, other.username);
+		}
+
+		@Override
+		public int hashCode() {
+			return hashCode;
+		}
+
+	}
+
+}
@@ -70,6 +70,9 @@ public abstract class OAuth2AccessTokenSupport {
 	 */
 	public void setInterceptors(List<ClientHttpRequestInterceptor> interceptors) {
 		this.interceptors = interceptors;
+		if (restTemplate instanceof RestTemplate) {
+			((RestTemplate) restTemplate).setInterceptors(interceptors);
+		}
 	}
 	
 	/**
@@ -123,9 +126,7 @@ public abstract class OAuth2AccessTokenSupport {
 
 		try {
 			// Prepare headers and form before going into rest template call in case the URI is affected by the result
-			authenticationHandler.authenticateTokenRequest(resource, form, headers);
-			// Opportunity to customize form and headers
-			tokenRequestEnhancer.enhance(request, resource, form, headers);
+			prepareTokenRequest(request, resource, form, headers);
 			final AccessTokenRequest copy = request;
 
 			final ResponseExtractor<OAuth2AccessToken> delegate = getResponseExtractor();
@@ -151,6 +152,21 @@ public abstract class OAuth2AccessTokenSupport {
 
 	}
 
+	/**
+	 * Add the client authentication to a token request and give the token request enhancer a chance to customize it.
+	 *
+	 * @param request the access token request
+	 * @param resource the resource the token is for
+	 * @param form the form to send to the token endpoint
+	 * @param headers the headers to send to the token endpoint
+	 */
+	protected void prepareTokenRequest(AccessTokenRequest request, OAuth2ProtectedResourceDetails resource,
+			MultiValueMap<String, String> form, HttpHeaders headers) {
+		authenticationHandler.authenticateTokenRequest(resource, form, headers);
+		// Opportunity to customize form and headers
+		tokenRequestEnhancer.enhance(request, resource, form, headers);
+	}
+
 	protected HttpMethod getHttpMethod() {
 		return HttpMethod.POST;
 	}
@@ -192,6 +208,9 @@ public abstract class OAuth2AccessTokenSupport {
 	public void setRequestFactory(ClientHttpRequestFactory requestFactory) {
 		Assert.notNull(requestFactory, "'requestFactory' must not be null");
 		this.requestFactory = requestFactory;
+		if (restTemplate instanceof RestTemplate) {
+			((RestTemplate) restTemplate).setRequestFactory(requestFactory);
+		}
 	}
 
 	protected ResponseExtractor<OAuth2AccessToken> getResponseExtractor() {
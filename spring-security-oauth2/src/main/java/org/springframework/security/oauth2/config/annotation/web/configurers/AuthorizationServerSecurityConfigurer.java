@@ -33,6 +33,7 @@ import org.springframework.security.config.annotation.web.configurers.ExceptionH
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.oauth2.provider.ClientDetailsService;
 import org.springframework.security.oauth2.provider.client.ClientCredentialsTokenEndpointFilter;
+import org.springframework.security.oauth2.provider.client.CachingClientSecretAuthenticationProvider;
 import org.springframework.security.oauth2.provider.client.ClientDetailsUserDetailsService;
 import org.springframework.security.oauth2.provider.endpoint.FrameworkEndpointHandlerMapping;
 import org.springframework.security.oauth2.provider.error.OAuth2AccessDeniedHandler;
@@ -78,6 +79,8 @@ public final class AuthorizationServerSecurityConfigurer extends
 
 	private boolean sslOnly = false;
 
+	private int clientSecretCacheSeconds = 0;
+
 	/**
 	 * Custom authentication filters for the TokenEndpoint. Filters will be set upstream of the default
 	 * BasicAuthenticationFilter.
@@ -108,6 +111,19 @@ public final class AuthorizationServerSecurityConfigurer extends
 		return this;
 	}
 
+	/**
+	 * Remember successfully verified client secrets for the given period (in seconds), so that clients authenticating
+	 * repeatedly do not pay for the (deliberately slow) password encoder every time. Ignored if custom authentication
+	 * providers are added. Default 0 (disabled).
+	 * 
+	 * @param clientSecretCacheSeconds the period to remember verified secrets for
+	 * @see CachingClientSecretAuthenticationProvider
+	 */
+	public AuthorizationServerSecurityConfigurer clientSecretCacheSeconds(int clientSecretCacheSeconds) {
+		this.clientSecretCacheSeconds = clientSecretCacheSeconds;
+		return this;
+	}
+
 	public AuthorizationServerSecurityConfigurer authenticationEntryPoint(
 			AuthenticationEntryPoint authenticationEntryPoint) {
 		this.authenticationEntryPoint = authenticationEntryPoint;
@@ -167,7 +183,15 @@ public final class AuthorizationServerSecurityConfigurer extends
 		if (authenticationEventPublisher != null) {
 		    builder.authenticationEventPublisher(authenticationEventPublisher);
 		}
-		if (authenticationProviders.isEmpty()) {
+		if (authenticationProviders.isEmpty() && clientSecretCacheSeconds > 0) {
+			CachingClientSecretAuthenticationProvider provider = new CachingClientSecretAuthenticationProvider();
+			provider.setUserDetailsService(new ClientDetailsUserDetailsService(clientDetailsService()));
+			if (passwordEncoder != null) {
+				provider.setPasswordEncoder(passwordEncoder());
+			}
+			provider.setCacheSeconds(clientSecretCacheSeconds);
+			builder.authenticationProvider(postProcess(provider));
+		} else if (authenticationProviders.isEmpty()) {
 			if (passwordEncoder != null) {
 				builder.userDetailsService(new ClientDetailsUserDetailsService(clientDetailsService()))
 					.passwordEncoder(passwordEncoder());
@@ -86,6 +86,10 @@ public final class ResourceServerSecurityConfigurer extends
 
 	private boolean stateless = true;
 
+	private boolean validateTokenFormat = false;
+
+	private boolean publishSuccessEvents = true;
+
 	public ResourceServerSecurityConfigurer() {
 		resourceId(resourceId);
 	}
@@ -108,6 +112,27 @@ public final class ResourceServerSecurityConfigurer extends
 		return this;
 	}
 
+	/**
+	 * Flag to indicate that tokens with an implausible format (too long, unexpected characters or not shaped like a JWT
+	 * despite containing dots) should be rejected before any token store or signature work.
+	 * @param validateTokenFormat the flag value (default false)
+	 * @return this (for fluent builder)
+	 */
+	public ResourceServerSecurityConfigurer validateTokenFormat(boolean validateTokenFormat) {
+		this.validateTokenFormat = validateTokenFormat;
+		return this;
+	}
+
+	/**
+	 * Flag to indicate that successful token authentications should be published to the event publisher.
+	 * @param publishSuccessEvents the flag value (default true)
+	 * @return this (for fluent builder)
+	 */
+	public ResourceServerSecurityConfigurer publishSuccessEvents(boolean publishSuccessEvents) {
+		this.publishSuccessEvents = publishSuccessEvents;
+		return this;
+	}
+
 	public ResourceServerSecurityConfigurer authenticationEntryPoint(AuthenticationEntryPoint authenticationEntryPoint) {
 		this.authenticationEntryPoint = authenticationEntryPoint;
 		return this;
@@ -217,6 +242,8 @@ public final class ResourceServerSecurityConfigurer extends
 		if (authenticationDetailsSource != null) {
 			resourcesServerFilter.setAuthenticationDetailsSource(authenticationDetailsSource);
 		}
+		resourcesServerFilter.setValidateTokenFormat(validateTokenFormat);
+		resourcesServerFilter.setPublishSuccessEvents(publishSuccessEvents);
 		resourcesServerFilter = postProcess(resourcesServerFilter);
 		resourcesServerFilter.setStateless(stateless);
 
@@ -0,0 +1,130 @@
+/*
+ * Copyright 2006-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.springframework.security.oauth2.http.client;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+/**
+ * Interceptor that stops calling a server that keeps failing. After a number of consecutive failures (I/O errors or
+ * 5xx responses) the circuit opens and requests fail immediately with an <code>IOException</code> (which a
+ * <code>RestTemplate</code> reports as a <code>ResourceAccessException</code>) instead of tying up the caller. Once the
+ * open period has passed a single trial request is let through: if it succeeds the circuit closes again, otherwise it
+ * stays open for another period.
+ *
+ * <p>
+ * @deprecated See the <a href="https://github.com/spring-projects/spring-security/wiki/OAuth-2.0-Migration-Guide">OAuth 2.0 Migration Guide</a> for Spring Security 5.
+ *
+ */
+@Deprecated
+public class CircuitBreakerInterceptor implements ClientHttpRequestInterceptor {
+
+	private static final Log logger = LogFactory.getLog(CircuitBreakerInterceptor.class);
+
+	private final AtomicInteger consecutiveFailures = new AtomicInteger();
+
+	private final AtomicBoolean trialInProgress = new AtomicBoolean();
+
+	private volatile long openUntil = 0;
+
+	private int failureThreshold = 5;
+
+	private long openMillis = 10000;
+
+	/**
+	 * The number of consecutive failures that opens the circuit. Default 5.
+	 *
+	 * @param failureThreshold the failure threshold to set
+	 */
+	public void setFailureThreshold(int failureThreshold) {
+		this.failureThreshold = failureThreshold;
+	}
+
+	/**
+	 * The time (in milliseconds) for which requests are rejected once the circuit opens. Default 10000.
+	 *
+	 * @param openMillis the open period to set
+	 */
+	public void setOpenMillis(long openMillis) {
+		this.openMillis = openMillis;
+	}
+
+	/**
+	 * @return true if requests are currently being rejected
+	 */
+	public boolean isOpen() {
+		return openUntil != 0;
+	}
+
+	public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+			throws IOException {
+		boolean trial = false;
+		if (openUntil != 0) {
+			if (System.currentTimeMillis() < openUntil || !trialInProgress.compareAndSet(false, true)) {
+				throw new IOException("Circuit open, not calling " + request.getURI());
+			}
+			trial = true;
+		}
+		ClientHttpResponse response;
+		try {
+			response = execution.execute(request, body);
+		}
+		catch (IOException e) {
+			failure(trial);
+			throw e;
+		}
+		catch (RuntimeException e) {
+			failure(trial);
+			throw e;
+		}
+		if (response.getRawStatusCode() >= 500) {
+			failure(trial);
+		}
+		else {
+			success(trial);
+		}
+		return response;
+	}
+
+	private void success(boolean trial) {
+		consecutiveFailures.set(0);
+		if (openUntil != 0) {
+			openUntil = 0;
+			logger.info("Circuit closed");
+		}
+		if (trial) {
+			trialInProgress.set(false);
+		}
+	}
+
+	private void failure(boolean trial) {
+		if (consecutiveFailures.incrementAndGet() >= failureThreshold || trial) {
+			if (openUntil == 0) {
+				logger.warn("Circuit opened after " + consecutiveFailures.get() + " consecutive failures");
+			}
+			openUntil = System.currentTimeMillis() + openMillis;
+		}
+		if (trial) {
+			trialInProgress.set(false);
+		}
+	}
+
+}
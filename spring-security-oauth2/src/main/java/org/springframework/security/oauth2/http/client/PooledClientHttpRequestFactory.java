@@ -0,0 +1,80 @@
+/*
+ * Copyright 2006-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.springframework.security.oauth2.http.client;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+
+/**
+ * A request factory backed by a pooled Apache HttpClient (which must be on the classpath), suitable for the frequent
+ * calls a resource server or client makes to an authorization server. Connections are kept alive and reused, up to a
+ * maximum in total and per route, and idle or expired ones are evicted in the background. Redirects are not followed
+ * and cookies are not kept.
+ * <p>
+ * All the timeouts are finite by default: 5 seconds to connect, 10 seconds to read a response and 1 second to obtain a
+ * connection from the pool (so a saturated pool fails fast rather than queueing every caller). Change them with the
+ * inherited setters. Call {@link #destroy()} (done automatically for a bean) to close the pool.
+ *
+ * <p>
+ * @deprecated See the <a href="https://github.com/spring-projects/spring-security/wiki/OAuth-2.0-Migration-Guide">OAuth 2.0 Migration Guide</a> for Spring Security 5.
+ *
+ */
+@Deprecated
+public class PooledClientHttpRequestFactory extends HttpComponentsClientHttpRequestFactory {
+
+	private final PoolingHttpClientConnectionManager connectionManager;
+
+	/**
+	 * Create a factory with at most 20 connections, all of which may go to the same route.
+	 */
+	public PooledClientHttpRequestFactory() {
+		this(20, 20);
+	}
+
+	/**
+	 * @param maxTotal the maximum number of pooled connections
+	 * @param maxPerRoute the maximum number of pooled connections to the same host
+	 */
+	public PooledClientHttpRequestFactory(int maxTotal, int maxPerRoute) {
+		this(createConnectionManager(maxTotal, maxPerRoute));
+	}
+
+	private PooledClientHttpRequestFactory(PoolingHttpClientConnectionManager connectionManager) {
+		super(HttpClientBuilder.create().setConnectionManager(connectionManager).disableRedirectHandling()
+				.disableCookieManagement().evictExpiredConnections().evictIdleConnections(30, TimeUnit.SECONDS)
+				.useSystemProperties().build());
+		this.connectionManager = connectionManager;
+		setConnectTimeout(5000);
+		setReadTimeout(10000);
+		setConnectionRequestTimeout(1000);
+	}
+
+	/**
+	 * @return the current usage of the connection pool (connections leased, available and pending, and the maximum)
+	 */
+	public PoolStats getPoolStats() {
+		return connectionManager.getTotalStats();
+	}
+
+	private static PoolingHttpClientConnectionManager createConnectionManager(int maxTotal, int maxPerRoute) {
+		PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+		connectionManager.setMaxTotal(maxTotal);
+		connectionManager.setDefaultMaxPerRoute(maxPerRoute);
+		return connectionManager;
+	}
+
+}
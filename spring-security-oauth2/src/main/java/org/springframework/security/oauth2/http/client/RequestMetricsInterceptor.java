@@ -0,0 +1,114 @@
+/*
+ * Copyright 2006-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.springframework.security.oauth2.http.client;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+/**
+ * Interceptor that counts requests and failures and measures their latency (up to the response headers), for exposing
+ * through whatever metrics system the application uses. Failures are I/O errors and 5xx responses.
+ *
+ * <p>
+ * @deprecated See the <a href="https://github.com/spring-projects/spring-security/wiki/OAuth-2.0-Migration-Guide">OAuth 2.0 Migration Guide</a> for Spring Security 5.
+ *
+ */
+@Deprecated
+public class RequestMetricsInterceptor implements ClientHttpRequestInterceptor {
+
+	private final AtomicLong requests = new AtomicLong();
+
+	private final AtomicLong failures = new AtomicLong();
+
+	private final AtomicLong totalNanos = new AtomicLong();
+
+	private final AtomicLong maxNanos = new AtomicLong();
+
+	public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+			throws IOException {
+		long start = System.nanoTime();
+		boolean failed = true;
+		try {
+			ClientHttpResponse response = execution.execute(request, body);
+			failed = response.getRawStatusCode() >= 500;
+			return response;
+		}
+		finally {
+			record(System.nanoTime() - start, failed);
+		}
+	}
+
+	private void record(long nanos, boolean failed) {
+		requests.incrementAndGet();
+		if (failed) {
+			failures.incrementAndGet();
+		}
+		totalNanos.addAndGet(nanos);
+		long max = maxNanos.get();
+		while (nanos > max && !maxNanos.compareAndSet(max, nanos)) {
+			max = maxNanos.get();
+		}
+	}
+
+	/**
+	 * @return the number of requests made
+	 */
+	public long getRequestCount() {
+		return requests.get();
+	}
+
+	/**
+	 * @return the number of requests that failed
+	 */
+	public long getFailureCount() {
+		return failures.get();
+	}
+
+	/**
+	 * @return the mean latency of the requests in milliseconds
+	 */
+	public double getMeanLatencyMillis() {
+		long count = requests.get();
+		return count == 0 ? 0 : (double) totalNanos.get() / count / TimeUnit.MILLISECONDS.toNanos(1);
+	}
+
+	/**
+	 * @return the highest latency of the requests in milliseconds
+	 */
+	public double getMaxLatencyMillis() {
+		return (double) maxNanos.get() / TimeUnit.MILLISECONDS.toNanos(1);
+	}
+
+	/**
+	 * Start counting again from zero.
+	 */
+	public void reset() {
+		requests.set(0);
+		failures.set(0);
+		totalNanos.set(0);
+		maxNanos.set(0);
+	}
+
+	@Override
+	public String toString() {
+		return "requests=" + getRequestCount() + ", failures=" + getFailureCount() + ", mean="
+				+ getMeanLatencyMillis() + "ms, max=" + getMaxLatencyMillis() + "ms";
+	}
+
+}
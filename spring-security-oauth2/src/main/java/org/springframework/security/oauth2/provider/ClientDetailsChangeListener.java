@@ -0,0 +1,37 @@
+/*
+ * Copyright 2002-2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.security.oauth2.provider;
+
+/**
+ * Callback for components that cache client state and need to be told when a {@link ClientRegistrationService}
+ * changes or removes a client.
+ *
+ * <p>
+ * @deprecated See the <a href="https://github.com/spring-projects/spring-security/wiki/OAuth-2.0-Migration-Guide">OAuth 2.0 Migration Guide</a> for Spring Security 5.
+ *
+ */
+@Deprecated
+public interface ClientDetailsChangeListener {
+
+	/**
+	 * Notification that the details (including the secret) of a client have changed or that the client has been
+	 * removed. Implementations should discard anything they hold for this client.
+	 *
+	 * @param clientId the id of the client that changed
+	 */
+	void clientDetailsChanged(String clientId);
+
+}
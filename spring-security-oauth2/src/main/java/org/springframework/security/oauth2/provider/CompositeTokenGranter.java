@@ -17,11 +17,19 @@
 package org.springframework.security.oauth2.provider;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.springframework.security.oauth2.common.OAuth2AccessToken;
 
 /**
+ * A {@link TokenGranter} that delegates to a list of others, returning the first token granted. Granters that are
+ * {@link GrantTypeAwareTokenGranter grant type aware} are only asked for the grant types they declare, via a lookup
+ * table built when granters are added; others are asked for every grant type. A grant type that no granter declares is
+ * offered to all of them, so a granter that handles more grant types than it declares is still reached. The order of
+ * the list is preserved in either case.
+ *
  * <p>
  * @deprecated See the <a href="https://github.com/spring-projects/spring-security/wiki/OAuth-2.0-Migration-Guide">OAuth 2.0 Migration Guide</a> for Spring Security 5.
  *
@@ -33,12 +41,15 @@ public class CompositeTokenGranter implements TokenGranter {
 
 	private final List<TokenGranter> tokenGranters;
 
+	private volatile Dispatch dispatch;
+
 	public CompositeTokenGranter(List<TokenGranter> tokenGranters) {
 		this.tokenGranters = new ArrayList<TokenGranter>(tokenGranters);
+		this.dispatch = new Dispatch(this.tokenGranters);
 	}
 	
 	public OAuth2AccessToken grant(String grantType, TokenRequest tokenRequest) {
-		for (TokenGranter granter : tokenGranters) {
+		for (TokenGranter granter : dispatch.getTokenGranters(grantType)) {
 			OAuth2AccessToken grant = granter.grant(grantType, tokenRequest);
 			if (grant!=null) {
 				return grant;
@@ -47,11 +58,56 @@ public class CompositeTokenGranter implements TokenGranter {
 		return null;
 	}
 	
-	public void addTokenGranter(TokenGranter tokenGranter) {
+	public synchronized void addTokenGranter(TokenGranter tokenGranter) {
 		if (tokenGranter == null) {
 			throw new IllegalArgumentException("Token granter is null");
 		}
 		tokenGranters.add(tokenGranter);
+		dispatch = new Dispatch(tokenGranters);
+	}
+
+	/**
+	 * Immutable lookup from grant type to the granters that might handle it, in their original order.
+	 */
+	private static class Dispatch {
+
+		private final Map<String, List<TokenGranter>> granters = new HashMap<String, List<TokenGranter>>();
+
+		private final List<TokenGranter> fallback = new ArrayList<TokenGranter>();
+
+		public Dispatch(List<TokenGranter> tokenGranters) {
+			for (TokenGranter granter : tokenGranters) {
+				if (granter instanceof GrantTypeAwareTokenGranter) {
+					for (String grantType : ((GrantTypeAwareTokenGranter) granter).getGrantTypes()) {
+						if (!granters.containsKey(grantType)) {
+							granters.put(grantType, new ArrayList<TokenGranter>());
+						}
+					}
+				}
+			}
+			for (TokenGranter granter : tokenGranters) {
+				if (granter instanceof GrantTypeAwareTokenGranter) {
+					for (String grantType : ((GrantTypeAwareTokenGranter) granter).getGrantTypes()) {
+						List<TokenGranter> list = granters.get(grantType);
+						if (!list.contains(granter)) {
+							list.add(granter);
+						}
+					}
+				}
+				else {
+					for (List<TokenGranter> list : granters.values()) {
+						list.add(granter);
+					}
+				}
+				fallback.add(granter);
+			}
+		}
+
+		public List<TokenGranter> getTokenGranters(String grantType) {
+			List<TokenGranter> result = grantType == null ? null : granters.get(grantType);
+			return result != null ? result : fallback;
+		}
+
 	}
 
 }
@@ -0,0 +1,37 @@
+/*
+ * Copyright 2006-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.security.oauth2.provider;
+
+import java.util.Set;
+
+/**
+ * A {@link TokenGranter} that declares up front which grant types it handles, so that a {@link CompositeTokenGranter}
+ * can dispatch straight to it instead of asking every granter in turn.
+ *
+ * <p>
+ * @deprecated See the <a href="https://github.com/spring-projects/spring-security/wiki/OAuth-2.0-Migration-Guide">OAuth 2.0 Migration Guide</a> for Spring Security 5.
+ *
+ */
+@Deprecated
+public interface GrantTypeAwareTokenGranter extends TokenGranter {
+
+	/**
+	 * @return the grant types this granter can issue tokens for (never null)
+	 */
+	Set<String> getGrantTypes();
+
+}
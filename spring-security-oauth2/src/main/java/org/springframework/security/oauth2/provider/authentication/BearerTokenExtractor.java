@@ -76,18 +76,28 @@ public class BearerTokenExtractor implements TokenExtractor {
 	 */
 	protected String extractHeaderToken(HttpServletRequest request) {
 		Enumeration<String> headers = request.getHeaders("Authorization");
+		int prefixLength = OAuth2AccessToken.BEARER_TYPE.length();
 		while (headers.hasMoreElements()) { // typically there is only one (most servers enforce that)
 			String value = headers.nextElement();
-			if ((value.toLowerCase().startsWith(OAuth2AccessToken.BEARER_TYPE.toLowerCase()))) {
-				String authHeaderValue = value.substring(OAuth2AccessToken.BEARER_TYPE.length()).trim();
+			if (value.regionMatches(true, 0, OAuth2AccessToken.BEARER_TYPE, 0, prefixLength)) {
 				// Add this here for the auth details later. Would be better to change the signature of this method.
 				request.setAttribute(OAuth2AuthenticationDetails.ACCESS_TOKEN_TYPE,
-						value.substring(0, OAuth2AccessToken.BEARER_TYPE.length()).trim());
-				int commaIndex = authHeaderValue.indexOf(',');
-				if (commaIndex > 0) {
-					authHeaderValue = authHeaderValue.substring(0, commaIndex);
+						value.startsWith(OAuth2AccessToken.BEARER_TYPE) ? OAuth2AccessToken.BEARER_TYPE : value
+								.substring(0, prefixLength));
+				// Same as trimming the rest of the value and cutting it at the first comma, with a single copy
+				int start = prefixLength;
+				int end = value.length();
+				while (start < end && value.charAt(start) <= ' ') {
+					start++;
 				}
-				return authHeaderValue;
+				while (end > start && value.charAt(end - 1) <= ' ') {
+					end--;
+				}
+				int commaIndex = value.indexOf(',', start);
+				if (commaIndex > start && commaIndex < end) {
+					end = commaIndex;
+				}
+				return value.substring(start, end);
 			}
 		}
 
@@ -13,20 +13,26 @@
 package org.springframework.security.oauth2.provider.authentication;
 
 import java.util.Collection;
+import java.util.Date;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.springframework.beans.factory.InitializingBean;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.oauth2.client.resource.OAuth2AccessDeniedException;
+import org.springframework.security.oauth2.common.OAuth2AccessToken;
 import org.springframework.security.oauth2.common.exceptions.InvalidTokenException;
 import org.springframework.security.oauth2.provider.AuthorizationRequest;
 import org.springframework.security.oauth2.provider.ClientDetails;
+import org.springframework.security.oauth2.provider.ClientDetailsChangeListener;
 import org.springframework.security.oauth2.provider.ClientDetailsService;
 import org.springframework.security.oauth2.provider.ClientRegistrationException;
 import org.springframework.security.oauth2.provider.OAuth2Authentication;
 import org.springframework.security.oauth2.provider.token.ResourceServerTokenServices;
+import org.springframework.security.oauth2.provider.token.TokenRevocationListener;
 import org.springframework.util.Assert;
 
 /**
@@ -39,7 +45,8 @@ import org.springframework.util.Assert;
  * 
  */
 @Deprecated
-public class OAuth2AuthenticationManager implements AuthenticationManager, InitializingBean {
+public class OAuth2AuthenticationManager implements AuthenticationManager, TokenRevocationListener,
+		ClientDetailsChangeListener, InitializingBean {
 
 	private ResourceServerTokenServices tokenServices;
 
@@ -47,12 +54,78 @@ public class OAuth2AuthenticationManager implements AuthenticationManager, Initi
 
 	private String resourceId;
 
+	private final ConcurrentHashMap<String, CachedAuthentication> cache = new ConcurrentHashMap<String, CachedAuthentication>();
+
+	// Tokens revoked within the last cache period, so that a request that loaded one just before it was revoked
+	// cannot put it back in the cache
+	private final ConcurrentHashMap<String, Long> revoked = new ConcurrentHashMap<String, Long>();
+
+	private int cacheSeconds = 0;
+
+	private int maxCacheEntries = 10000;
+
 	public void setResourceId(String resourceId) {
 		this.resourceId = resourceId;
+		this.cache.clear();
 	}
 
 	public void setClientDetailsService(ClientDetailsService clientDetailsService) {
 		this.clientDetailsService = clientDetailsService;
+		this.cache.clear();
+	}
+
+	/**
+	 * The period (in seconds) for which a token that passed all the checks (token services, resource id and client
+	 * details) is remembered, so that further requests with the same token within that period skip them. Zero (the
+	 * default) to check every request. An entry never outlives the token itself. Keep this short: a token that is
+	 * removed from the token store is only noticed when the entry expires, unless this manager is told about it as a
+	 * {@link TokenRevocationListener} (and about client changes as a {@link ClientDetailsChangeListener}). A revoked
+	 * token is then rejected straight away, including by requests that loaded it just before it was revoked.
+	 * 
+	 * @param cacheSeconds the cache period to set
+	 */
+	public void setCacheSeconds(int cacheSeconds) {
+		this.cacheSeconds = cacheSeconds;
+	}
+
+	/**
+	 * The maximum number of tokens to remember. When it is reached the cache is cleared. Default 10000.
+	 * 
+	 * @param maxCacheEntries the maximum number of entries
+	 */
+	public void setMaxCacheEntries(int maxCacheEntries) {
+		this.maxCacheEntries = maxCacheEntries;
+	}
+
+	public void tokenRevoked(String tokenValue) {
+		if (cacheSeconds > 0) {
+			// Record it before evicting, a concurrent load checks for it after caching
+			recordRevoked(tokenValue);
+		}
+		cache.remove(tokenValue);
+	}
+
+	private void recordRevoked(String tokenValue) {
+		long now = System.currentTimeMillis();
+		if (revoked.size() >= maxCacheEntries) {
+			for (Map.Entry<String, Long> entry : revoked.entrySet()) {
+				if (now >= entry.getValue()) {
+					revoked.remove(entry.getKey(), entry.getValue());
+				}
+			}
+			if (revoked.size() >= maxCacheEntries) {
+				revoked.clear();
+			}
+		}
+		revoked.put(tokenValue, now + cacheSeconds * 1000L);
+	}
+
+	public void clientDetailsChanged(String clientId) {
+		for (Map.Entry<String, CachedAuthentication> entry : cache.entrySet()) {
+			if (clientId.equals(entry.getValue().authentication.getOAuth2Request().getClientId())) {
+				cache.remove(entry.getKey(), entry.getValue());
+			}
+		}
 	}
 
 	/**
@@ -84,6 +157,24 @@ public class OAuth2AuthenticationManager implements AuthenticationManager, Initi
 			throw new InvalidTokenException("Invalid token (token not found)");
 		}
 		String token = (String) authentication.getPrincipal();
+		OAuth2Authentication auth = cacheSeconds > 0 ? loadCheckedAuthenticationCached(token)
+				: loadCheckedAuthentication(token);
+
+		if (authentication.getDetails() instanceof OAuth2AuthenticationDetails) {
+			OAuth2AuthenticationDetails details = (OAuth2AuthenticationDetails) authentication.getDetails();
+			// Guard against a cached copy of the same details
+			if (!details.equals(auth.getDetails())) {
+				// Preserve the authentication details from the one loaded by token services
+				details.setDecodedDetails(auth.getDetails());
+			}
+		}
+		auth.setDetails(authentication.getDetails());
+		auth.setAuthenticated(true);
+		return auth;
+
+	}
+
+	private OAuth2Authentication loadCheckedAuthentication(String token) {
 		OAuth2Authentication auth = tokenServices.loadAuthentication(token);
 		if (auth == null) {
 			throw new InvalidTokenException("Invalid token: " + token);
@@ -95,19 +186,59 @@ public class OAuth2AuthenticationManager implements AuthenticationManager, Initi
 		}
 
 		checkClientDetails(auth);
+		return auth;
+	}
 
-		if (authentication.getDetails() instanceof OAuth2AuthenticationDetails) {
-			OAuth2AuthenticationDetails details = (OAuth2AuthenticationDetails) authentication.getDetails();
-			// Guard against a cached copy of the same details
-			if (!details.equals(auth.getDetails())) {
-				// Preserve the authentication details from the one loaded by token services
-				details.setDecodedDetails(auth.getDetails());
-			}
+	private OAuth2Authentication loadCheckedAuthenticationCached(String token) {
+		long now = System.currentTimeMillis();
+		CachedAuthentication cached = cache.get(token);
+		if (cached != null && now < cached.expiry) {
+			return copy(cached.authentication);
+		}
+		OAuth2Authentication auth = loadCheckedAuthentication(token);
+		long expiry = getCacheExpiry(token, now);
+		if (expiry <= now) {
+			return auth;
+		}
+		if (cache.size() >= maxCacheEntries) {
+			cache.clear();
+		}
+		// Keep a private copy, since the one returned gets the details of this request
+		CachedAuthentication entry = new CachedAuthentication(copy(auth), expiry);
+		cache.put(token, entry);
+		Long revokedUntil = revoked.get(token);
+		if (revokedUntil != null && System.currentTimeMillis() < revokedUntil) {
+			cache.remove(token, entry);
 		}
-		auth.setDetails(authentication.getDetails());
-		auth.setAuthenticated(true);
 		return auth;
+	}
 
+	/**
+	 * The time until which a token that just passed the checks can be cached: the end of the cache period, or the
+	 * expiry of the token if that comes first.
+	 */
+	private long getCacheExpiry(String token, long now) {
+		long expiry = now + cacheSeconds * 1000L;
+		OAuth2AccessToken accessToken;
+		try {
+			accessToken = tokenServices.readAccessToken(token);
+		}
+		catch (UnsupportedOperationException e) {
+			// Token services that can only validate tokens (e.g. remote ones) are expected to check the expiry
+			return expiry;
+		}
+		if (accessToken == null) {
+			// Removed in the meantime
+			return now;
+		}
+		Date expiration = accessToken.getExpiration();
+		return expiration == null ? expiry : Math.min(expiry, expiration.getTime());
+	}
+
+	private OAuth2Authentication copy(OAuth2Authentication auth) {
+		OAuth2Authentication copy = new OAuth2Authentication(auth.getOAuth2Request(), auth.getUserAuthentication());
+		copy.setDetails(auth.getDetails());
+		return copy;
 	}
 
 	private void checkClientDetails(OAuth2Authentication auth) {
@@ -129,4 +260,17 @@ public class OAuth2AuthenticationManager implements AuthenticationManager, Initi
 		}
 	}
 
+	private static class CachedAuthentication {
+
+		private final OAuth2Authentication authentication;
+
+		private final long expiry;
+
+		public CachedAuthentication(OAuth2Authentication authentication, long expiry) {
+			this.authentication = authentication;
+			this.expiry = expiry;
+		}
+
+	}
+
 }
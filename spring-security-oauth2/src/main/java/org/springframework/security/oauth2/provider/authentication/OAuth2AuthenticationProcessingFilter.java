@@ -36,6 +36,7 @@ import org.springframework.security.authentication.InsufficientAuthenticationExc
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.common.exceptions.InvalidTokenException;
 import org.springframework.security.oauth2.common.exceptions.OAuth2Exception;
 import org.springframework.security.oauth2.provider.OAuth2Authentication;
 import org.springframework.security.oauth2.provider.error.OAuth2AuthenticationEntryPoint;
@@ -71,6 +72,12 @@ public class OAuth2AuthenticationProcessingFilter implements Filter, Initializin
 
 	private boolean stateless = true;
 
+	private boolean publishSuccessEvents = true;
+
+	private boolean validateTokenFormat = false;
+
+	private int maxTokenLength = 4096;
+
 	/**
 	 * Flag to say that this filter guards stateless resources (default true). Set this to true if the only way the
 	 * resource can be accessed is with a token. If false then an incoming cookie can populate the security context and
@@ -84,6 +91,39 @@ public class OAuth2AuthenticationProcessingFilter implements Filter, Initializin
 		this.stateless = stateless;
 	}
 
+	/**
+	 * Flag to say that a successful authentication should be reported to the
+	 * {@link #setAuthenticationEventPublisher(AuthenticationEventPublisher) event publisher} (default true). Failures
+	 * are always reported.
+	 * 
+	 * @param publishSuccessEvents the flag to set (default true)
+	 */
+	public void setPublishSuccessEvents(boolean publishSuccessEvents) {
+		this.publishSuccessEvents = publishSuccessEvents;
+	}
+
+	/**
+	 * Flag to say that tokens should be checked for a plausible format before they are passed to the authentication
+	 * manager (default false). Tokens that are too long, contain characters outside the bearer token syntax of RFC
+	 * 6750, or contain dots but are not shaped like a JWT (three segments, or five if encrypted) are then rejected
+	 * without touching the token store. Leave this off if your tokens do not follow that syntax.
+	 * 
+	 * @param validateTokenFormat the flag to set (default false)
+	 */
+	public void setValidateTokenFormat(boolean validateTokenFormat) {
+		this.validateTokenFormat = validateTokenFormat;
+	}
+
+	/**
+	 * The maximum length of a token when {@link #setValidateTokenFormat(boolean) validating the token format}. Default
+	 * 4096.
+	 * 
+	 * @param maxTokenLength the maximum token length to set
+	 */
+	public void setMaxTokenLength(int maxTokenLength) {
+		this.maxTokenLength = maxTokenLength;
+	}
+
 	/**
 	 * @param authenticationEntryPoint the authentication entry point to set
 	 */
@@ -148,6 +188,9 @@ public class OAuth2AuthenticationProcessingFilter implements Filter, Initializin
 				}
 			}
 			else {
+				if (validateTokenFormat && !isWellFormed(authentication.getPrincipal())) {
+					throw new InvalidTokenException("Malformed access token");
+				}
 				request.setAttribute(OAuth2AuthenticationDetails.ACCESS_TOKEN_VALUE, authentication.getPrincipal());
 				if (authentication instanceof AbstractAuthenticationToken) {
 					AbstractAuthenticationToken needsDetails = (AbstractAuthenticationToken) authentication;
@@ -159,7 +202,9 @@ public class OAuth2AuthenticationProcessingFilter implements Filter, Initializin
 					logger.debug("Authentication success: " + authResult);
 				}
 
-				eventPublisher.publishAuthenticationSuccess(authResult);
+				if (publishSuccessEvents) {
+					eventPublisher.publishAuthenticationSuccess(authResult);
+				}
 				SecurityContextHolder.getContext().setAuthentication(authResult);
 
 			}
@@ -182,6 +227,43 @@ public class OAuth2AuthenticationProcessingFilter implements Filter, Initializin
 		chain.doFilter(request, response);
 	}
 
+	private boolean isWellFormed(Object principal) {
+		if (!(principal instanceof String)) {
+			return true;
+		}
+		String token = (String) principal;
+		int length = token.length();
+		if (length == 0 || length > maxTokenLength) {
+			return false;
+		}
+		int dots = 0;
+		int segmentStart = 0;
+		int padding = 0;
+		for (int i = 0; i < length; i++) {
+			char c = token.charAt(i);
+			if (c == '=') {
+				// b64token allows trailing padding only
+				padding++;
+			}
+			else if (padding > 0) {
+				return false;
+			}
+			else if (c == '.') {
+				if (i == segmentStart && dots == 0) {
+					// a JWT header is never empty
+					return false;
+				}
+				dots++;
+				segmentStart = i + 1;
+			}
+			else if (!((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '-'
+					|| c == '_' || c == '~' || c == '+' || c == '/')) {
+				return false;
+			}
+		}
+		return dots == 0 || dots == 2 || dots == 4;
+	}
+
 	private boolean isAuthenticated() {
 		Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
 		if (authentication == null || authentication instanceof AnonymousAuthenticationToken) {
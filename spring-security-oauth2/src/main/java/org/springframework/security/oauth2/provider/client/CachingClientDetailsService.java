@@ -0,0 +1,192 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.springframework.security.oauth2.provider.client;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.security.oauth2.provider.ClientAlreadyExistsException;
+import org.springframework.security.oauth2.provider.ClientDetails;
+import org.springframework.security.oauth2.provider.ClientDetailsChangeListener;
+import org.springframework.security.oauth2.provider.ClientDetailsService;
+import org.springframework.security.oauth2.provider.ClientRegistrationException;
+import org.springframework.security.oauth2.provider.ClientRegistrationService;
+import org.springframework.security.oauth2.provider.NoSuchClientException;
+import org.springframework.util.Assert;
+
+/**
+ * A {@link ClientDetailsService} that caches the clients loaded from another one (typically a
+ * {@link JdbcClientDetailsService}) for a limited period, so that the several lookups of the same client made while
+ * processing a single token request only reach the delegate once. Optionally all clients are loaded in bulk on
+ * startup, if the delegate is also a {@link ClientRegistrationService}.
+ * <p>
+ * Changes made through this service are passed to the delegate and evict the cached client. Changes made elsewhere are
+ * picked up when the cached entry expires, or immediately if this service is registered as a
+ * {@link ClientDetailsChangeListener} with whatever makes them. Unknown clients are not cached.
+ *
+ * <p>
+ * @deprecated See the <a href="https://github.com/spring-projects/spring-security/wiki/OAuth-2.0-Migration-Guide">OAuth 2.0 Migration Guide</a> for Spring Security 5.
+ *
+ */
+@Deprecated
+public class CachingClientDetailsService implements ClientDetailsService, ClientRegistrationService,
+		ClientDetailsChangeListener, InitializingBean {
+
+	private static final Log logger = LogFactory.getLog(CachingClientDetailsService.class);
+
+	private final ClientDetailsService delegate;
+
+	private final ConcurrentHashMap<String, CachedClient> cache = new ConcurrentHashMap<String, CachedClient>();
+
+	private int cacheSeconds = 60;
+
+	private boolean preload = false;
+
+	private List<ClientDetailsChangeListener> changeListeners = new ArrayList<ClientDetailsChangeListener>();
+
+	public CachingClientDetailsService(ClientDetailsService delegate) {
+		Assert.notNull(delegate, "A delegate ClientDetailsService is required");
+		this.delegate = delegate;
+	}
+
+	/**
+	 * The period (in seconds) for which a client is cached. Default 60.
+	 *
+	 * @param cacheSeconds the cache period to set
+	 */
+	public void setCacheSeconds(int cacheSeconds) {
+		this.cacheSeconds = cacheSeconds;
+	}
+
+	/**
+	 * Flag to say that all clients should be loaded into the cache on startup (using
+	 * {@link ClientRegistrationService#listClientDetails()}). Default false.
+	 *
+	 * @param preload the flag value to set
+	 */
+	public void setPreload(boolean preload) {
+		this.preload = preload;
+	}
+
+	/**
+	 * Listeners that will be told about clients updated or removed through this service (e.g. token services with a
+	 * client validity cache).
+	 *
+	 * @param changeListeners the change listeners to set
+	 */
+	public void setChangeListeners(List<ClientDetailsChangeListener> changeListeners) {
+		this.changeListeners = new ArrayList<ClientDetailsChangeListener>(changeListeners);
+	}
+
+	public void afterPropertiesSet() throws Exception {
+		if (preload) {
+			Assert.state(delegate instanceof ClientRegistrationService,
+					"Clients can only be preloaded from a ClientRegistrationService");
+			refresh();
+		}
+	}
+
+	/**
+	 * Load all clients from the delegate into the cache, replacing whatever is there.
+	 */
+	public void refresh() {
+		List<ClientDetails> clients = getRegistrationService().listClientDetails();
+		long expiry = System.currentTimeMillis() + cacheSeconds * 1000L;
+		// Replace the entries in place, so that lookups keep hitting the cache while it is refreshed
+		Set<String> clientIds = new HashSet<String>();
+		for (ClientDetails client : clients) {
+			cache.put(client.getClientId(), new CachedClient(client, expiry));
+			clientIds.add(client.getClientId());
+		}
+		cache.keySet().retainAll(clientIds);
+		if (logger.isDebugEnabled()) {
+			logger.debug("Loaded " + clients.size() + " clients into cache");
+		}
+	}
+
+	public ClientDetails loadClientByClientId(String clientId) throws ClientRegistrationException {
+		CachedClient cached = cache.get(clientId);
+		long now = System.currentTimeMillis();
+		if (cached != null && now < cached.expiry) {
+			return cached.client;
+		}
+		ClientDetails client = delegate.loadClientByClientId(clientId);
+		if (cacheSeconds > 0) {
+			cache.put(clientId, new CachedClient(client, now + cacheSeconds * 1000L));
+		}
+		return client;
+	}
+
+	public void addClientDetails(ClientDetails clientDetails) throws ClientAlreadyExistsException {
+		getRegistrationService().addClientDetails(clientDetails);
+	}
+
+	public void updateClientDetails(ClientDetails clientDetails) throws NoSuchClientException {
+		getRegistrationService().updateClientDetails(clientDetails);
+		evict(clientDetails.getClientId());
+	}
+
+	public void updateClientSecret(String clientId, String secret) throws NoSuchClientException {
+		getRegistrationService().updateClientSecret(clientId, secret);
+		evict(clientId);
+	}
+
+	public void removeClientDetails(String clientId) throws NoSuchClientException {
+		getRegistrationService().removeClientDetails(clientId);
+		evict(clientId);
+	}
+
+	public List<ClientDetails> listClientDetails() {
+		return getRegistrationService().listClientDetails();
+	}
+
+	public void clientDetailsChanged(String clientId) {
+		cache.remove(clientId);
+	}
+
+	private void evict(String clientId) {
+		cache.remove(clientId);
+		for (ClientDetailsChangeListener listener : changeListeners) {
+			listener.clientDetailsChanged(clientId);
+		}
+	}
+
+	private ClientRegistrationService getRegistrationService() {
+		if (!(delegate instanceof ClientRegistrationService)) {
+			throw new UnsupportedOperationException("Delegate ClientDetailsService does not support registration: "
+					+ delegate.getClass().getName());
+		}
+		return (ClientRegistrationService) delegate;
+	}
+
+	private static class CachedClient {
+
+		private final ClientDetails client;
+
+		private final long expiry;
+
+		public CachedClient(ClientDetails client, long expiry) {
+			this.client = client;
+			this.expiry = expiry;
+		}
+
+	}
+
+}
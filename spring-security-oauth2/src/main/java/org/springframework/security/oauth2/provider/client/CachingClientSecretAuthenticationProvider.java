@@ -0,0 +1,142 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.springframework.security.oauth2.provider.client;
+
+import java.nio.charset.Charset;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.crypto.keygen.KeyGenerators;
+import org.springframework.security.oauth2.provider.ClientDetailsChangeListener;
+
+/**
+ * An authentication provider for clients that remembers, for a short period, which secret a client last authenticated
+ * with successfully. Repeated authentications (e.g. a client using the client credentials grant every few seconds)
+ * then skip the password encoder, which is deliberately slow for encoders like BCrypt.
+ * <p>
+ * Only a keyed hash (HMAC-SHA256 with a random per-instance key) of the client id, the presented secret and the stored
+ * (encoded) secret is held in memory, never the secret itself. Because the stored secret is part of the hash, a secret
+ * changed in the backing store is noticed on the next authentication. Register this provider as a
+ * {@link ClientDetailsChangeListener} with the client registration service to drop the entry as soon as a client is
+ * changed or removed.
+ *
+ * <p>
+ * @deprecated See the <a href="https://github.com/spring-projects/spring-security/wiki/OAuth-2.0-Migration-Guide">OAuth 2.0 Migration Guide</a> for Spring Security 5.
+ *
+ */
+@Deprecated
+public class CachingClientSecretAuthenticationProvider extends DaoAuthenticationProvider implements
+		ClientDetailsChangeListener {
+
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+
+	private static final String ALGORITHM = "HmacSHA256";
+
+	private final SecretKeySpec key = new SecretKeySpec(KeyGenerators.secureRandom(32).generateKey(), ALGORITHM);
+
+	private final ConcurrentHashMap<String, VerifiedSecret> cache = new ConcurrentHashMap<String, VerifiedSecret>();
+
+	private int cacheSeconds = 30;
+
+	private int maxEntries = 10000;
+
+	/**
+	 * The period (in seconds) for which a successfully verified secret is remembered. Zero or negative to disable the
+	 * cache. Default 30.
+	 *
+	 * @param cacheSeconds the cache period to set
+	 */
+	public void setCacheSeconds(int cacheSeconds) {
+		this.cacheSeconds = cacheSeconds;
+	}
+
+	/**
+	 * The maximum number of clients to remember. When it is reached the cache is cleared. Default 10000.
+	 *
+	 * @param maxEntries the maximum number of entries
+	 */
+	public void setMaxEntries(int maxEntries) {
+		this.maxEntries = maxEntries;
+	}
+
+	public void clientDetailsChanged(String clientId) {
+		cache.remove(clientId);
+	}
+
+	@Override
+	protected void additionalAuthenticationChecks(UserDetails userDetails,
+			UsernamePasswordAuthenticationToken authentication) throws AuthenticationException {
+		if (cacheSeconds <= 0 || authentication.getCredentials() == null) {
+			super.additionalAuthenticationChecks(userDetails, authentication);
+			return;
+		}
+		String clientId = userDetails.getUsername();
+		byte[] hash = hash(clientId, authentication.getCredentials().toString(), userDetails.getPassword());
+		VerifiedSecret verified = cache.get(clientId);
+		long now = System.currentTimeMillis();
+		if (verified != null && now < verified.expiry && MessageDigest.isEqual(verified.hash, hash)) {
+			return;
+		}
+		try {
+			super.additionalAuthenticationChecks(userDetails, authentication);
+		}
+		catch (AuthenticationException e) {
+			cache.remove(clientId);
+			throw e;
+		}
+		if (cache.size() >= maxEntries) {
+			cache.clear();
+		}
+		cache.put(clientId, new VerifiedSecret(hash, now + cacheSeconds * 1000L));
+	}
+
+	private byte[] hash(String clientId, String presented, String stored) {
+		try {
+			Mac mac = Mac.getInstance(ALGORITHM);
+			mac.init(key);
+			mac.update(clientId.getBytes(UTF8));
+			mac.update((byte) 0);
+			mac.update(presented.getBytes(UTF8));
+			mac.update((byte) 0);
+			if (stored != null) {
+				mac.update(stored.getBytes(UTF8));
+			}
+			return mac.doFinal();
+		}
+		catch (GeneralSecurityException e) {
+			throw new IllegalStateException("Could not compute " + ALGORITHM, e);
+		}
+	}
+
+	private static class VerifiedSecret {
+
+		private final byte[] hash;
+
+		private final long expiry;
+
+		public VerifiedSecret(byte[] hash, long expiry) {
+			this.hash = hash;
+			this.expiry = expiry;
+		}
+
+	}
+
+}
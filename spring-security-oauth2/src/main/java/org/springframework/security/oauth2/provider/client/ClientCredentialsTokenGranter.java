@@ -19,6 +19,7 @@ package org.springframework.security.oauth2.provider.client;
 import org.springframework.security.oauth2.common.DefaultOAuth2AccessToken;
 import org.springframework.security.oauth2.common.OAuth2AccessToken;
 import org.springframework.security.oauth2.provider.ClientDetailsService;
+import org.springframework.security.oauth2.provider.GrantTypeAwareTokenGranter;
 import org.springframework.security.oauth2.provider.OAuth2RequestFactory;
 import org.springframework.security.oauth2.provider.TokenRequest;
 import org.springframework.security.oauth2.provider.token.AbstractTokenGranter;
@@ -32,7 +33,7 @@ import org.springframework.security.oauth2.provider.token.AuthorizationServerTok
  * 
  */
 @Deprecated
-public class ClientCredentialsTokenGranter extends AbstractTokenGranter {
+public class ClientCredentialsTokenGranter extends AbstractTokenGranter implements GrantTypeAwareTokenGranter {
 
 	private static final String GRANT_TYPE = "client_credentials";
 	private boolean allowRefresh = false;
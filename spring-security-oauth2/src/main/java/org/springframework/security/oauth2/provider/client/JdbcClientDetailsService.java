@@ -18,6 +18,7 @@ package org.springframework.security.oauth2.provider.client;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
@@ -41,6 +42,7 @@ import org.springframework.security.oauth2.common.util.DefaultJdbcListFactory;
 import org.springframework.security.oauth2.common.util.JdbcListFactory;
 import org.springframework.security.oauth2.provider.ClientAlreadyExistsException;
 import org.springframework.security.oauth2.provider.ClientDetails;
+import org.springframework.security.oauth2.provider.ClientDetailsChangeListener;
 import org.springframework.security.oauth2.provider.ClientDetailsService;
 import org.springframework.security.oauth2.provider.ClientRegistrationService;
 import org.springframework.security.oauth2.provider.NoSuchClientException;
@@ -106,6 +108,8 @@ public class JdbcClientDetailsService implements ClientDetailsService, ClientReg
 
 	private JdbcListFactory listFactory;
 
+	private List<ClientDetailsChangeListener> changeListeners = new ArrayList<ClientDetailsChangeListener>();
+
 	public JdbcClientDetailsService(DataSource dataSource) {
 		Assert.notNull(dataSource, "DataSource required");
 		this.jdbcTemplate = new JdbcTemplate(dataSource);
@@ -119,6 +123,16 @@ public class JdbcClientDetailsService implements ClientDetailsService, ClientReg
 		this.passwordEncoder = passwordEncoder;
 	}
 
+	/**
+	 * Listeners that are told whenever a client is updated or removed, so that caches of client state elsewhere (e.g.
+	 * in the token services) can be evicted immediately instead of waiting for their entries to expire.
+	 * 
+	 * @param changeListeners the change listeners to set
+	 */
+	public void setChangeListeners(List<ClientDetailsChangeListener> changeListeners) {
+		this.changeListeners = new ArrayList<ClientDetailsChangeListener>(changeListeners);
+	}
+
 	public ClientDetails loadClientByClientId(String clientId) throws InvalidClientException {
 		ClientDetails details;
 		try {
@@ -145,6 +159,7 @@ public class JdbcClientDetailsService implements ClientDetailsService, ClientReg
 		if (count != 1) {
 			throw new NoSuchClientException("No client found with id = " + clientDetails.getClientId());
 		}
+		notifyChanged(clientDetails.getClientId());
 	}
 
 	public void updateClientSecret(String clientId, String secret) throws NoSuchClientException {
@@ -152,6 +167,7 @@ public class JdbcClientDetailsService implements ClientDetailsService, ClientReg
 		if (count != 1) {
 			throw new NoSuchClientException("No client found with id = " + clientId);
 		}
+		notifyChanged(clientId);
 	}
 
 	public void removeClientDetails(String clientId) throws NoSuchClientException {
@@ -159,12 +175,19 @@ public class JdbcClientDetailsService implements ClientDetailsService, ClientReg
 		if (count != 1) {
 			throw new NoSuchClientException("No client found with id = " + clientId);
 		}
+		notifyChanged(clientId);
 	}
 
 	public List<ClientDetails> listClientDetails() {
 		return listFactory.getList(findClientDetailsSql, Collections.<String, Object> emptyMap(), rowMapper);
 	}
 
+	private void notifyChanged(String clientId) {
+		for (ClientDetailsChangeListener listener : changeListeners) {
+			listener.clientDetailsChanged(clientId);
+		}
+	}
+
 	private Object[] getFields(ClientDetails clientDetails) {
 		Object[] fieldsForUpdate = getFieldsForUpdate(clientDetails);
 		Object[] fields = new Object[fieldsForUpdate.length + 1];
@@ -0,0 +1,64 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.springframework.security.oauth2.provider.client;
+
+import org.springframework.security.oauth2.provider.ClientDetails;
+import org.springframework.security.oauth2.provider.ClientDetailsService;
+import org.springframework.security.oauth2.provider.ClientRegistrationException;
+import org.springframework.util.Assert;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+/**
+ * A {@link ClientDetailsService} that resolves each client at most once per HTTP request, remembering the result in
+ * the current {@link RequestContextHolder request attributes}. Processing a single token request looks the same client
+ * up several times (client authentication, {@code TokenEndpoint}, request factory, token granter and token services),
+ * and with this decorator in front of e.g. a {@link JdbcClientDetailsService} only the first lookup reaches the
+ * database. To use it, wrap the client details service registered with the authorization server.
+ * <p>
+ * Outside a request (no request attributes bound to the current thread) every call goes to the delegate. Lookups made
+ * in the security filter chain are only included if something (like a {@code RequestContextFilter}) binds the request
+ * attributes before it. Failed lookups are not remembered.
+ *
+ * <p>
+ * @deprecated See the <a href="https://github.com/spring-projects/spring-security/wiki/OAuth-2.0-Migration-Guide">OAuth 2.0 Migration Guide</a> for Spring Security 5.
+ *
+ */
+@Deprecated
+public class RequestScopedClientDetailsService implements ClientDetailsService {
+
+	private static final String ATTRIBUTE_PREFIX = RequestScopedClientDetailsService.class.getName() + ".";
+
+	private final ClientDetailsService delegate;
+
+	public RequestScopedClientDetailsService(ClientDetailsService delegate) {
+		Assert.notNull(delegate, "A delegate ClientDetailsService is required");
+		this.delegate = delegate;
+	}
+
+	public ClientDetails loadClientByClientId(String clientId) throws ClientRegistrationException {
+		RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+		if (attributes == null || clientId == null) {
+			return delegate.loadClientByClientId(clientId);
+		}
+		String name = ATTRIBUTE_PREFIX + clientId;
+		Object resolved = attributes.getAttribute(name, RequestAttributes.SCOPE_REQUEST);
+		if (resolved instanceof ClientDetails) {
+			return (ClientDetails) resolved;
+		}
+		ClientDetails client = delegate.loadClientByClientId(clientId);
+		attributes.setAttribute(name, client, RequestAttributes.SCOPE_REQUEST);
+		return client;
+	}
+
+}
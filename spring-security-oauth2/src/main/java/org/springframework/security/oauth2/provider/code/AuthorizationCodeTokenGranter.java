@@ -27,6 +27,7 @@ import org.springframework.security.oauth2.common.exceptions.RedirectMismatchExc
 import org.springframework.security.oauth2.common.util.OAuth2Utils;
 import org.springframework.security.oauth2.provider.ClientDetails;
 import org.springframework.security.oauth2.provider.ClientDetailsService;
+import org.springframework.security.oauth2.provider.GrantTypeAwareTokenGranter;
 import org.springframework.security.oauth2.provider.OAuth2Authentication;
 import org.springframework.security.oauth2.provider.OAuth2Request;
 import org.springframework.security.oauth2.provider.OAuth2RequestFactory;
@@ -44,7 +45,7 @@ import org.springframework.security.oauth2.provider.token.AuthorizationServerTok
  * 
  */
 @Deprecated
-public class AuthorizationCodeTokenGranter extends AbstractTokenGranter {
+public class AuthorizationCodeTokenGranter extends AbstractTokenGranter implements GrantTypeAwareTokenGranter {
 
 	private static final String GRANT_TYPE = "authorization_code";
 
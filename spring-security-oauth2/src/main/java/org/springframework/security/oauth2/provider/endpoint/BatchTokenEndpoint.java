@@ -0,0 +1,150 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.security.oauth2.provider.endpoint;
+
+import java.security.Principal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.InsufficientAuthenticationException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.oauth2.common.exceptions.InvalidRequestException;
+import org.springframework.security.oauth2.common.exceptions.OAuth2Exception;
+import org.springframework.security.oauth2.provider.ClientDetails;
+import org.springframework.security.oauth2.provider.ClientRegistrationException;
+import org.springframework.security.oauth2.provider.client.RequestScopedClientDetailsService;
+import org.springframework.util.Assert;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+
+/**
+ * <p>
+ * Optional endpoint that grants several tokens to one client in a single exchange. Clients post a JSON array to the
+ * token endpoint path, each element holding the parameters of one ordinary token request (e.g. the same
+ * <code>grant_type</code> with different <code>scope</code> values), and get back a JSON array of the tokens granted,
+ * in the same order. Each request is validated and granted exactly as by the {@link TokenEndpoint}, which this
+ * endpoint delegates to. The client is authenticated and its details loaded once for the whole batch (the token
+ * granters still look the client up themselves, so use a {@link RequestScopedClientDetailsService} to share that
+ * lookup as well).
+ * </p>
+ *
+ * <p>
+ * The requests are independent: if one fails, its element in the response is the OAuth2 error it would have got from
+ * the {@link TokenEndpoint} (e.g. <code>{"error":"invalid_scope", ...}</code>) and the others are still granted, so
+ * that tokens already issued are never lost. Only a problem with the batch itself (no client authentication, an
+ * empty or oversized batch) fails the whole exchange.
+ * </p>
+ *
+ * <p>
+ * Not registered by default: declare it as a bean to enable it. It shares the (already secured) path of the token
+ * endpoint and is only selected for <code>application/json</code> request bodies.
+ * </p>
+ *
+ * <p>
+ * @deprecated See the <a href="https://github.com/spring-projects/spring-security/wiki/OAuth-2.0-Migration-Guide">OAuth 2.0 Migration Guide</a> for Spring Security 5.
+ *
+ */
+@FrameworkEndpoint
+@Deprecated
+public class BatchTokenEndpoint {
+
+	private final TokenEndpoint tokenEndpoint;
+
+	private int maxBatchSize = 50;
+
+	public BatchTokenEndpoint(TokenEndpoint tokenEndpoint) {
+		Assert.notNull(tokenEndpoint, "TokenEndpoint must be provided");
+		this.tokenEndpoint = tokenEndpoint;
+	}
+
+	/**
+	 * The maximum number of token requests accepted in one batch. Default 50.
+	 *
+	 * @param maxBatchSize the maximum batch size
+	 */
+	public void setMaxBatchSize(int maxBatchSize) {
+		this.maxBatchSize = maxBatchSize;
+	}
+
+	@RequestMapping(value = "/oauth/token", method = RequestMethod.POST, consumes = "application/json")
+	public ResponseEntity<List<Object>> postAccessTokens(Principal principal,
+			@RequestBody List<Map<String, String>> requests) throws Exception {
+
+		if (!(principal instanceof Authentication)) {
+			throw new InsufficientAuthenticationException(
+					"There is no client authentication. Try adding an appropriate authentication filter.");
+		}
+		if (requests == null || requests.isEmpty()) {
+			throw new InvalidRequestException("No token requests provided");
+		}
+		if (requests.size() > maxBatchSize) {
+			throw new InvalidRequestException("Too many token requests (maximum " + maxBatchSize + ")");
+		}
+
+		String clientId = tokenEndpoint.getClientId(principal);
+		ClientDetails authenticatedClient = tokenEndpoint.getClientDetailsService().loadClientByClientId(clientId);
+
+		List<Object> results = new ArrayList<Object>(requests.size());
+		for (Map<String, String> parameters : requests) {
+			results.add(grant(clientId, authenticatedClient, parameters));
+		}
+
+		HttpHeaders headers = new HttpHeaders();
+		headers.set("Cache-Control", "no-store");
+		headers.set("Pragma", "no-cache");
+		headers.set("Content-Type", "application/json;charset=UTF-8");
+		return new ResponseEntity<List<Object>>(results, headers, HttpStatus.OK);
+	}
+
+	private Object grant(String clientId, ClientDetails authenticatedClient, Map<String, String> parameters)
+			throws Exception {
+		try {
+			return tokenEndpoint.grant(clientId, authenticatedClient, parameters);
+		}
+		catch (ClientRegistrationException e) {
+			return tokenEndpoint.handleClientRegistrationException(e).getBody();
+		}
+		catch (OAuth2Exception e) {
+			return tokenEndpoint.handleException(e).getBody();
+		}
+		catch (RuntimeException e) {
+			return tokenEndpoint.handleException((Exception) e).getBody();
+		}
+	}
+
+	@ExceptionHandler(Exception.class)
+	public ResponseEntity<OAuth2Exception> handleException(Exception e) throws Exception {
+		return tokenEndpoint.handleException(e);
+	}
+
+	@ExceptionHandler(ClientRegistrationException.class)
+	public ResponseEntity<OAuth2Exception> handleClientRegistrationException(Exception e) throws Exception {
+		return tokenEndpoint.handleClientRegistrationException(e);
+	}
+
+	@ExceptionHandler(OAuth2Exception.class)
+	public ResponseEntity<OAuth2Exception> handleException(OAuth2Exception e) throws Exception {
+		return tokenEndpoint.handleException(e);
+	}
+
+}
@@ -19,12 +19,14 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.oauth2.common.OAuth2AccessToken;
+import org.springframework.security.oauth2.common.exceptions.InvalidRequestException;
 import org.springframework.security.oauth2.common.exceptions.InvalidTokenException;
 import org.springframework.security.oauth2.common.exceptions.OAuth2Exception;
 import org.springframework.security.oauth2.provider.OAuth2Authentication;
 import org.springframework.security.oauth2.provider.error.DefaultWebResponseExceptionTranslator;
 import org.springframework.security.oauth2.provider.error.WebResponseExceptionTranslator;
 import org.springframework.security.oauth2.provider.token.AccessTokenConverter;
+import org.springframework.security.oauth2.provider.token.BulkResourceServerTokenServices;
 import org.springframework.security.oauth2.provider.token.DefaultAccessTokenConverter;
 import org.springframework.security.oauth2.provider.token.ResourceServerTokenServices;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -33,7 +35,13 @@ import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseBody;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * Controller which decodes access tokens for clients who are not able to do so (or where opaque token values are used).
@@ -48,6 +56,8 @@ import java.util.Map;
 @Deprecated
 public class CheckTokenEndpoint {
 
+	private static final Map<String, ?> INACTIVE = Collections.singletonMap("active", false);
+
 	private ResourceServerTokenServices resourceServerTokenServices;
 
 	private AccessTokenConverter accessTokenConverter = new DefaultAccessTokenConverter();
@@ -56,6 +66,8 @@ public class CheckTokenEndpoint {
 
 	private WebResponseExceptionTranslator<OAuth2Exception> exceptionTranslator = new DefaultWebResponseExceptionTranslator();
 
+	private int maxBatchSize = 100;
+
 	public CheckTokenEndpoint(ResourceServerTokenServices resourceServerTokenServices) {
 		this.resourceServerTokenServices = resourceServerTokenServices;
 	}
@@ -74,6 +86,15 @@ public class CheckTokenEndpoint {
 		this.accessTokenConverter = accessTokenConverter;
 	}
 
+	/**
+	 * The maximum number of tokens accepted in one batch request. Default 100.
+	 *
+	 * @param maxBatchSize the maximum batch size
+	 */
+	public void setMaxBatchSize(int maxBatchSize) {
+		this.maxBatchSize = maxBatchSize;
+	}
+
 	@RequestMapping(value = "/oauth/check_token", method = RequestMethod.POST)
 	@ResponseBody
 	public Map<String, ?> checkToken(@RequestParam("token") String value) {
@@ -97,6 +118,68 @@ public class CheckTokenEndpoint {
 		return response;
 	}
 
+	/**
+	 * Decode several access tokens at once (one <code>tokens</code> parameter per token). The response maps each token
+	 * value to the same attributes as {@link #checkToken(String)} would return, or to <code>{"active": false}</code>
+	 * if the token is unknown or expired. If the token services are {@link BulkResourceServerTokenServices} all the
+	 * tokens are resolved together.
+	 *
+	 * @param values the token values
+	 * @return the decoded tokens keyed by token value
+	 */
+	@RequestMapping(value = "/oauth/check_token", method = RequestMethod.POST, params = "tokens")
+	@ResponseBody
+	public Map<String, ?> checkTokens(@RequestParam("tokens") List<String> values) {
+
+		Set<String> distinct = new LinkedHashSet<String>(values);
+		if (distinct.size() > maxBatchSize) {
+			throw new InvalidRequestException("Too many tokens (maximum " + maxBatchSize + ")");
+		}
+
+		Map<String, Object> response = new LinkedHashMap<String, Object>();
+		if (resourceServerTokenServices instanceof BulkResourceServerTokenServices) {
+			BulkResourceServerTokenServices services = (BulkResourceServerTokenServices) resourceServerTokenServices;
+			Map<String, OAuth2AccessToken> tokens = services.readAccessTokens(distinct);
+			Map<String, OAuth2Authentication> authentications = services
+					.loadAuthentications(new ArrayList<OAuth2AccessToken>(tokens.values()));
+			for (String value : distinct) {
+				OAuth2AccessToken token = tokens.get(value);
+				OAuth2Authentication authentication = authentications.get(value);
+				response.put(value, token == null || authentication == null ? INACTIVE : convert(token, authentication));
+			}
+		}
+		else {
+			for (String value : distinct) {
+				response.put(value, checkTokenOrInactive(value));
+			}
+		}
+
+		return response;
+	}
+
+	private Map<String, ?> checkTokenOrInactive(String value) {
+		try {
+			return checkToken(value);
+		}
+		catch (InvalidTokenException e) {
+			return INACTIVE;
+		}
+	}
+
+	private Map<String, ?> convert(OAuth2AccessToken token, OAuth2Authentication authentication) {
+		@SuppressWarnings("unchecked")
+		Map<String, Object> response = (Map<String, Object>) accessTokenConverter.convertAccessToken(token,
+				authentication);
+		response.put("active", true);
+		return response;
+	}
+
+	@ExceptionHandler(InvalidRequestException.class)
+	public ResponseEntity<OAuth2Exception> handleInvalidRequestException(InvalidRequestException e) throws Exception {
+		logger.info("Handling error: " + e.getClass().getSimpleName() + ", " + e.getMessage());
+		return exceptionTranslator.translate(e);
+	}
+
 	@ExceptionHandler(InvalidTokenException.class)
 	public ResponseEntity<OAuth2Exception> handleException(Exception e) throws Exception {
 		logger.info("Handling error: " + e.getClass().getSimpleName() + ", " + e.getMessage());
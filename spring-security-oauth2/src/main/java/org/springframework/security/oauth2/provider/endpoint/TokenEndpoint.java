@@ -102,6 +102,19 @@ public class TokenEndpoint extends AbstractEndpoint {
 		String clientId = getClientId(principal);
 		ClientDetails authenticatedClient = getClientDetailsService().loadClientByClientId(clientId);
 
+		return getResponse(grant(clientId, authenticatedClient, parameters));
+	}
+
+	/**
+	 * Validate a single token request from an already authenticated client and grant the token.
+	 * 
+	 * @param clientId the id of the authenticated client
+	 * @param authenticatedClient the details of the authenticated client
+	 * @param parameters the token request parameters
+	 * @return the access token granted (never null)
+	 */
+	OAuth2AccessToken grant(String clientId, ClientDetails authenticatedClient, Map<String, String> parameters) {
+
 		TokenRequest tokenRequest = getOAuth2RequestFactory().createTokenRequest(parameters, authenticatedClient);
 
 		// Only validate client details if a client is authenticated during this request.
@@ -139,7 +152,7 @@ public class TokenEndpoint extends AbstractEndpoint {
 			throw new UnsupportedGrantTypeException("Unsupported grant type");
 		}
 
-		return getResponse(token);
+		return token;
 	}
 
 	/**
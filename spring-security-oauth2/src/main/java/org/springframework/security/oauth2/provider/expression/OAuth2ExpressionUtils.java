@@ -14,6 +14,8 @@ package org.springframework.security.oauth2.provider.expression;
 
 import java.util.Collection;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
 
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
@@ -32,6 +34,16 @@ import org.springframework.security.oauth2.provider.OAuth2Request;
 @Deprecated
 public abstract class OAuth2ExpressionUtils {
 
+	private static final int MAX_SCOPE_PATTERNS = 1000;
+
+	private static final String REGEX_METACHARACTERS = "\\^$.|?*+()[]{}";
+
+	/**
+	 * Compiled scope expressions. There is one entry per distinct expression in the access rules, so the bound is only a
+	 * guard against expressions built from request data.
+	 */
+	private static final ConcurrentHashMap<String, ScopePattern> scopePatterns = new ConcurrentHashMap<String, ScopePattern>();
+
 	public static boolean clientHasAnyRole(Authentication authentication, String... roles) {
 		if (authentication instanceof OAuth2Authentication) {
 			OAuth2Request clientAuthentication = ((OAuth2Authentication) authentication).getOAuth2Request();
@@ -97,9 +109,10 @@ public abstract class OAuth2ExpressionUtils {
 
 		if (authentication instanceof OAuth2Authentication) {
 			OAuth2Request clientAuthentication = ((OAuth2Authentication) authentication).getOAuth2Request();
-			for (String scope : clientAuthentication.getScope()) {
+			Set<String> assigned = clientAuthentication.getScope();
+			if (assigned != null && !assigned.isEmpty()) {
 				for (String regex : scopesRegex) {
-					if (scope.matches(regex)) {
+					if (getScopePattern(regex).matchesAny(assigned)) {
 						return true;
 					}
 				}
@@ -109,4 +122,60 @@ public abstract class OAuth2ExpressionUtils {
 		return false;
 	}
 
+	private static ScopePattern getScopePattern(String regex) {
+		ScopePattern pattern = scopePatterns.get(regex);
+		if (pattern == null) {
+			pattern = new ScopePattern(regex);
+			if (scopePatterns.size() >= MAX_SCOPE_PATTERNS) {
+				scopePatterns.clear();
+			}
+			scopePatterns.put(regex, pattern);
+		}
+		return pattern;
+	}
+
+	/**
+	 * A scope expression: a regular expression, or a plain scope value if it has no metacharacters, in which case it is
+	 * looked up in the (hashed) scope set instead of being matched against every scope.
+	 */
+	private static class ScopePattern {
+
+		private final String literal;
+
+		private final Pattern pattern;
+
+		public ScopePattern(String regex) {
+			if (isLiteral(regex)) {
+				this.literal = regex;
+				this.pattern = null;
+			}
+			else {
+				this.literal = null;
+				this.pattern = Pattern.compile(regex);
+			}
+		}
+
+		public boolean matchesAny(Set<String> scopes) {
+			if (pattern == null) {
+				return scopes.contains(literal);
+			}
+			for (String scope : scopes) {
+				if (pattern.matcher(scope).matches()) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		private static boolean isLiteral(String regex) {
+			for (int i = 0; i < regex.length(); i++) {
+				if (REGEX_METACHARACTERS.indexOf(regex.charAt(i)) >= 0) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+	}
+
 }
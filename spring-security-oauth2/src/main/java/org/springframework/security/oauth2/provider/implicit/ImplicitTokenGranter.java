@@ -22,6 +22,7 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.oauth2.provider.ClientDetails;
 import org.springframework.security.oauth2.provider.ClientDetailsService;
+import org.springframework.security.oauth2.provider.GrantTypeAwareTokenGranter;
 import org.springframework.security.oauth2.provider.OAuth2Authentication;
 import org.springframework.security.oauth2.provider.OAuth2Request;
 import org.springframework.security.oauth2.provider.OAuth2RequestFactory;
@@ -38,7 +39,7 @@ import org.springframework.util.Assert;
  * 
  */
 @Deprecated
-public class ImplicitTokenGranter extends AbstractTokenGranter {
+public class ImplicitTokenGranter extends AbstractTokenGranter implements GrantTypeAwareTokenGranter {
 
 	private static final String GRANT_TYPE = "implicit";
 
@@ -22,6 +22,7 @@ import org.springframework.security.oauth2.common.OAuth2AccessToken;
 import org.springframework.security.oauth2.common.exceptions.InvalidGrantException;
 import org.springframework.security.oauth2.provider.ClientDetails;
 import org.springframework.security.oauth2.provider.ClientDetailsService;
+import org.springframework.security.oauth2.provider.GrantTypeAwareTokenGranter;
 import org.springframework.security.oauth2.provider.OAuth2RequestFactory;
 import org.springframework.security.oauth2.provider.TokenRequest;
 import org.springframework.security.oauth2.provider.token.AbstractTokenGranter;
@@ -35,7 +36,7 @@ import org.springframework.security.oauth2.provider.token.AuthorizationServerTok
  * 
  */
 @Deprecated
-public class RefreshTokenGranter extends AbstractTokenGranter {
+public class RefreshTokenGranter extends AbstractTokenGranter implements GrantTypeAwareTokenGranter {
 
 	private static final String GRANT_TYPE = "refresh_token";
 
@@ -13,6 +13,8 @@
 package org.springframework.security.oauth2.provider.token;
 
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Set;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -72,6 +74,16 @@ public abstract class AbstractTokenGranter implements TokenGranter {
 
 	}
 
+	/**
+	 * The grant type passed in on construction. This class does not implement
+	 * {@link org.springframework.security.oauth2.provider.GrantTypeAwareTokenGranter} itself, since subclasses may
+	 * override {@link #grant(String, TokenRequest)} to handle other grant types as well; a subclass that only handles
+	 * this one can opt in by declaring the interface.
+	 */
+	public Set<String> getGrantTypes() {
+		return Collections.singleton(grantType);
+	}
+
 	protected OAuth2AccessToken getAccessToken(ClientDetails client, TokenRequest tokenRequest) {
 		return tokenServices.createAccessToken(getOAuth2Authentication(client, tokenRequest));
 	}
@@ -0,0 +1,200 @@
+/*
+ * Copyright 2006-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.springframework.security.oauth2.provider.token;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.security.authentication.AuthenticationServiceException;
+import org.springframework.security.oauth2.common.exceptions.InvalidTokenException;
+import org.springframework.security.oauth2.provider.endpoint.CheckTokenEndpoint;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+
+/**
+ * {@link RemoteTokenServices} that coalesces concurrent token checks into batch requests to the check token endpoint.
+ * The first thread to check a token waits for a short window (or until the batch is full), collecting the tokens other
+ * threads need checked in the meantime, then sends them all in one request; the other threads wait for its result.
+ * A thread that is the only one checking a token does not wait at all. A batch of one token is sent as an ordinary
+ * check token request. Caching (if enabled) applies as usual, so only
+ * tokens missing from the cache are batched.
+ * <p>
+ * The authorization server must support batch requests, like the {@link CheckTokenEndpoint} does, i.e. accept one
+ * <code>tokens</code> parameter per token and respond with a map from token value to the attributes of the token.
+ *
+ * <p>
+ * @deprecated See the <a href="https://github.com/spring-projects/spring-security/wiki/OAuth-2.0-Migration-Guide">OAuth 2.0 Migration Guide</a> for Spring Security 5.
+ *
+ */
+@Deprecated
+public class BatchingRemoteTokenServices extends RemoteTokenServices {
+
+	private static final String BATCH_TOKEN_NAME = "tokens";
+
+	private final Object lock = new Object();
+
+	private Batch current;
+
+	private final AtomicInteger checking = new AtomicInteger();
+
+	private long batchWindowMillis = 5;
+
+	private int maxBatchSize = 100;
+
+	/**
+	 * The time (in milliseconds) to wait for other token checks before sending a batch. Default 5.
+	 *
+	 * @param batchWindowMillis the batch window to set
+	 */
+	public void setBatchWindowMillis(long batchWindowMillis) {
+		this.batchWindowMillis = batchWindowMillis;
+	}
+
+	/**
+	 * The maximum number of tokens in one batch; a full batch is sent without waiting for the end of the window. It
+	 * should not exceed the limit of the authorization server. Default 100.
+	 *
+	 * @param maxBatchSize the maximum batch size
+	 */
+	public void setMaxBatchSize(int maxBatchSize) {
+		this.maxBatchSize = maxBatchSize;
+	}
+
+	@Override
+	protected Map<String, Object> checkToken(String accessToken) {
+		checking.incrementAndGet();
+		try {
+			return checkInBatch(accessToken);
+		}
+		finally {
+			checking.decrementAndGet();
+		}
+	}
+
+	private Map<String, Object> checkInBatch(String accessToken) {
+
+		Batch batch;
+		boolean leader = false;
+		synchronized (lock) {
+			if (current == null) {
+				current = new Batch();
+				leader = true;
+			}
+			batch = current;
+			batch.tokens.add(accessToken);
+			// Nobody else is checking a token, so there is nothing to wait for
+			if (batch.tokens.size() >= maxBatchSize || (leader && checking.get() == 1)) {
+				current = null;
+				batch.full.countDown();
+			}
+		}
+
+		if (leader) {
+			send(batch);
+		}
+		else {
+			try {
+				batch.done.await();
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new AuthenticationServiceException("Interrupted while waiting for token check", e);
+			}
+		}
+
+		if (batch.failure != null) {
+			throw batch.failure;
+		}
+		if (batch.results == null) {
+			throw new AuthenticationServiceException("Token check failed");
+		}
+		return batch.results.get(accessToken);
+	}
+
+	private void send(Batch batch) {
+		try {
+			try {
+				batch.full.await(batchWindowMillis, TimeUnit.MILLISECONDS);
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			synchronized (lock) {
+				if (current == batch) {
+					current = null;
+				}
+			}
+			batch.results = check(batch.tokens);
+		}
+		catch (RuntimeException e) {
+			batch.failure = e;
+		}
+		finally {
+			batch.done.countDown();
+		}
+	}
+
+	/**
+	 * Check the tokens of a batch, returning the attributes of each token (or null if the response has none).
+	 */
+	private Map<String, Map<String, Object>> check(Set<String> tokens) {
+		if (tokens.size() == 1) {
+			String token = tokens.iterator().next();
+			return Collections.singletonMap(token, super.checkToken(token));
+		}
+
+		MultiValueMap<String, String> formData = new LinkedMultiValueMap<String, String>();
+		for (String token : tokens) {
+			formData.add(BATCH_TOKEN_NAME, token);
+		}
+		Map<String, Object> map = postToCheckTokenEndpoint(formData);
+		if (map != null && map.get("error") != null && !(map.get("error") instanceof Map)) {
+			if (logger.isDebugEnabled()) {
+				logger.debug("check_token returned error: " + map.get("error"));
+			}
+			throw new InvalidTokenException("Batch check_token request failed: " + map.get("error"));
+		}
+
+		Map<String, Map<String, Object>> results = new HashMap<String, Map<String, Object>>();
+		for (String token : tokens) {
+			Object attributes = map == null ? null : map.get(token);
+			if (attributes instanceof Map) {
+				@SuppressWarnings("unchecked")
+				Map<String, Object> tokenMap = (Map<String, Object>) attributes;
+				results.put(token, tokenMap);
+			}
+		}
+		return results;
+	}
+
+	private static class Batch {
+
+		private final Set<String> tokens = new LinkedHashSet<String>();
+
+		private final CountDownLatch full = new CountDownLatch(1);
+
+		private final CountDownLatch done = new CountDownLatch(1);
+
+		private volatile Map<String, Map<String, Object>> results;
+
+		private volatile RuntimeException failure;
+
+	}
+
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright 2006-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.springframework.security.oauth2.provider.token;
+
+import java.util.Collection;
+import java.util.Map;
+
+import org.springframework.security.oauth2.common.OAuth2AccessToken;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+
+/**
+ * Optional extension of {@link ResourceServerTokenServices} for services that can resolve many access tokens at once,
+ * e.g. to serve a batch request to the check token endpoint.
+ *
+ * <p>
+ * @deprecated See the <a href="https://github.com/spring-projects/spring-security/wiki/OAuth-2.0-Migration-Guide">OAuth 2.0 Migration Guide</a> for Spring Security 5.
+ *
+ */
+@Deprecated
+public interface BulkResourceServerTokenServices extends ResourceServerTokenServices {
+
+	/**
+	 * Retrieve the full details of several access tokens.
+	 *
+	 * @param accessTokens the token values
+	 * @return the tokens found, keyed by token value (unknown values are simply absent)
+	 */
+	Map<String, OAuth2AccessToken> readAccessTokens(Collection<String> accessTokens);
+
+	/**
+	 * Load the authentications of several access tokens obtained from {@link #readAccessTokens(Collection)}. Unlike
+	 * {@link #loadAuthentication(String)} no exception is thrown for tokens that are expired or otherwise no longer
+	 * valid: they are left out of the result.
+	 *
+	 * @param accessTokens the access tokens
+	 * @return the authentications of the valid tokens, keyed by token value
+	 */
+	Map<String, OAuth2Authentication> loadAuthentications(Collection<OAuth2AccessToken> accessTokens);
+
+}
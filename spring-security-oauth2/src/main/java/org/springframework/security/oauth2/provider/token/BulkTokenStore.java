@@ -0,0 +1,48 @@
+/*
+ * Copyright 2006-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.springframework.security.oauth2.provider.token;
+
+import java.util.Collection;
+import java.util.Map;
+
+import org.springframework.security.oauth2.common.OAuth2AccessToken;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+
+/**
+ * Optional extension of {@link TokenStore} for stores that can read many access tokens in one round trip (e.g. a
+ * single SQL query or Redis command).
+ *
+ * <p>
+ * @deprecated See the <a href="https://github.com/spring-projects/spring-security/wiki/OAuth-2.0-Migration-Guide">OAuth 2.0 Migration Guide</a> for Spring Security 5.
+ *
+ */
+@Deprecated
+public interface BulkTokenStore extends TokenStore {
+
+	/**
+	 * Read several access tokens from the store.
+	 *
+	 * @param tokenValues the token values to read
+	 * @return the tokens found, keyed by token value (unknown values are simply absent)
+	 */
+	Map<String, OAuth2AccessToken> readAccessTokens(Collection<String> tokenValues);
+
+	/**
+	 * Read the authentications stored with several access tokens.
+	 *
+	 * @param tokenValues the token values to read
+	 * @return the authentications found, keyed by token value (unknown values are simply absent)
+	 */
+	Map<String, OAuth2Authentication> readAuthentications(Collection<String> tokenValues);
+
+}
@@ -14,8 +14,14 @@
 package org.springframework.security.oauth2.provider.token;
 
 import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.commons.codec.binary.Base64;
 
@@ -35,6 +41,7 @@ import org.springframework.security.oauth2.common.exceptions.InvalidGrantExcepti
 import org.springframework.security.oauth2.common.exceptions.InvalidScopeException;
 import org.springframework.security.oauth2.common.exceptions.InvalidTokenException;
 import org.springframework.security.oauth2.provider.ClientDetails;
+import org.springframework.security.oauth2.provider.ClientDetailsChangeListener;
 import org.springframework.security.oauth2.provider.ClientDetailsService;
 import org.springframework.security.oauth2.provider.ClientRegistrationException;
 import org.springframework.security.oauth2.provider.OAuth2Authentication;
@@ -60,13 +67,15 @@ import org.springframework.util.Assert;
  * @author Dave Syer
  */
 @Deprecated
-public class DefaultTokenServices implements AuthorizationServerTokenServices, ResourceServerTokenServices,
-		ConsumerTokenServices, InitializingBean {
+public class DefaultTokenServices implements AuthorizationServerTokenServices, BulkResourceServerTokenServices,
+		ConsumerTokenServices, ClientDetailsChangeListener, InitializingBean {
 
 	private static final BytesKeyGenerator DEFAULT_TOKEN_GENERATOR = KeyGenerators.secureRandom(20);
 
 	private static final Charset US_ASCII = Charset.forName("US-ASCII");
 
+	private static final int MAX_REVOKED_CLIENT_TOKENS = 10000;
+
 	private int refreshTokenValiditySeconds = 60 * 60 * 24 * 30; // default 30 days.
 
 	private int accessTokenValiditySeconds = 60 * 60 * 12; // default 12 hours.
@@ -83,6 +92,23 @@ public class DefaultTokenServices implements AuthorizationServerTokenServices, R
 
 	private AuthenticationManager authenticationManager;
 
+	private int clientValidityCacheSeconds = 0;
+
+	private final ConcurrentHashMap<String, ClientValidity> validClients =
+			new ConcurrentHashMap<String, ClientValidity>();
+
+	private int clientTokenCacheSeconds = 0;
+
+	private AuthenticationKeyGenerator authenticationKeyGenerator = new DefaultAuthenticationKeyGenerator();
+
+	private final ConcurrentHashMap<String, CachedToken> clientTokens = new ConcurrentHashMap<String, CachedToken>();
+
+	// Client tokens revoked within the last cache period, so that a request that read one just before it was revoked
+	// cannot put it back in the cache
+	private final ConcurrentHashMap<String, Long> revokedClientTokens = new ConcurrentHashMap<String, Long>();
+
+	private List<TokenRevocationListener> revocationListeners = new ArrayList<TokenRevocationListener>();
+
 	/**
 	 * Initialize these token services. If no random generator is set, one will be created.
 	 */
@@ -93,6 +119,25 @@ public class DefaultTokenServices implements AuthorizationServerTokenServices, R
 	@Transactional
 	public OAuth2AccessToken createAccessToken(OAuth2Authentication authentication) throws AuthenticationException {
 
+		String clientTokenKey = null;
+		if (clientTokenCacheSeconds > 0 && authentication.isClientOnly()) {
+			clientTokenKey = authenticationKeyGenerator.extractKey(authentication);
+			OAuth2AccessToken cached = getCachedClientToken(clientTokenKey);
+			if (cached != null) {
+				return cached;
+			}
+		}
+
+		OAuth2AccessToken accessToken = createOrReuseAccessToken(authentication);
+		if (clientTokenKey != null) {
+			cacheClientToken(clientTokenKey, authentication.getOAuth2Request().getClientId(), accessToken);
+		}
+		return accessToken;
+
+	}
+
+	private OAuth2AccessToken createOrReuseAccessToken(OAuth2Authentication authentication) {
+
 		OAuth2AccessToken existingAccessToken = tokenStore.getAccessToken(authentication);
 		OAuth2RefreshToken refreshToken = null;
 		if (existingAccessToken != null) {
@@ -141,6 +186,56 @@ public class DefaultTokenServices implements AuthorizationServerTokenServices, R
 
 	}
 
+	private OAuth2AccessToken getCachedClientToken(String key) {
+		CachedToken cached = clientTokens.get(key);
+		if (cached == null) {
+			return null;
+		}
+		if (System.currentTimeMillis() >= cached.cachedUntil || cached.token.isExpired()) {
+			clientTokens.remove(key, cached);
+			return null;
+		}
+		return cached.token;
+	}
+
+	private void cacheClientToken(String key, String clientId, OAuth2AccessToken accessToken) {
+		long cachedUntil = System.currentTimeMillis() + clientTokenCacheSeconds * 1000L;
+		if (accessToken.getExpiration() != null) {
+			cachedUntil = Math.min(cachedUntil, accessToken.getExpiration().getTime());
+		}
+		CachedToken cached = new CachedToken(clientId, accessToken, cachedUntil);
+		clientTokens.put(key, cached);
+		Long revokedUntil = revokedClientTokens.get(accessToken.getValue());
+		if (revokedUntil != null && System.currentTimeMillis() < revokedUntil) {
+			clientTokens.remove(key, cached);
+		}
+	}
+
+	private void recordRevokedClientToken(String tokenValue) {
+		long now = System.currentTimeMillis();
+		if (revokedClientTokens.size() >= MAX_REVOKED_CLIENT_TOKENS) {
+			for (Map.Entry<String, Long> entry : revokedClientTokens.entrySet()) {
+				if (now >= entry.getValue()) {
+					revokedClientTokens.remove(entry.getKey(), entry.getValue());
+				}
+			}
+			if (revokedClientTokens.size() >= MAX_REVOKED_CLIENT_TOKENS) {
+				revokedClientTokens.clear();
+			}
+		}
+		revokedClientTokens.put(tokenValue, now + clientTokenCacheSeconds * 1000L);
+	}
+
+	private void evictClientTokens(String clientId, String tokenValue) {
+		for (Map.Entry<String, CachedToken> entry : clientTokens.entrySet()) {
+			CachedToken cached = entry.getValue();
+			if ((clientId != null && clientId.equals(cached.clientId))
+					|| (tokenValue != null && tokenValue.equals(cached.token.getValue()))) {
+				clientTokens.remove(entry.getKey(), entry.getValue());
+			}
+		}
+	}
+
 	@Transactional(noRollbackFor={InvalidTokenException.class, InvalidGrantException.class})
 	public OAuth2AccessToken refreshAccessToken(String refreshTokenValue, TokenRequest tokenRequest)
 			throws AuthenticationException {
@@ -261,17 +356,125 @@ public class DefaultTokenServices implements AuthorizationServerTokenServices, R
 			throw new InvalidTokenException("Invalid access token: " + accessTokenValue);
 		}
 		if (clientDetailsService != null) {
-			String clientId = result.getOAuth2Request().getClientId();
-			try {
-				clientDetailsService.loadClientByClientId(clientId);
+			checkClientValid(result.getOAuth2Request().getClientId());
+		}
+		return result;
+	}
+
+	/**
+	 * Read several access tokens, in one round trip if the token store is a {@link BulkTokenStore}.
+	 */
+	public Map<String, OAuth2AccessToken> readAccessTokens(Collection<String> accessTokens) {
+		if (tokenStore instanceof BulkTokenStore) {
+			return ((BulkTokenStore) tokenStore).readAccessTokens(accessTokens);
+		}
+		Map<String, OAuth2AccessToken> result = new HashMap<String, OAuth2AccessToken>();
+		for (String value : accessTokens) {
+			OAuth2AccessToken accessToken = tokenStore.readAccessToken(value);
+			if (accessToken != null) {
+				result.put(value, accessToken);
 			}
-			catch (ClientRegistrationException e) {
-				throw new InvalidTokenException("Client not valid: " + clientId, e);
+		}
+		return result;
+	}
+
+	/**
+	 * Load the authentications of several access tokens, in one round trip if the token store is a
+	 * {@link BulkTokenStore}. Expired tokens are removed from the store and left out, as are tokens of clients that are
+	 * no longer valid.
+	 */
+	public Map<String, OAuth2Authentication> loadAuthentications(Collection<OAuth2AccessToken> accessTokens) {
+		List<String> values = new ArrayList<String>(accessTokens.size());
+		for (OAuth2AccessToken accessToken : accessTokens) {
+			if (accessToken.isExpired()) {
+				tokenStore.removeAccessToken(accessToken);
+			}
+			else {
+				values.add(accessToken.getValue());
+			}
+		}
+		Map<String, OAuth2Authentication> result;
+		if (tokenStore instanceof BulkTokenStore) {
+			result = ((BulkTokenStore) tokenStore).readAuthentications(values);
+		}
+		else {
+			result = new HashMap<String, OAuth2Authentication>();
+			for (String value : values) {
+				OAuth2Authentication authentication = tokenStore.readAuthentication(value);
+				if (authentication != null) {
+					result.put(value, authentication);
+				}
+			}
+		}
+		if (clientDetailsService != null && !result.isEmpty()) {
+			Map<String, Boolean> checkedClients = new HashMap<String, Boolean>();
+			Map<String, OAuth2Authentication> valid = new HashMap<String, OAuth2Authentication>();
+			for (Map.Entry<String, OAuth2Authentication> entry : result.entrySet()) {
+				String clientId = entry.getValue().getOAuth2Request().getClientId();
+				Boolean clientValid = checkedClients.get(clientId);
+				if (clientValid == null) {
+					try {
+						checkClientValid(clientId);
+						clientValid = true;
+					}
+					catch (InvalidTokenException e) {
+						clientValid = false;
+					}
+					checkedClients.put(clientId, clientValid);
+				}
+				if (clientValid) {
+					valid.put(entry.getKey(), entry.getValue());
+				}
 			}
+			result = valid;
 		}
 		return result;
 	}
 
+	private void checkClientValid(String clientId) {
+		ClientValidity seen = null;
+		if (clientValidityCacheSeconds > 0) {
+			seen = validClients.get(clientId);
+			if (seen != null && System.currentTimeMillis() < seen.expiry) {
+				return;
+			}
+		}
+		try {
+			clientDetailsService.loadClientByClientId(clientId);
+		}
+		catch (ClientRegistrationException e) {
+			if (seen != null) {
+				validClients.remove(clientId, seen);
+			}
+			throw new InvalidTokenException("Client not valid: " + clientId, e);
+		}
+		if (clientValidityCacheSeconds > 0) {
+			// Only replace what was seen before the load, so a change notified in the meantime is not overwritten
+			ClientValidity valid = new ClientValidity(System.currentTimeMillis() + clientValidityCacheSeconds * 1000L);
+			if (seen == null) {
+				validClients.putIfAbsent(clientId, valid);
+			}
+			else {
+				validClients.replace(clientId, seen, valid);
+			}
+		}
+	}
+
+	/**
+	 * Evict the cached validity of a client, so that the next resource request with one of its tokens checks the
+	 * {@link #setClientDetailsService(ClientDetailsService) client details service} again. Register these token
+	 * services as a listener with the client registration service to have this called on update and removal.
+	 * 
+	 * @param clientId the client that changed
+	 */
+	public void clientDetailsChanged(String clientId) {
+		// An expired marker rather than a removal, so that a check that loaded the old details cannot cache them
+		validClients.put(clientId, new ClientValidity(0));
+		if (!clientTokens.isEmpty()) {
+			evictClientTokens(clientId, null);
+		}
+	}
+
 	public String getClientId(String tokenValue) {
 		OAuth2Authentication authentication = tokenStore.readAuthentication(tokenValue);
 		if (authentication == null) {
@@ -286,14 +489,24 @@ public class DefaultTokenServices implements AuthorizationServerTokenServices, R
 
 	public boolean revokeToken(String tokenValue) {
 		OAuth2AccessToken accessToken = tokenStore.readAccessToken(tokenValue);
-		if (accessToken == null) {
-			return false;
+		if (accessToken != null) {
+			if (accessToken.getRefreshToken() != null) {
+				tokenStore.removeRefreshToken(accessToken.getRefreshToken());
+			}
+			tokenStore.removeAccessToken(accessToken);
+		}
+		// Only evict and notify once the token has left the store, otherwise a concurrent request could cache it again.
+		// One that read it before it left is caught by the record of the revocation, made before evicting.
+		if (clientTokenCacheSeconds > 0) {
+			recordRevokedClientToken(tokenValue);
+		}
+		if (!clientTokens.isEmpty()) {
+			evictClientTokens(null, tokenValue);
 		}
-		if (accessToken.getRefreshToken() != null) {
-			tokenStore.removeRefreshToken(accessToken.getRefreshToken());
+		for (TokenRevocationListener listener : revocationListeners) {
+			listener.tokenRevoked(tokenValue);
 		}
-		tokenStore.removeAccessToken(accessToken);
-		return true;
+		return accessToken != null;
 	}
 
 	private OAuth2RefreshToken createRefreshToken(OAuth2Authentication authentication) {
@@ -446,6 +659,84 @@ public class DefaultTokenServices implements AuthorizationServerTokenServices, R
 	 */
 	public void setClientDetailsService(ClientDetailsService clientDetailsService) {
 		this.clientDetailsService = clientDetailsService;
+		this.validClients.clear();
+	}
+
+	/**
+	 * The period (in seconds) for which a successful check that a client still exists is remembered when loading an
+	 * authentication for a resource request. Zero or negative (the default) to check the
+	 * {@link #setClientDetailsService(ClientDetailsService) client details service} on every request. Keep this short,
+	 * since a removed client is only noticed when the entry expires, unless these token services are registered as a
+	 * {@link ClientDetailsChangeListener} with the client registration service.
+	 * 
+	 * @param clientValidityCacheSeconds the period to cache client validity for
+	 */
+	public void setClientValidityCacheSeconds(int clientValidityCacheSeconds) {
+		this.clientValidityCacheSeconds = clientValidityCacheSeconds;
+	}
+
+	/**
+	 * The period (in seconds) for which an access token issued to a client acting on its own behalf (e.g. with the
+	 * client credentials grant) is held in memory and handed out again for the same client and scopes, without
+	 * reading or re-storing it in the {@link #setTokenStore(TokenStore) token store}. Zero or negative (the default)
+	 * to always go to the token store. Tokens revoked through these token services are evicted, but a token removed
+	 * from the store by other means (e.g. on another node) is only noticed when the entry expires, so keep this short.
+	 * 
+	 * @param clientTokenCacheSeconds the period to cache client tokens for
+	 */
+	public void setClientTokenCacheSeconds(int clientTokenCacheSeconds) {
+		this.clientTokenCacheSeconds = clientTokenCacheSeconds;
+	}
+
+	/**
+	 * The key generator used to identify cached client tokens (see {@link #setClientTokenCacheSeconds(int)}). Should
+	 * be the same as the one used by the token store. Defaults to a {@link DefaultAuthenticationKeyGenerator}.
+	 * 
+	 * @param authenticationKeyGenerator the key generator to set
+	 */
+	public void setAuthenticationKeyGenerator(AuthenticationKeyGenerator authenticationKeyGenerator) {
+		this.authenticationKeyGenerator = authenticationKeyGenerator;
+	}
+
+	/**
+	 * Listeners that will be told about access tokens revoked through these token services (e.g. an
+	 * {@link org.springframework.security.oauth2.provider.authentication.OAuth2AuthenticationManager} that caches
+	 * authentications).
+	 * 
+	 * @param revocationListeners the revocation listeners to set
+	 */
+	public void setRevocationListeners(List<TokenRevocationListener> revocationListeners) {
+		this.revocationListeners = new ArrayList<TokenRevocationListener>(revocationListeners);
+	}
+
+	/**
+	 * The time until which a client is known to be valid. Compared by identity, so that a check only replaces the
+	 * entry it saw.
+	 */
+	private static class ClientValidity {
+
+		private final long expiry;
+
+		public ClientValidity(long expiry) {
+			this.expiry = expiry;
+		}
+
+	}
+
+	private static class CachedToken {
+
+		private final String clientId;
+
+		private final OAuth2AccessToken token;
+
+		private final long cachedUntil;
+
+		public CachedToken(String clientId, OAuth2AccessToken token, long cachedUntil) {
+			this.clientId = clientId;
+			this.token = token;
+			this.cachedUntil = cachedUntil;
+		}
+
 	}
 
 }
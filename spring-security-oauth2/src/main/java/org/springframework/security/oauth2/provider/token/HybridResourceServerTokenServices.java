@@ -0,0 +1,98 @@
+/*
+ * Copyright 2006-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.springframework.security.oauth2.provider.token;
+
+import java.nio.charset.Charset;
+
+import org.apache.commons.codec.binary.Base64;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.oauth2.common.OAuth2AccessToken;
+import org.springframework.security.oauth2.common.exceptions.InvalidTokenException;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.util.Assert;
+
+/**
+ * Resource server token services for a mix of JWT and opaque access tokens. Tokens that look like a JWT (three
+ * dot-separated segments, the first of which decodes to a JSON header with an <code>alg</code>) are handed to token
+ * services that validate them locally, e.g. {@link DefaultTokenServices} with a
+ * {@link org.springframework.security.oauth2.provider.token.store.JwtTokenStore} or
+ * {@link org.springframework.security.oauth2.provider.token.store.jwk.JwkTokenStore}. All other tokens are handed to
+ * token services for opaque tokens, typically {@link RemoteTokenServices}.
+ *
+ * <p>
+ * @deprecated See the <a href="https://github.com/spring-projects/spring-security/wiki/OAuth-2.0-Migration-Guide">OAuth 2.0 Migration Guide</a> for Spring Security 5.
+ *
+ */
+@Deprecated
+public class HybridResourceServerTokenServices implements ResourceServerTokenServices {
+
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+
+	private static final int MAX_HEADER_LENGTH = 2048;
+
+	private final ResourceServerTokenServices jwtTokenServices;
+
+	private final ResourceServerTokenServices opaqueTokenServices;
+
+	/**
+	 * @param jwtTokenServices the token services for JWT access tokens
+	 * @param opaqueTokenServices the token services for all other access tokens
+	 */
+	public HybridResourceServerTokenServices(ResourceServerTokenServices jwtTokenServices,
+			ResourceServerTokenServices opaqueTokenServices) {
+		Assert.notNull(jwtTokenServices, "JWT token services are required");
+		Assert.notNull(opaqueTokenServices, "Opaque token services are required");
+		this.jwtTokenServices = jwtTokenServices;
+		this.opaqueTokenServices = opaqueTokenServices;
+	}
+
+	public OAuth2Authentication loadAuthentication(String accessToken) throws AuthenticationException,
+			InvalidTokenException {
+		return select(accessToken).loadAuthentication(accessToken);
+	}
+
+	public OAuth2AccessToken readAccessToken(String accessToken) {
+		return select(accessToken).readAccessToken(accessToken);
+	}
+
+	private ResourceServerTokenServices select(String accessToken) {
+		return isJwt(accessToken) ? jwtTokenServices : opaqueTokenServices;
+	}
+
+	/**
+	 * Decide whether a token value is a JWT, without verifying or fully decoding it.
+	 *
+	 * @param accessToken the token value
+	 * @return true if the token should be validated as a JWT
+	 */
+	protected boolean isJwt(String accessToken) {
+		if (accessToken == null) {
+			return false;
+		}
+		int first = accessToken.indexOf('.');
+		if (first <= 0 || first > MAX_HEADER_LENGTH) {
+			return false;
+		}
+		int second = accessToken.indexOf('.', first + 1);
+		if (second < 0 || accessToken.indexOf('.', second + 1) >= 0) {
+			return false;
+		}
+		// A JSON object starting with '{"' always encodes to "eyJ"
+		if (!accessToken.startsWith("eyJ")) {
+			return false;
+		}
+		String header = new String(Base64.decodeBase64(accessToken.substring(0, first)), UTF8);
+		return header.trim().startsWith("{") && header.contains("\"alg\"");
+	}
+
+}
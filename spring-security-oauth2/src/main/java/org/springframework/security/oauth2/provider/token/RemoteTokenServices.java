@@ -18,12 +18,15 @@ import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.MediaType;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
 import org.springframework.http.client.ClientHttpResponse;
 import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.crypto.codec.Base64;
 import org.springframework.security.oauth2.common.OAuth2AccessToken;
 import org.springframework.security.oauth2.common.exceptions.InvalidTokenException;
 import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.util.Assert;
 import org.springframework.util.CollectionUtils;
 import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
@@ -32,8 +35,12 @@ import org.springframework.web.client.RestOperations;
 import org.springframework.web.client.RestTemplate;
 
 import java.io.IOException;
-import java.io.UnsupportedEncodingException;
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Queries the /check_token endpoint to obtain the contents of an access token.
@@ -51,6 +58,8 @@ import java.util.Map;
 @Deprecated
 public class RemoteTokenServices implements ResourceServerTokenServices {
 
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+
 	protected final Log logger = LogFactory.getLog(getClass());
 
 	private RestOperations restTemplate;
@@ -67,6 +76,16 @@ public class RemoteTokenServices implements ResourceServerTokenServices {
 
 	private AccessTokenConverter tokenConverter = new DefaultAccessTokenConverter();
 
+	private volatile String authorizationHeader;
+
+	private final ConcurrentHashMap<String, CachedAuthentication> cache = new ConcurrentHashMap<String, CachedAuthentication>();
+
+	private int cacheSeconds = 0;
+
+	private int negativeCacheSeconds = 5;
+
+	private int maxCacheEntries = 10000;
+
 	public RemoteTokenServices() {
 		restTemplate = new RestTemplate();
 		((RestTemplate) restTemplate).setErrorHandler(new DefaultResponseErrorHandler() {
@@ -84,16 +103,41 @@ public class RemoteTokenServices implements ResourceServerTokenServices {
 		this.restTemplate = restTemplate;
 	}
 
+	/**
+	 * Set the request factory used to call the check token endpoint. The default uses plain JDK connections without
+	 * timeouts; a {@link org.springframework.security.oauth2.http.client.PooledClientHttpRequestFactory} keeps
+	 * connections alive and bounds every wait.
+	 *
+	 * @param requestFactory the request factory to set
+	 */
+	public void setRequestFactory(ClientHttpRequestFactory requestFactory) {
+		getConfigurableRestTemplate().setRequestFactory(requestFactory);
+	}
+
+	/**
+	 * Set interceptors for the calls to the check token endpoint, e.g. a
+	 * {@link org.springframework.security.oauth2.http.client.CircuitBreakerInterceptor} to fail fast when the
+	 * authorization server is down, or a {@link org.springframework.security.oauth2.http.client.RequestMetricsInterceptor}
+	 * to measure its latency.
+	 *
+	 * @param interceptors the interceptors to set
+	 */
+	public void setInterceptors(List<ClientHttpRequestInterceptor> interceptors) {
+		getConfigurableRestTemplate().setInterceptors(interceptors);
+	}
+
 	public void setCheckTokenEndpointUrl(String checkTokenEndpointUrl) {
 		this.checkTokenEndpointUrl = checkTokenEndpointUrl;
 	}
 
 	public void setClientId(String clientId) {
 		this.clientId = clientId;
+		this.authorizationHeader = null;
 	}
 
 	public void setClientSecret(String clientSecret) {
 		this.clientSecret = clientSecret;
+		this.authorizationHeader = null;
 	}
 
 	public void setAccessTokenConverter(AccessTokenConverter accessTokenConverter) {
@@ -108,18 +152,158 @@ public class RemoteTokenServices implements ResourceServerTokenServices {
 		this.additionalParameters = additionalParameters;
 	}
 
+	/**
+	 * The period (in seconds) for which the result of checking a valid token is cached, so that repeated requests with
+	 * the same token do not all reach the authorization server. The period is shortened to the expiry of the token if
+	 * the check token endpoint returns one (<code>exp</code>). Zero (the default) to disable caching.
+	 *
+	 * @param cacheSeconds the cache period to set
+	 */
+	public void setCacheSeconds(int cacheSeconds) {
+		this.cacheSeconds = cacheSeconds;
+	}
+
+	/**
+	 * The period (in seconds) for which an invalid token is remembered as such, when caching is enabled. Zero to always
+	 * check invalid tokens again. Default 5.
+	 *
+	 * @param negativeCacheSeconds the negative cache period to set
+	 */
+	public void setNegativeCacheSeconds(int negativeCacheSeconds) {
+		this.negativeCacheSeconds = negativeCacheSeconds;
+	}
+
+	/**
+	 * The maximum number of tokens to cache. When it is reached the cache is cleared. Default 10000.
+	 *
+	 * @param maxCacheEntries the maximum number of entries
+	 */
+	public void setMaxCacheEntries(int maxCacheEntries) {
+		this.maxCacheEntries = maxCacheEntries;
+	}
+
 	@Override
 	public OAuth2Authentication loadAuthentication(String accessToken)
 			throws AuthenticationException, InvalidTokenException {
 
+		if (cacheSeconds <= 0) {
+			return extractAuthentication(accessToken, checkToken(accessToken));
+		}
+
+		String key = hash(accessToken);
+		long now = System.currentTimeMillis();
+		CachedAuthentication cached = cache.get(key);
+		if (cached != null && now < cached.expiry) {
+			if (cached.authentication == null) {
+				throw new InvalidTokenException(accessToken);
+			}
+			return copy(cached.authentication);
+		}
+
+		Map<String, Object> map = checkToken(accessToken);
+		OAuth2Authentication authentication;
+		try {
+			authentication = extractAuthentication(accessToken, map);
+		}
+		catch (InvalidTokenException e) {
+			if (negativeCacheSeconds > 0) {
+				store(key, new CachedAuthentication(null, now + negativeCacheSeconds * 1000L));
+			}
+			else {
+				cache.remove(key);
+			}
+			throw e;
+		}
+		long expiry = now + cacheSeconds * 1000L;
+		Long exp = getExpiry(map);
+		if (exp != null) {
+			expiry = Math.min(expiry, exp);
+		}
+		if (expiry > now) {
+			store(key, new CachedAuthentication(copy(authentication), expiry));
+		}
+		return authentication;
+	}
+
+	/**
+	 * Ask the check token endpoint about a single token.
+	 *
+	 * @param accessToken the token value
+	 * @return the attributes returned for the token
+	 */
+	protected Map<String, Object> checkToken(String accessToken) {
 		MultiValueMap<String, String> formData = new LinkedMultiValueMap<String, String>();
+		formData.add(tokenName, accessToken);
+		return postToCheckTokenEndpoint(formData);
+	}
+
+	private void store(String key, CachedAuthentication value) {
+		if (cache.size() >= maxCacheEntries) {
+			cache.clear();
+		}
+		cache.put(key, value);
+	}
+
+	private Long getExpiry(Map<String, Object> map) {
+		Object exp = map.get(AccessTokenConverter.EXP);
+		if (exp instanceof Number) {
+			return ((Number) exp).longValue() * 1000L;
+		}
+		if (exp instanceof String) {
+			try {
+				return Long.parseLong((String) exp) * 1000L;
+			}
+			catch (NumberFormatException e) {
+				// ignore and rely on the cache period
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * The cached authentication is shared, so hand out copies that callers can safely add details to.
+	 */
+	private OAuth2Authentication copy(OAuth2Authentication authentication) {
+		return new OAuth2Authentication(authentication.getOAuth2Request(), authentication.getUserAuthentication());
+	}
+
+	private String hash(String accessToken) {
+		try {
+			MessageDigest digest = MessageDigest.getInstance("SHA-256");
+			return new String(Base64.encode(digest.digest(accessToken.getBytes(UTF8))), UTF8);
+		}
+		catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("SHA-256 algorithm not available.  Fatal (should be in the JDK).", e);
+		}
+	}
+
+	/**
+	 * Post a form to the check token endpoint, adding the additional parameters and the client credentials.
+	 *
+	 * @param formData the form parameters identifying the token(s) to check
+	 * @return the response body
+	 */
+	protected Map<String, Object> postToCheckTokenEndpoint(MultiValueMap<String, String> formData) {
+		MultiValueMap<String, String> form = new LinkedMultiValueMap<String, String>();
 		if (additionalParameters != null) {
-			formData.setAll(additionalParameters);
+			form.setAll(additionalParameters);
 		}
-		formData.add(tokenName, accessToken);
+		form.putAll(formData);
 		HttpHeaders headers = new HttpHeaders();
-		headers.set("Authorization", getAuthorizationHeader(clientId, clientSecret));
-		Map<String, Object> map = postForMap(checkTokenEndpointUrl, formData, headers);
+		headers.set("Authorization", getAuthorizationHeader());
+		return postForMap(checkTokenEndpointUrl, form, headers);
+	}
+
+	/**
+	 * Validate the response of the check token endpoint for a token and convert it to an authentication.
+	 *
+	 * @param accessToken the token value that was checked
+	 * @param map the attributes returned for the token
+	 * @return the authentication
+	 * @throws InvalidTokenException if the response says the token is not valid
+	 */
+	private OAuth2Authentication extractAuthentication(String accessToken, Map<String, Object> map)
+			throws InvalidTokenException {
 
 		if (CollectionUtils.isEmpty(map)) {
 			if (logger.isDebugEnabled()) {
@@ -149,19 +333,28 @@ public class RemoteTokenServices implements ResourceServerTokenServices {
 		throw new UnsupportedOperationException("Not supported: read access token");
 	}
 
+	private RestTemplate getConfigurableRestTemplate() {
+		Assert.state(restTemplate instanceof RestTemplate, "Only a RestTemplate can be configured");
+		return (RestTemplate) restTemplate;
+	}
+
+	private String getAuthorizationHeader() {
+		String header = authorizationHeader;
+		if (header == null) {
+			header = getAuthorizationHeader(clientId, clientSecret);
+			authorizationHeader = header;
+		}
+		return header;
+	}
+
 	private String getAuthorizationHeader(String clientId, String clientSecret) {
 
 		if(clientId == null || clientSecret == null) {
 			logger.warn("Null Client ID or Client Secret detected. Endpoint that requires authentication will reject request with 401 error.");
 		}
 
-		String creds = String.format("%s:%s", clientId, clientSecret);
-		try {
-			return "Basic " + new String(Base64.encode(creds.getBytes("UTF-8")));
-		}
-		catch (UnsupportedEncodingException e) {
-			throw new IllegalStateException("Could not convert String");
-		}
+		String creds = clientId + ":" + clientSecret;
+		return "Basic " + new String(Base64.encode(creds.getBytes(UTF8)), UTF8);
 	}
 
 	private Map<String, Object> postForMap(String path, MultiValueMap<String, String> formData, HttpHeaders headers) {
@@ -176,4 +369,17 @@ public class RemoteTokenServices implements ResourceServerTokenServices {
 		return result;
 	}
 
+	private static class CachedAuthentication {
+
+		private final OAuth2Authentication authentication;
+
+		private final long expiry;
+
+		public CachedAuthentication(OAuth2Authentication authentication, long expiry) {
+			this.authentication = authentication;
+			this.expiry = expiry;
+		}
+
+	}
+
 }
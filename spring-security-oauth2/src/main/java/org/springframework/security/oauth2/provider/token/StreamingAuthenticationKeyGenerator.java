@@ -0,0 +1,178 @@
+/*
+ * Copyright 2006-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.springframework.security.oauth2.provider.token;
+
+import java.security.DigestException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.SortedSet;
+
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.security.oauth2.provider.OAuth2Request;
+
+/**
+ * Key generator producing exactly the same keys as {@link DefaultAuthenticationKeyGenerator} (so it can be swapped in
+ * for a token store with existing data), but without the intermediate map and strings. The values are encoded as UTF-8
+ * straight into a per-thread buffer and digested with a per-thread {@link MessageDigest}.
+ * <p>
+ * Unlike the default generator this one has no {@code generateKey(Map)} hook, so it cannot be used to customize the
+ * values that go into the key.
+ *
+ * <p>
+ * @deprecated See the <a href="https://github.com/spring-projects/spring-security/wiki/OAuth-2.0-Migration-Guide">OAuth 2.0 Migration Guide</a> for Spring Security 5.
+ *
+ */
+@Deprecated
+public class StreamingAuthenticationKeyGenerator implements AuthenticationKeyGenerator {
+
+	private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+	private static final ThreadLocal<KeyBuffer> BUFFERS = new ThreadLocal<KeyBuffer>() {
+		@Override
+		protected KeyBuffer initialValue() {
+			return new KeyBuffer();
+		}
+	};
+
+	public String extractKey(OAuth2Authentication authentication) {
+		OAuth2Request authorizationRequest = authentication.getOAuth2Request();
+		KeyBuffer buffer = BUFFERS.get();
+		buffer.reset();
+		// Same layout as LinkedHashMap.toString() in the default generator
+		buffer.append('{');
+		if (!authentication.isClientOnly()) {
+			buffer.append("username=").append(authentication.getName()).append(", ");
+		}
+		buffer.append("client_id=").append(authorizationRequest.getClientId());
+		Set<String> scope = authorizationRequest.getScope();
+		if (scope != null) {
+			buffer.append(", scope=");
+			appendSorted(buffer, scope);
+		}
+		buffer.append('}');
+		return buffer.digest();
+	}
+
+	private void appendSorted(KeyBuffer buffer, Set<String> scope) {
+		if (scope.size() > 1 && !(scope instanceof SortedSet && ((SortedSet<String>) scope).comparator() == null)) {
+			String[] sorted = scope.toArray(new String[scope.size()]);
+			Arrays.sort(sorted);
+			for (int i = 0; i < sorted.length; i++) {
+				if (i > 0) {
+					buffer.append(' ');
+				}
+				buffer.append(sorted[i]);
+			}
+			return;
+		}
+		for (Iterator<String> iterator = scope.iterator(); iterator.hasNext();) {
+			buffer.append(iterator.next());
+			if (iterator.hasNext()) {
+				buffer.append(' ');
+			}
+		}
+	}
+
+	private static class KeyBuffer {
+
+		private final MessageDigest digest;
+
+		private final byte[] result = new byte[16];
+
+		private final char[] hex = new char[32];
+
+		private byte[] bytes = new byte[256];
+
+		private int length;
+
+		public KeyBuffer() {
+			try {
+				digest = MessageDigest.getInstance("MD5");
+			}
+			catch (NoSuchAlgorithmException nsae) {
+				throw new IllegalStateException("MD5 algorithm not available.  Fatal (should be in the JDK).", nsae);
+			}
+		}
+
+		public void reset() {
+			length = 0;
+		}
+
+		public KeyBuffer append(String value) {
+			if (value == null) {
+				return append("null");
+			}
+			int count = value.length();
+			ensureCapacity(count * 3);
+			for (int i = 0; i < count; i++) {
+				char c = value.charAt(i);
+				if (c < 0x80) {
+					bytes[length++] = (byte) c;
+				}
+				else if (c < 0x800) {
+					bytes[length++] = (byte) (0xc0 | (c >> 6));
+					bytes[length++] = (byte) (0x80 | (c & 0x3f));
+				}
+				else if (Character.isHighSurrogate(c) && i + 1 < count && Character.isLowSurrogate(value.charAt(i + 1))) {
+					int codePoint = Character.toCodePoint(c, value.charAt(++i));
+					bytes[length++] = (byte) (0xf0 | (codePoint >> 18));
+					bytes[length++] = (byte) (0x80 | ((codePoint >> 12) & 0x3f));
+					bytes[length++] = (byte) (0x80 | ((codePoint >> 6) & 0x3f));
+					bytes[length++] = (byte) (0x80 | (codePoint & 0x3f));
+				}
+				else if (c >= Character.MIN_SURROGATE && c <= Character.MAX_SURROGATE) {
+					// Unpaired surrogate, replaced the same way as String.getBytes("UTF-8")
+					bytes[length++] = (byte) '?';
+				}
+				else {
+					bytes[length++] = (byte) (0xe0 | (c >> 12));
+					bytes[length++] = (byte) (0x80 | ((c >> 6) & 0x3f));
+					bytes[length++] = (byte) (0x80 | (c & 0x3f));
+				}
+			}
+			return this;
+		}
+
+		public KeyBuffer append(char c) {
+			ensureCapacity(1);
+			bytes[length++] = (byte) c;
+			return this;
+		}
+
+		public String digest() {
+			digest.update(bytes, 0, length);
+			try {
+				digest.digest(result, 0, result.length);
+			}
+			catch (DigestException e) {
+				throw new IllegalStateException("Could not compute MD5 digest", e);
+			}
+			for (int i = 0; i < result.length; i++) {
+				hex[2 * i] = HEX[(result[i] >> 4) & 0x0f];
+				hex[2 * i + 1] = HEX[result[i] & 0x0f];
+			}
+			return new String(hex);
+		}
+
+		private void ensureCapacity(int extra) {
+			if (length + extra > bytes.length) {
+				bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, length + extra));
+			}
+		}
+
+	}
+
+}
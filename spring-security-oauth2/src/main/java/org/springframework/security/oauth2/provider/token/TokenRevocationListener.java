@@ -0,0 +1,34 @@
+/*
+ * Copyright 2006-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.springframework.security.oauth2.provider.token;
+
+/**
+ * Callback for components that remember access tokens (or what they authenticate) and need to be told when one is
+ * revoked, e.g. by {@link DefaultTokenServices#revokeToken(String)}. Resource servers that are not in the same process
+ * as the authorization server can call it from whatever notification mechanism they share with it.
+ *
+ * <p>
+ * @deprecated See the <a href="https://github.com/spring-projects/spring-security/wiki/OAuth-2.0-Migration-Guide">OAuth 2.0 Migration Guide</a> for Spring Security 5.
+ *
+ */
+@Deprecated
+public interface TokenRevocationListener {
+
+	/**
+	 * Notification that an access token has been revoked. Implementations should discard anything they hold for it.
+	 *
+	 * @param tokenValue the value of the revoked access token
+	 */
+	void tokenRevoked(String tokenValue);
+
+}
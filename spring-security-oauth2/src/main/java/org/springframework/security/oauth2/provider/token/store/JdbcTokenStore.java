@@ -9,7 +9,9 @@ import java.sql.SQLException;
 import java.sql.Types;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import javax.sql.DataSource;
 
@@ -17,15 +19,18 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.jdbc.core.support.SqlLobValue;
 import org.springframework.security.oauth2.common.OAuth2AccessToken;
 import org.springframework.security.oauth2.common.OAuth2RefreshToken;
 import org.springframework.security.oauth2.common.util.SerializationUtils;
 import org.springframework.security.oauth2.provider.OAuth2Authentication;
 import org.springframework.security.oauth2.provider.token.AuthenticationKeyGenerator;
+import org.springframework.security.oauth2.provider.token.BulkTokenStore;
 import org.springframework.security.oauth2.provider.token.DefaultAuthenticationKeyGenerator;
-import org.springframework.security.oauth2.provider.token.TokenStore;
 import org.springframework.util.Assert;
 
 /**
@@ -39,7 +44,7 @@ import org.springframework.util.Assert;
  * @author Dave Syer
  */
 @Deprecated
-public class JdbcTokenStore implements TokenStore {
+public class JdbcTokenStore implements BulkTokenStore {
 
 	private static final Log LOG = LogFactory.getLog(JdbcTokenStore.class);
 
@@ -49,6 +54,10 @@ public class JdbcTokenStore implements TokenStore {
 
 	private static final String DEFAULT_ACCESS_TOKEN_AUTHENTICATION_SELECT_STATEMENT = "select token_id, authentication from oauth_access_token where token_id = ?";
 
+	private static final String DEFAULT_ACCESS_TOKENS_SELECT_STATEMENT = "select token_id, token from oauth_access_token where token_id in (:tokenIds)";
+
+	private static final String DEFAULT_ACCESS_TOKENS_AUTHENTICATION_SELECT_STATEMENT = "select token_id, authentication from oauth_access_token where token_id in (:tokenIds)";
+
 	private static final String DEFAULT_ACCESS_TOKEN_FROM_AUTHENTICATION_SELECT_STATEMENT = "select token_id, token from oauth_access_token where authentication_id = ?";
 
 	private static final String DEFAULT_ACCESS_TOKENS_FROM_USERNAME_AND_CLIENT_SELECT_STATEMENT = "select token_id, token from oauth_access_token where user_name = ? and client_id = ?";
@@ -75,6 +84,10 @@ public class JdbcTokenStore implements TokenStore {
 
 	private String selectAccessTokenAuthenticationSql = DEFAULT_ACCESS_TOKEN_AUTHENTICATION_SELECT_STATEMENT;
 
+	private String selectAccessTokensSql = DEFAULT_ACCESS_TOKENS_SELECT_STATEMENT;
+
+	private String selectAccessTokensAuthenticationSql = DEFAULT_ACCESS_TOKENS_AUTHENTICATION_SELECT_STATEMENT;
+
 	private String selectAccessTokenFromAuthenticationSql = DEFAULT_ACCESS_TOKEN_FROM_AUTHENTICATION_SELECT_STATEMENT;
 
 	private String selectAccessTokensFromUserNameAndClientIdSql = DEFAULT_ACCESS_TOKENS_FROM_USERNAME_AND_CLIENT_SELECT_STATEMENT;
@@ -99,9 +112,12 @@ public class JdbcTokenStore implements TokenStore {
 
 	private final JdbcTemplate jdbcTemplate;
 
+	private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
 	public JdbcTokenStore(DataSource dataSource) {
 		Assert.notNull(dataSource, "DataSource required");
 		this.jdbcTemplate = new JdbcTemplate(dataSource);
+		this.namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
 	}
 
 	public void setAuthenticationKeyGenerator(AuthenticationKeyGenerator authenticationKeyGenerator) {
@@ -182,6 +198,60 @@ public class JdbcTokenStore implements TokenStore {
 		return accessToken;
 	}
 
+	public Map<String, OAuth2AccessToken> readAccessTokens(Collection<String> tokenValues) {
+		final Map<String, String> keys = extractTokenKeys(tokenValues);
+		final Map<String, OAuth2AccessToken> accessTokens = new HashMap<String, OAuth2AccessToken>();
+		if (keys.isEmpty()) {
+			return accessTokens;
+		}
+		namedParameterJdbcTemplate.query(selectAccessTokensSql, new MapSqlParameterSource("tokenIds", keys.keySet()),
+				new RowCallbackHandler() {
+					public void processRow(ResultSet rs) throws SQLException {
+						String tokenValue = keys.get(rs.getString(1));
+						try {
+							accessTokens.put(tokenValue, deserializeAccessToken(rs.getBytes(2)));
+						}
+						catch (IllegalArgumentException e) {
+							LOG.warn("Failed to deserialize access token", e);
+							removeAccessToken(tokenValue);
+						}
+					}
+				});
+		return accessTokens;
+	}
+
+	public Map<String, OAuth2Authentication> readAuthentications(Collection<String> tokenValues) {
+		final Map<String, String> keys = extractTokenKeys(tokenValues);
+		final Map<String, OAuth2Authentication> authentications = new HashMap<String, OAuth2Authentication>();
+		if (keys.isEmpty()) {
+			return authentications;
+		}
+		namedParameterJdbcTemplate.query(selectAccessTokensAuthenticationSql, new MapSqlParameterSource("tokenIds",
+				keys.keySet()), new RowCallbackHandler() {
+			public void processRow(ResultSet rs) throws SQLException {
+				String tokenValue = keys.get(rs.getString(1));
+				try {
+					authentications.put(tokenValue, deserializeAuthentication(rs.getBytes(2)));
+				}
+				catch (IllegalArgumentException e) {
+					LOG.warn("Failed to deserialize authentication", e);
+					removeAccessToken(tokenValue);
+				}
+			}
+		});
+		return authentications;
+	}
+
+	private Map<String, String> extractTokenKeys(Collection<String> tokenValues) {
+		Map<String, String> keys = new HashMap<String, String>();
+		for (String tokenValue : tokenValues) {
+			if (tokenValue != null) {
+				keys.put(extractTokenKey(tokenValue), tokenValue);
+			}
+		}
+		return keys;
+	}
+
 	public void removeAccessToken(OAuth2AccessToken token) {
 		removeAccessToken(token.getValue());
 	}
@@ -419,6 +489,22 @@ public class JdbcTokenStore implements TokenStore {
 		this.selectAccessTokenSql = selectAccessTokenSql;
 	}
 
+	/**
+	 * @param selectAccessTokensSql the SQL to read several access tokens, with a <code>:tokenIds</code> parameter for
+	 * the list of token ids
+	 */
+	public void setSelectAccessTokensSql(String selectAccessTokensSql) {
+		this.selectAccessTokensSql = selectAccessTokensSql;
+	}
+
+	/**
+	 * @param selectAccessTokensAuthenticationSql the SQL to read the authentications of several access tokens, with a
+	 * <code>:tokenIds</code> parameter for the list of token ids
+	 */
+	public void setSelectAccessTokensAuthenticationSql(String selectAccessTokensAuthenticationSql) {
+		this.selectAccessTokensAuthenticationSql = selectAccessTokensAuthenticationSql;
+	}
+
 	public void setDeleteAccessTokenSql(String deleteAccessTokenSql) {
 		this.deleteAccessTokenSql = deleteAccessTokenSql;
 	}
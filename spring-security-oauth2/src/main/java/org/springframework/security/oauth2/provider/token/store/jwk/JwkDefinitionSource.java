@@ -19,6 +19,8 @@ import org.springframework.security.jwt.codec.Codecs;
 import org.springframework.security.jwt.crypto.sign.EllipticCurveVerifier;
 import org.springframework.security.jwt.crypto.sign.RsaVerifier;
 import org.springframework.security.jwt.crypto.sign.SignatureVerifier;
+import org.springframework.security.oauth2.client.discovery.ProviderDiscoveryClient;
+import org.springframework.web.client.RestClientException;
 
 import java.io.IOException;
 import java.io.InputStream;
@@ -30,6 +32,7 @@ import java.security.interfaces.RSAPublicKey;
 import java.security.spec.RSAPublicKeySpec;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -39,7 +42,8 @@ import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * A source for JSON Web Key(s) (JWK) that is solely responsible for fetching (and caching)
- * the JWK Set (a set of JWKs) from the URL supplied to the constructor.
+ * the JWK Set (a set of JWKs) from the URL supplied to the constructor,
+ * or from the URL published in the provider configuration information.
  *
  * @see JwkSetConverter
  * @see JwkDefinition
@@ -52,6 +56,7 @@ import java.util.concurrent.ConcurrentHashMap;
  */
 class JwkDefinitionSource {
 	private final List<URL> jwkSetUrls;
+	private final ProviderDiscoveryClient discoveryClient;
 	private final Map<String, JwkDefinitionHolder> jwkDefinitions = new ConcurrentHashMap<String, JwkDefinitionHolder>();
 	private static final JwkSetConverter jwkSetConverter = new JwkSetConverter();
 
@@ -78,6 +83,20 @@ class JwkDefinitionSource {
 				throw new IllegalArgumentException("Invalid JWK Set URL: " + ex.getMessage(), ex);
 			}
 		}
+		this.discoveryClient = null;
+	}
+
+	/**
+	 * Creates a new instance that looks up the location of the JWK Set (&quot;jwks_uri&quot;)
+	 * from the provider configuration information each time the JWK Set is (re-)loaded.
+	 * Use a {@link org.springframework.security.oauth2.client.discovery.CachingProviderDiscoveryClient}
+	 * so that this does not fetch the provider configuration every time.
+	 *
+	 * @param discoveryClient the client discovering the provider configuration information
+	 */
+	JwkDefinitionSource(ProviderDiscoveryClient discoveryClient) {
+		this.jwkSetUrls = Collections.emptyList();
+		this.discoveryClient = discoveryClient;
 	}
 
 	/**
@@ -100,7 +119,7 @@ class JwkDefinitionSource {
 				return result;
 			}
 			Map<String, JwkDefinitionHolder> newJwkDefinitions = new LinkedHashMap<String, JwkDefinitionHolder>();
-			for (URL jwkSetUrl : jwkSetUrls) {
+			for (URL jwkSetUrl : getJwkSetUrls()) {
 				newJwkDefinitions.putAll(loadJwkDefinitions(jwkSetUrl));
 			}
 			this.jwkDefinitions.clear();
@@ -109,6 +128,22 @@ class JwkDefinitionSource {
 		}
 	}
 
+	private List<URL> getJwkSetUrls() {
+		if (this.discoveryClient == null) {
+			return this.jwkSetUrls;
+		}
+		URL jwkSetUrl;
+		try {
+			jwkSetUrl = this.discoveryClient.discover().getJwkSetUri();
+		} catch (RestClientException ex) {
+			throw new JwkException("An error occurred while discovering the JWK Set URL: " + ex.getMessage(), ex);
+		}
+		if (jwkSetUrl == null) {
+			throw new JwkException("The provider configuration information does not contain a JWK Set URL");
+		}
+		return Collections.singletonList(jwkSetUrl);
+	}
+
 	/**
 	 * Returns the JWK definition matching the provided keyId (&quot;kid&quot;).
 	 *
@@ -15,6 +15,7 @@
  */
 package org.springframework.security.oauth2.provider.token.store.jwk;
 
+import org.springframework.security.oauth2.client.discovery.ProviderDiscoveryClient;
 import org.springframework.security.oauth2.common.OAuth2AccessToken;
 import org.springframework.security.oauth2.common.OAuth2RefreshToken;
 import org.springframework.security.oauth2.provider.OAuth2Authentication;
@@ -159,8 +160,37 @@ public final class JwkTokenStore implements TokenStore {
 	 */
 	public JwkTokenStore(List<String> jwkSetUrls, AccessTokenConverter accessTokenConverter,
 						 JwtClaimsSetVerifier jwtClaimsSetVerifier) {
+		this(new JwkDefinitionSource(jwkSetUrls), accessTokenConverter, jwtClaimsSetVerifier);
+	}
+
+	/**
+	 * Creates a new instance using the JWK Set URL (&quot;jwks_uri&quot;) of the provider configuration information,
+	 * looked up each time the JWK Set is (re-)loaded, so that a provider moving its JWK Set is followed.
+	 * A {@link org.springframework.security.oauth2.client.discovery.CachingProviderDiscoveryClient} avoids a
+	 * provider configuration request for every JWK Set request.
+	 *
+	 * @param discoveryClient the client discovering the provider configuration information
+	 */
+	public JwkTokenStore(ProviderDiscoveryClient discoveryClient) {
+		this(discoveryClient, null, null);
+	}
+
+	/**
+	 * Creates a new instance using the JWK Set URL (&quot;jwks_uri&quot;) of the provider configuration information
+	 * and a custom {@link AccessTokenConverter} and {@link JwtClaimsSetVerifier}.
+	 *
+	 * @param discoveryClient the client discovering the provider configuration information
+	 * @param accessTokenConverter a custom {@link AccessTokenConverter}
+	 * @param jwtClaimsSetVerifier a custom {@link JwtClaimsSetVerifier}
+	 * @see #JwkTokenStore(ProviderDiscoveryClient)
+	 */
+	public JwkTokenStore(ProviderDiscoveryClient discoveryClient, AccessTokenConverter accessTokenConverter,
+						 JwtClaimsSetVerifier jwtClaimsSetVerifier) {
+		this(new JwkDefinitionSource(discoveryClient), accessTokenConverter, jwtClaimsSetVerifier);
+	}
 
-		JwkDefinitionSource jwkDefinitionSource = new JwkDefinitionSource(jwkSetUrls);
+	private JwkTokenStore(JwkDefinitionSource jwkDefinitionSource, AccessTokenConverter accessTokenConverter,
+						 JwtClaimsSetVerifier jwtClaimsSetVerifier) {
 		JwkVerifyingJwtAccessTokenConverter jwtVerifyingAccessTokenConverter =
 				new JwkVerifyingJwtAccessTokenConverter(jwkDefinitionSource);
 		if (accessTokenConverter != null) {
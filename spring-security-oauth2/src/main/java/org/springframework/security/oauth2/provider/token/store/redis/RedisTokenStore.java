@@ -9,8 +9,8 @@ import org.springframework.security.oauth2.common.OAuth2AccessToken;
 import org.springframework.security.oauth2.common.OAuth2RefreshToken;
 import org.springframework.security.oauth2.provider.OAuth2Authentication;
 import org.springframework.security.oauth2.provider.token.AuthenticationKeyGenerator;
+import org.springframework.security.oauth2.provider.token.BulkTokenStore;
 import org.springframework.security.oauth2.provider.token.DefaultAuthenticationKeyGenerator;
-import org.springframework.security.oauth2.provider.token.TokenStore;
 import org.springframework.util.ClassUtils;
 import org.springframework.util.ReflectionUtils;
 
@@ -19,7 +19,9 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * <p>
@@ -28,7 +30,7 @@ import java.util.List;
  * @author efenderbosch
  */
 @Deprecated
-public class RedisTokenStore implements TokenStore {
+public class RedisTokenStore implements BulkTokenStore {
 
 	private static final String ACCESS = "access:";
 	private static final String AUTH_TO_ACCESS = "auth_to_access:";
@@ -151,6 +153,20 @@ public class RedisTokenStore implements TokenStore {
 		return auth;
 	}
 
+	@Override
+	public Map<String, OAuth2Authentication> readAuthentications(Collection<String> tokenValues) {
+		List<String> values = new ArrayList<String>(tokenValues);
+		List<byte[]> results = mGet(AUTH, values);
+		Map<String, OAuth2Authentication> authentications = new HashMap<String, OAuth2Authentication>();
+		for (int i = 0; i < values.size(); i++) {
+			OAuth2Authentication auth = deserializeAuthentication(results.get(i));
+			if (auth != null) {
+				authentications.put(values.get(i), auth);
+			}
+		}
+		return authentications;
+	}
+
 	@Override
 	public OAuth2Authentication readAuthenticationForRefreshToken(OAuth2RefreshToken token) {
 		return readAuthenticationForRefreshToken(token.getValue());
@@ -268,6 +284,36 @@ public class RedisTokenStore implements TokenStore {
 		return accessToken;
 	}
 
+	@Override
+	public Map<String, OAuth2AccessToken> readAccessTokens(Collection<String> tokenValues) {
+		List<String> values = new ArrayList<String>(tokenValues);
+		List<byte[]> results = mGet(ACCESS, values);
+		Map<String, OAuth2AccessToken> accessTokens = new HashMap<String, OAuth2AccessToken>();
+		for (int i = 0; i < values.size(); i++) {
+			OAuth2AccessToken accessToken = deserializeAccessToken(results.get(i));
+			if (accessToken != null) {
+				accessTokens.put(values.get(i), accessToken);
+			}
+		}
+		return accessTokens;
+	}
+
+	private List<byte[]> mGet(String keyPrefix, List<String> values) {
+		if (values.isEmpty()) {
+			return Collections.emptyList();
+		}
+		byte[][] keys = new byte[values.size()][];
+		for (int i = 0; i < keys.length; i++) {
+			keys[i] = serializeKey(keyPrefix + values.get(i));
+		}
+		RedisConnection conn = getConnection();
+		try {
+			return conn.mGet(keys);
+		} finally {
+			conn.close();
+		}
+	}
+
 	public void removeAccessToken(String tokenValue) {
 		byte[] accessKey = serializeKey(ACCESS + tokenValue);
 		byte[] authKey = serializeKey(AUTH + tokenValue);
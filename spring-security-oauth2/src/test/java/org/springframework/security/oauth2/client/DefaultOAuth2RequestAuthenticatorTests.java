@@ -21,6 +21,7 @@ import org.springframework.security.oauth2.common.DefaultOAuth2AccessToken;
 import org.springframework.security.oauth2.common.OAuth2AccessToken;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 
 /**
  * @author Dave Syer
@@ -96,4 +97,15 @@ public class DefaultOAuth2RequestAuthenticatorTests {
 		String header = request.getHeaders().getFirst("Authorization");
 		assertEquals("MAC FOO", header);
 	}
-}
\ No newline at end of file
+
+	@Test
+	public void headerRecomputedWhenTokenChanges() {
+		DefaultOAuth2AccessToken accessToken = new DefaultOAuth2AccessToken("FOO");
+		assertEquals("Bearer FOO", authenticator.getAuthorizationHeader(accessToken));
+		assertSame(authenticator.getAuthorizationHeader(accessToken), authenticator.getAuthorizationHeader(accessToken));
+		accessToken.setValue("BAR");
+		assertEquals("Bearer BAR", authenticator.getAuthorizationHeader(accessToken));
+		assertEquals("Bearer SPAM", authenticator.getAuthorizationHeader(new DefaultOAuth2AccessToken("SPAM")));
+	}
+
+}
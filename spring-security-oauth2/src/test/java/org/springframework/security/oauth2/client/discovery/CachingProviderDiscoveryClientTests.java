@@ -0,0 +1,127 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.security.oauth2.client.discovery;
+
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+public class CachingProviderDiscoveryClientTests {
+	private static final String CONFIGURATION =
+			"{\"issuer\": \"https://example.com\", \"authorization_endpoint\": \"https://example.com/authorize\", " +
+			"\"jwks_uri\": \"https://example.com/token_keys\"}";
+	private MockWebServer server;
+	private CachingProviderDiscoveryClient client;
+
+	@Before
+	public void setUp() throws Exception {
+		this.server = new MockWebServer();
+		this.server.start();
+		this.client = new CachingProviderDiscoveryClient(this.server.url("").toString());
+		this.client.setBackgroundRefresh(false);
+	}
+
+	@After
+	public void cleanUp() throws Exception {
+		this.client.destroy();
+		this.server.shutdown();
+	}
+
+	@Test
+	public void discoverWhenCachedThenDoNotRequestAgain() throws Exception {
+		this.server.enqueue(configurationResponse().setHeader(HttpHeaders.CACHE_CONTROL, "public, max-age=3600"));
+
+		ProviderConfiguration providerConfiguration = this.client.discover();
+
+		assertSame(providerConfiguration, this.client.discover());
+		assertEquals(1, this.server.getRequestCount());
+		assertEquals("https://example.com/token_keys", providerConfiguration.getJwkSetUri().toString());
+	}
+
+	@Test
+	public void discoverWhenStaleAndNotModifiedThenKeepCachedConfiguration() throws Exception {
+		this.client.setMinMaxAgeSeconds(0);
+		this.server.enqueue(configurationResponse().setHeader(HttpHeaders.ETAG, "\"v1\"")
+				.setHeader(HttpHeaders.CACHE_CONTROL, "no-cache"));
+		this.server.enqueue(new MockResponse().setResponseCode(304));
+
+		ProviderConfiguration providerConfiguration = this.client.discover();
+
+		assertSame(providerConfiguration, this.client.discover());
+		assertNull(this.server.takeRequest().getHeader(HttpHeaders.IF_NONE_MATCH));
+		RecordedRequest revalidation = this.server.takeRequest();
+		assertEquals("\"v1\"", revalidation.getHeader(HttpHeaders.IF_NONE_MATCH));
+	}
+
+	@Test
+	public void discoverWhenStaleAndProviderFailsThenUseCachedConfiguration() throws Exception {
+		this.client.setMinMaxAgeSeconds(0);
+		this.server.enqueue(configurationResponse().setHeader(HttpHeaders.CACHE_CONTROL, "max-age=0"));
+		this.server.enqueue(new MockResponse().setResponseCode(503));
+
+		ProviderConfiguration providerConfiguration = this.client.discover();
+
+		assertSame(providerConfiguration, this.client.discover());
+		assertEquals(2, this.server.getRequestCount());
+	}
+
+	@Test
+	public void discoverWhenEvictedThenRequestAgain() throws Exception {
+		this.server.enqueue(configurationResponse());
+		this.server.enqueue(configurationResponse());
+
+		this.client.discover();
+		this.client.evict();
+		this.client.discover();
+
+		assertEquals(2, this.server.getRequestCount());
+	}
+
+	@Test
+	public void discoverWhenDestroyedThenDoNotScheduleRefresh() throws Exception {
+		ScheduledExecutorService scheduler = mock(ScheduledExecutorService.class);
+		this.client.setScheduler(scheduler);
+		this.client.setBackgroundRefresh(true);
+		this.server.enqueue(configurationResponse().setHeader(HttpHeaders.CACHE_CONTROL, "public, max-age=3600"));
+
+		this.client.destroy();
+		this.client.discover();
+
+		verify(scheduler, never()).schedule(any(Runnable.class), anyLong(), any(TimeUnit.class));
+	}
+
+	private MockResponse configurationResponse() {
+		return new MockResponse().setHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+				.setBody(CONFIGURATION);
+	}
+}
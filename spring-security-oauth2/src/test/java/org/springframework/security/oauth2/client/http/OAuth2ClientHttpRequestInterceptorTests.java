@@ -0,0 +1,62 @@
+/*
+ * Copyright 2006-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.springframework.security.oauth2.client.http;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.junit.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+import org.springframework.security.oauth2.client.token.AccessTokenManager;
+import org.springframework.security.oauth2.common.DefaultOAuth2AccessToken;
+
+public class OAuth2ClientHttpRequestInterceptorTests {
+
+	private AccessTokenManager accessTokenManager = mock(AccessTokenManager.class);
+
+	private OAuth2ClientHttpRequestInterceptor interceptor = new OAuth2ClientHttpRequestInterceptor(
+			accessTokenManager);
+
+	private MockClientHttpRequest request = new MockClientHttpRequest();
+
+	private ClientHttpRequestExecution execution = mock(ClientHttpRequestExecution.class);
+
+	private byte[] body = new byte[0];
+
+	private DefaultOAuth2AccessToken accessToken = new DefaultOAuth2AccessToken("FOO");
+
+	@Test
+	public void testAddsHeader() throws Exception {
+		when(accessTokenManager.getAccessToken()).thenReturn(accessToken);
+		when(execution.execute(request, body)).thenReturn(new MockClientHttpResponse(new byte[0], HttpStatus.OK));
+		interceptor.intercept(request, body, execution);
+		assertEquals("Bearer FOO", request.getHeaders().getFirst("Authorization"));
+		verify(accessTokenManager, never()).invalidate(accessToken);
+	}
+
+	@Test
+	public void testRejectedTokenInvalidated() throws Exception {
+		when(accessTokenManager.getAccessToken()).thenReturn(accessToken);
+		when(execution.execute(request, body)).thenReturn(
+				new MockClientHttpResponse(new byte[0], HttpStatus.UNAUTHORIZED));
+		interceptor.intercept(request, body, execution);
+		verify(accessTokenManager).invalidate(accessToken);
+	}
+
+}
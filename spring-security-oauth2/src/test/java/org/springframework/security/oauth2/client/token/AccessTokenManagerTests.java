@@ -0,0 +1,249 @@
+/*
+ * Copyright 2006-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.springframework.security.oauth2.client.token;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.oauth2.client.resource.OAuth2ProtectedResourceDetails;
+import org.springframework.security.oauth2.client.resource.UserRedirectRequiredException;
+import org.springframework.security.oauth2.client.token.grant.client.ClientCredentialsResourceDetails;
+import org.springframework.security.oauth2.client.token.grant.code.AuthorizationCodeResourceDetails;
+import org.springframework.security.oauth2.common.DefaultOAuth2AccessToken;
+import org.springframework.security.oauth2.common.OAuth2AccessToken;
+import org.springframework.security.oauth2.common.OAuth2RefreshToken;
+import org.springframework.util.concurrent.ListenableFuture;
+import org.springframework.util.concurrent.SettableListenableFuture;
+
+public class AccessTokenManagerTests {
+
+	private ClientCredentialsResourceDetails resource = new ClientCredentialsResourceDetails();
+
+	private StubAccessTokenProvider provider = new StubAccessTokenProvider();
+
+	private AccessTokenManager manager;
+
+	{
+		resource.setId("resource");
+		resource.setClientId("client");
+		manager = new AccessTokenManager(resource, provider);
+	}
+
+	@After
+	public void close() throws Exception {
+		manager.destroy();
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testRedirectResourceRejected() throws Exception {
+		new AccessTokenManager(new AuthorizationCodeResourceDetails(), provider);
+	}
+
+	@Test
+	public void testTokenReused() throws Exception {
+		provider.expiresIn = 3600;
+		OAuth2AccessToken token = manager.getAccessToken();
+		assertSame(token, manager.getAccessToken());
+		assertEquals(1, provider.count.get());
+	}
+
+	@Test
+	public void testExpiredTokenReplaced() throws Exception {
+		provider.expiresIn = 10; // inside the clock skew
+		OAuth2AccessToken token = manager.getAccessToken();
+		provider.expiresIn = 3600;
+		assertEquals("token-2", manager.getAccessToken().getValue());
+		assertEquals("token-1", token.getValue());
+	}
+
+	@Test
+	public void testInvalidatedTokenReplaced() throws Exception {
+		provider.expiresIn = 3600;
+		OAuth2AccessToken token = manager.getAccessToken();
+		manager.invalidate(token);
+		assertEquals("token-2", manager.getAccessToken().getValue());
+		manager.invalidate(token);
+		assertEquals("token-2", manager.getAccessToken().getValue());
+	}
+
+	@Test
+	public void testTokenDueForRefreshRenewedInBackground() throws Exception {
+		provider.expiresIn = 45; // valid, but inside the default refresh ahead period
+		OAuth2AccessToken token = manager.getAccessToken();
+		provider.expiresIn = 3600;
+		assertSame(token, manager.getAccessToken());
+		long timeout = System.currentTimeMillis() + 5000;
+		while (manager.getAccessToken() == token && System.currentTimeMillis() < timeout) {
+			Thread.sleep(10);
+		}
+		assertEquals("token-2", manager.getAccessToken().getValue());
+		assertEquals(2, provider.count.get());
+	}
+
+	@Test
+	public void testOnlyOneBackgroundRefreshQueued() throws Exception {
+		ScheduledExecutorService scheduler = Mockito.mock(ScheduledExecutorService.class);
+		manager.setScheduler(scheduler);
+		provider.expiresIn = 45; // valid, but inside the default refresh ahead period
+		OAuth2AccessToken token = manager.getAccessToken();
+		for (int i = 0; i < 10; i++) {
+			assertSame(token, manager.getAccessToken());
+		}
+		Mockito.verify(scheduler, Mockito.times(1)).execute(Mockito.any(Runnable.class));
+	}
+
+	@Test
+	public void testFailedBackgroundRefreshRetriedAfterDelay() throws Exception {
+		ScheduledExecutorService scheduler = Mockito.mock(ScheduledExecutorService.class);
+		manager.setScheduler(scheduler);
+		provider.expiresIn = 45;
+		OAuth2AccessToken token = manager.getAccessToken();
+		ArgumentCaptor<Runnable> refresh = ArgumentCaptor.forClass(Runnable.class);
+		Mockito.verify(scheduler).execute(refresh.capture());
+
+		provider.failure = new IllegalStateException("Token endpoint down");
+		refresh.getValue().run();
+		assertSame(token, manager.getAccessToken());
+		// still inside the retry delay
+		Mockito.verify(scheduler, Mockito.times(1)).execute(Mockito.any(Runnable.class));
+
+		manager.setRefreshRetrySeconds(0);
+		refresh.getValue().run();
+		assertSame(token, manager.getAccessToken());
+		Mockito.verify(scheduler, Mockito.times(2)).execute(Mockito.any(Runnable.class));
+	}
+
+	@Test
+	public void testNoSchedulerCreatedAfterDestroy() throws Exception {
+		resource.setId("destroyed");
+		manager.destroy();
+		provider.expiresIn = 45; // would be renewed in the background
+		OAuth2AccessToken token = manager.getAccessToken();
+		assertSame(token, manager.getAccessToken());
+		provider.expiresIn = 3600; // would be scheduled for renewal
+		manager.invalidate(token);
+		manager.getAccessToken();
+		for (Thread thread : Thread.getAllStackTraces().keySet()) {
+			assertFalse(thread.getName().equals("oauth2-token-refresh-destroyed"));
+		}
+	}
+
+	@Test
+	public void testConcurrentCallersShareOneRequest() throws Exception {
+		provider.expiresIn = 3600;
+		provider.latch = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<OAuth2AccessToken>> results = new ArrayList<Future<OAuth2AccessToken>>();
+			for (int i = 0; i < 4; i++) {
+				results.add(executor.submit(new Callable<OAuth2AccessToken>() {
+					public OAuth2AccessToken call() throws Exception {
+						return manager.getAccessToken();
+					}
+				}));
+			}
+			Thread.sleep(100);
+			provider.latch.countDown();
+			for (Future<OAuth2AccessToken> result : results) {
+				assertEquals("token-1", result.get(5, TimeUnit.SECONDS).getValue());
+			}
+			assertEquals(1, provider.count.get());
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void testAsyncCallersShareOneRequest() throws Exception {
+		SettableListenableFuture<OAuth2AccessToken> response = new SettableListenableFuture<OAuth2AccessToken>();
+		AsyncAccessTokenProvider asyncProvider = Mockito.mock(AsyncAccessTokenProvider.class);
+		Mockito.when(
+				asyncProvider.obtainAccessToken(Mockito.any(OAuth2ProtectedResourceDetails.class),
+						Mockito.any(AccessTokenRequest.class))).thenReturn(response);
+		manager = new AccessTokenManager(resource, asyncProvider);
+		ListenableFuture<OAuth2AccessToken> first = manager.getAccessTokenAsync();
+		ListenableFuture<OAuth2AccessToken> second = manager.getAccessTokenAsync();
+		assertFalse(first.isDone());
+		DefaultOAuth2AccessToken token = new DefaultOAuth2AccessToken("FOO");
+		token.setExpiration(new Date(System.currentTimeMillis() + 3600000L));
+		response.set(token);
+		assertSame(token, first.get(5, TimeUnit.SECONDS));
+		assertSame(token, second.get(5, TimeUnit.SECONDS));
+		assertSame(token, manager.getAccessToken());
+		Mockito.verify(asyncProvider, Mockito.times(1)).obtainAccessToken(
+				Mockito.any(OAuth2ProtectedResourceDetails.class), Mockito.any(AccessTokenRequest.class));
+	}
+
+	private static class StubAccessTokenProvider implements AccessTokenProvider {
+
+		private final AtomicInteger count = new AtomicInteger();
+
+		private volatile int expiresIn;
+
+		private volatile CountDownLatch latch;
+
+		private volatile RuntimeException failure;
+
+		public OAuth2AccessToken obtainAccessToken(OAuth2ProtectedResourceDetails details,
+				AccessTokenRequest parameters) throws UserRedirectRequiredException, AccessDeniedException {
+			if (failure != null) {
+				throw failure;
+			}
+			if (latch != null) {
+				try {
+					latch.await(5, TimeUnit.SECONDS);
+				}
+				catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+			DefaultOAuth2AccessToken token = new DefaultOAuth2AccessToken("token-" + count.incrementAndGet());
+			token.setExpiration(new Date(System.currentTimeMillis() + expiresIn * 1000L));
+			return token;
+		}
+
+		public boolean supportsResource(OAuth2ProtectedResourceDetails resource) {
+			return true;
+		}
+
+		public OAuth2AccessToken refreshAccessToken(OAuth2ProtectedResourceDetails resource,
+				OAuth2RefreshToken refreshToken, AccessTokenRequest request) throws UserRedirectRequiredException {
+			return null;
+		}
+
+		public boolean supportsRefresh(OAuth2ProtectedResourceDetails resource) {
+			return false;
+		}
+
+	}
+
+}
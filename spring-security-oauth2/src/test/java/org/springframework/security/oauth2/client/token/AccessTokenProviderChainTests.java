@@ -24,10 +24,13 @@ import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Collections;
 import java.util.Date;
+import java.util.List;
 
 import org.junit.After;
 import org.junit.Test;
 import org.mockito.Mockito;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.authentication.AnonymousAuthenticationToken;
 import org.springframework.security.authentication.InsufficientAuthenticationException;
@@ -37,6 +40,7 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.oauth2.client.resource.BaseOAuth2ProtectedResourceDetails;
 import org.springframework.security.oauth2.client.resource.OAuth2ProtectedResourceDetails;
 import org.springframework.security.oauth2.client.resource.UserRedirectRequiredException;
+import org.springframework.security.oauth2.client.token.grant.client.ClientCredentialsAccessTokenProvider;
 import org.springframework.security.oauth2.client.token.grant.client.ClientCredentialsResourceDetails;
 import org.springframework.security.oauth2.client.token.grant.code.AuthorizationCodeAccessTokenProvider;
 import org.springframework.security.oauth2.client.token.grant.code.AuthorizationCodeResourceDetails;
@@ -47,6 +51,8 @@ import org.springframework.security.oauth2.common.ExpiringOAuth2RefreshToken;
 import org.springframework.security.oauth2.common.OAuth2AccessToken;
 import org.springframework.security.oauth2.common.OAuth2RefreshToken;
 import org.springframework.security.oauth2.common.exceptions.InvalidTokenException;
+import org.springframework.security.oauth2.http.client.RequestMetricsInterceptor;
+import org.springframework.web.client.RestTemplate;
 
 /**
  * @author Dave Syer
@@ -75,6 +81,21 @@ public class AccessTokenProviderChainTests {
 		SecurityContextHolder.clearContext();
 	}
 
+	@Test
+	public void testRequestFactoryAndInterceptorsPropagated() throws Exception {
+		ClientCredentialsAccessTokenProvider provider = new ClientCredentialsAccessTokenProvider();
+		// Already initialized
+		provider.getRestTemplate();
+		AccessTokenProviderChain chain = new AccessTokenProviderChain(Arrays.asList(provider));
+		ClientHttpRequestFactory requestFactory = Mockito.mock(ClientHttpRequestFactory.class);
+		chain.setRequestFactory(requestFactory);
+		assertSame(requestFactory, ((RestTemplate) provider.getRestTemplate()).getRequestFactory());
+		List<ClientHttpRequestInterceptor> interceptors = Collections
+				.<ClientHttpRequestInterceptor> singletonList(new RequestMetricsInterceptor());
+		chain.setInterceptors(interceptors);
+		assertEquals(interceptors, ((RestTemplate) provider.getRestTemplate()).getInterceptors());
+	}
+
 	@Test
 	public void testSunnyDay() throws Exception {
 		AccessTokenProviderChain chain = new AccessTokenProviderChain(Arrays.asList(new StubAccessTokenProvider()));
@@ -0,0 +1,145 @@
+/*
+ * Copyright 2006-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.springframework.security.oauth2.client.token;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.After;
+import org.junit.Test;
+import org.mockito.InOrder;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.oauth2.client.resource.OAuth2ProtectedResourceDetails;
+import org.springframework.security.oauth2.client.token.grant.client.ClientCredentialsResourceDetails;
+import org.springframework.security.oauth2.common.DefaultOAuth2AccessToken;
+import org.springframework.security.oauth2.common.OAuth2AccessToken;
+
+public class CachingClientTokenServicesTests {
+
+	private ClientTokenServices delegate = mock(ClientTokenServices.class);
+
+	private CachingClientTokenServices services = new CachingClientTokenServices(delegate);
+
+	private ClientCredentialsResourceDetails resource = new ClientCredentialsResourceDetails();
+
+	private Authentication authentication = new UsernamePasswordAuthenticationToken("marissa", "koala");
+
+	private OAuth2AccessToken accessToken = new DefaultOAuth2AccessToken("FOO");
+
+	{
+		resource.setClientId("client");
+	}
+
+	@After
+	public void close() throws Exception {
+		services.destroy();
+	}
+
+	@Test
+	public void testHitServedFromMemory() throws Exception {
+		when(delegate.getAccessToken(resource, authentication)).thenReturn(accessToken);
+		assertSame(accessToken, services.getAccessToken(resource, authentication));
+		assertSame(accessToken, services.getAccessToken(resource, authentication));
+		verify(delegate, times(1)).getAccessToken(resource, authentication);
+	}
+
+	@Test
+	public void testRedundantSaveSkipped() throws Exception {
+		services.setFlushIntervalMillis(0);
+		services.saveAccessToken(resource, authentication, accessToken);
+		services.saveAccessToken(resource, authentication, new DefaultOAuth2AccessToken(accessToken));
+		verify(delegate, times(1)).saveAccessToken(resource, authentication, accessToken);
+	}
+
+	@Test
+	public void testSaveWrittenBehind() throws Exception {
+		services.setFlushIntervalMillis(60000);
+		services.saveAccessToken(resource, authentication, new DefaultOAuth2AccessToken("BAR"));
+		services.saveAccessToken(resource, authentication, accessToken);
+		assertSame(accessToken, services.getAccessToken(resource, authentication));
+		verify(delegate, never()).saveAccessToken(any(OAuth2ProtectedResourceDetails.class),
+				any(Authentication.class), any(OAuth2AccessToken.class));
+		services.flush();
+		// Only the latest token for the key is written
+		verify(delegate, times(1)).saveAccessToken(any(OAuth2ProtectedResourceDetails.class),
+				any(Authentication.class), any(OAuth2AccessToken.class));
+		verify(delegate).saveAccessToken(resource, authentication, accessToken);
+	}
+
+	@Test
+	public void testSaveAfterDestroyWrittenStraightAway() throws Exception {
+		services.setFlushIntervalMillis(60000);
+		services.saveAccessToken(resource, authentication, new DefaultOAuth2AccessToken("BAR"));
+		services.destroy();
+		services.saveAccessToken(resource, authentication, accessToken);
+		verify(delegate).saveAccessToken(resource, authentication, accessToken);
+	}
+
+	@Test
+	public void testRemoveDiscardsPendingWrite() throws Exception {
+		services.setFlushIntervalMillis(60000);
+		services.saveAccessToken(resource, authentication, accessToken);
+		services.removeAccessToken(resource, authentication);
+		assertNull(services.getAccessToken(resource, authentication));
+		services.flush();
+		verify(delegate).removeAccessToken(resource, authentication);
+		verify(delegate, never()).saveAccessToken(any(OAuth2ProtectedResourceDetails.class),
+				any(Authentication.class), any(OAuth2AccessToken.class));
+	}
+
+	@Test
+	public void testRemoveDuringFlushDeletesWrittenToken() throws Exception {
+		services.setFlushIntervalMillis(60000);
+		services.saveAccessToken(resource, authentication, accessToken);
+		final Thread remover = new Thread() {
+			@Override
+			public void run() {
+				services.removeAccessToken(resource, authentication);
+			}
+		};
+		final AtomicBoolean removedDuringSave = new AtomicBoolean();
+		doAnswer(new Answer<Void>() {
+			public Void answer(InvocationOnMock invocation) throws Throwable {
+				// The token is on its way to the delegate: a concurrent remove has to wait for it
+				remover.start();
+				remover.join(200);
+				removedDuringSave.set(!remover.isAlive());
+				return null;
+			}
+		}).when(delegate).saveAccessToken(resource, authentication, accessToken);
+
+		services.flush();
+		remover.join();
+
+		assertFalse(removedDuringSave.get());
+		InOrder inOrder = inOrder(delegate);
+		inOrder.verify(delegate).saveAccessToken(resource, authentication, accessToken);
+		inOrder.verify(delegate).removeAccessToken(resource, authentication);
+		assertNull(services.getAccessToken(resource, authentication));
+	}
+
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2006-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.springframework.security.oauth2.client.token;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.AsyncClientHttpRequest;
+import org.springframework.http.client.AsyncClientHttpRequestFactory;
+import org.springframework.mock.http.client.MockAsyncClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+import org.springframework.security.oauth2.client.resource.OAuth2AccessDeniedException;
+import org.springframework.security.oauth2.client.token.grant.client.ClientCredentialsResourceDetails;
+import org.springframework.security.oauth2.client.token.grant.password.ResourceOwnerPasswordResourceDetails;
+import org.springframework.security.oauth2.common.DefaultOAuth2RefreshToken;
+import org.springframework.security.oauth2.common.OAuth2AccessToken;
+
+public class DefaultAsyncAccessTokenProviderTests {
+
+	private DefaultAsyncAccessTokenProvider provider = new DefaultAsyncAccessTokenProvider();
+
+	private MockAsyncClientHttpRequest request = new MockAsyncClientHttpRequest();
+
+	@Before
+	public void init() {
+		provider.setAsyncRequestFactory(new AsyncClientHttpRequestFactory() {
+			public AsyncClientHttpRequest createAsyncRequest(URI uri, HttpMethod httpMethod) throws IOException {
+				request.setURI(uri);
+				request.setMethod(httpMethod);
+				return request;
+			}
+		});
+	}
+
+	@Test
+	public void testClientCredentials() throws Exception {
+		respond(HttpStatus.OK, "{\"access_token\":\"FOO\",\"token_type\":\"bearer\",\"expires_in\":3600}");
+		ClientCredentialsResourceDetails resource = new ClientCredentialsResourceDetails();
+		resource.setAccessTokenUri("https://example.com/oauth/token");
+		resource.setClientId("client");
+		resource.setClientSecret("secret");
+		OAuth2AccessToken token = provider.obtainAccessToken(resource, new DefaultAccessTokenRequest()).get(5,
+				TimeUnit.SECONDS);
+		assertEquals("FOO", token.getValue());
+		assertEquals(HttpMethod.POST, request.getMethod());
+		assertEquals("https://example.com/oauth/token", request.getURI().toString());
+		assertEquals("grant_type=client_credentials", request.getBodyAsString());
+		assertTrue(request.getHeaders().getFirst("Authorization").startsWith("Basic "));
+	}
+
+	@Test
+	public void testPasswordRefresh() throws Exception {
+		respond(HttpStatus.OK, "{\"access_token\":\"BAR\",\"token_type\":\"bearer\"}");
+		ResourceOwnerPasswordResourceDetails resource = new ResourceOwnerPasswordResourceDetails();
+		resource.setAccessTokenUri("https://example.com/oauth/token");
+		resource.setClientId("client");
+		assertTrue(provider.supportsRefresh(resource));
+		OAuth2AccessToken token = provider.refreshAccessToken(resource, new DefaultOAuth2RefreshToken("SPAM"),
+				new DefaultAccessTokenRequest()).get(5, TimeUnit.SECONDS);
+		assertEquals("BAR", token.getValue());
+		assertEquals("grant_type=refresh_token&refresh_token=SPAM", request.getBodyAsString());
+	}
+
+	@Test
+	public void testErrorResponse() throws Exception {
+		respond(HttpStatus.BAD_REQUEST, "{\"error\":\"invalid_client\"}");
+		ClientCredentialsResourceDetails resource = new ClientCredentialsResourceDetails();
+		resource.setAccessTokenUri("https://example.com/oauth/token");
+		resource.setClientId("client");
+		try {
+			provider.obtainAccessToken(resource, new DefaultAccessTokenRequest()).get(5, TimeUnit.SECONDS);
+			fail("Expected ExecutionException");
+		}
+		catch (ExecutionException e) {
+			assertTrue(e.getCause() instanceof OAuth2AccessDeniedException);
+		}
+	}
+
+	private void respond(HttpStatus status, String body) {
+		MockClientHttpResponse response = new MockClientHttpResponse(body.getBytes(), status);
+		response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+		request.setResponse(response);
+	}
+
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2006-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.springframework.security.oauth2.client.token;
+
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.oauth2.client.token.grant.client.ClientCredentialsResourceDetails;
+import org.springframework.security.oauth2.client.token.grant.password.ResourceOwnerPasswordResourceDetails;
+import org.springframework.security.oauth2.common.DefaultOAuth2AccessToken;
+import org.springframework.security.oauth2.common.OAuth2AccessToken;
+
+public class InMemoryClientTokenServicesTests {
+
+	private InMemoryClientTokenServices services = new InMemoryClientTokenServices();
+
+	private OAuth2AccessToken accessToken = new DefaultOAuth2AccessToken("FOO");
+
+	private Authentication marissa = new UsernamePasswordAuthenticationToken("marissa", "koala");
+
+	private Authentication dave = new UsernamePasswordAuthenticationToken("dave", "password");
+
+	@Test
+	public void testSharedBetweenResourceInstances() throws Exception {
+		services.saveAccessToken(clientCredentials("read", "write"), null, accessToken);
+		assertSame(accessToken, services.getAccessToken(clientCredentials("write", "read"), null));
+		assertNull(services.getAccessToken(clientCredentials("read"), null));
+	}
+
+	@Test
+	public void testClientOnlyTokenSharedBetweenUsers() throws Exception {
+		services.saveAccessToken(clientCredentials("read"), marissa, accessToken);
+		assertSame(accessToken, services.getAccessToken(clientCredentials("read"), dave));
+		services.removeAccessToken(clientCredentials("read"), null);
+		assertNull(services.getAccessToken(clientCredentials("read"), marissa));
+	}
+
+	@Test
+	public void testUserTokenNotShared() throws Exception {
+		ResourceOwnerPasswordResourceDetails resource = new ResourceOwnerPasswordResourceDetails();
+		resource.setAccessTokenUri("https://example.com/oauth/token");
+		resource.setClientId("client");
+		services.saveAccessToken(resource, marissa, accessToken);
+		assertSame(accessToken, services.getAccessToken(resource, marissa));
+		assertNull(services.getAccessToken(resource, dave));
+	}
+
+	@Test
+	public void testClearedWhenFull() throws Exception {
+		services.setMaxEntries(1);
+		services.saveAccessToken(clientCredentials("read"), null, accessToken);
+		services.saveAccessToken(clientCredentials("write"), null, accessToken);
+		assertNull(services.getAccessToken(clientCredentials("read"), null));
+		assertSame(accessToken, services.getAccessToken(clientCredentials("write"), null));
+	}
+
+	private ClientCredentialsResourceDetails clientCredentials(String... scope) {
+		ClientCredentialsResourceDetails resource = new ClientCredentialsResourceDetails();
+		resource.setAccessTokenUri("https://example.com/oauth/token");
+		resource.setClientId("client");
+		resource.setScope(Arrays.asList(scope));
+		return resource;
+	}
+
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2006-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.springframework.security.oauth2.http.client;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpResponse;
+
+public class CircuitBreakerInterceptorTests {
+
+	private CircuitBreakerInterceptor interceptor = new CircuitBreakerInterceptor();
+
+	private HttpRequest request = mock(HttpRequest.class);
+
+	private ClientHttpRequestExecution execution = mock(ClientHttpRequestExecution.class);
+
+	private ClientHttpResponse ok = mock(ClientHttpResponse.class);
+
+	private ClientHttpResponse error = mock(ClientHttpResponse.class);
+
+	@Before
+	public void init() throws Exception {
+		interceptor.setFailureThreshold(2);
+		when(ok.getRawStatusCode()).thenReturn(200);
+		when(error.getRawStatusCode()).thenReturn(503);
+	}
+
+	@Test
+	public void testOpensAfterConsecutiveFailures() throws Exception {
+		when(execution.execute(any(HttpRequest.class), any(byte[].class))).thenReturn(error);
+		interceptor.intercept(request, new byte[0], execution);
+		assertFalse(interceptor.isOpen());
+		interceptor.intercept(request, new byte[0], execution);
+		assertTrue(interceptor.isOpen());
+		try {
+			interceptor.intercept(request, new byte[0], execution);
+			fail("Expected IOException");
+		}
+		catch (IOException e) {
+			// expected
+		}
+		verify(execution, times(2)).execute(any(HttpRequest.class), any(byte[].class));
+	}
+
+	@Test
+	public void testSuccessResetsFailures() throws Exception {
+		when(execution.execute(any(HttpRequest.class), any(byte[].class))).thenReturn(error, ok, error);
+		interceptor.intercept(request, new byte[0], execution);
+		interceptor.intercept(request, new byte[0], execution);
+		interceptor.intercept(request, new byte[0], execution);
+		assertFalse(interceptor.isOpen());
+	}
+
+	@Test
+	public void testTrialRequestClosesCircuit() throws Exception {
+		interceptor.setOpenMillis(0);
+		when(execution.execute(any(HttpRequest.class), any(byte[].class))).thenThrow(new IOException("down"))
+				.thenThrow(new IOException("down")).thenReturn(ok);
+		for (int i = 0; i < 2; i++) {
+			try {
+				interceptor.intercept(request, new byte[0], execution);
+				fail("Expected IOException");
+			}
+			catch (IOException e) {
+				assertEquals("down", e.getMessage());
+			}
+		}
+		assertTrue(interceptor.isOpen());
+		assertSame(ok, interceptor.intercept(request, new byte[0], execution));
+		assertFalse(interceptor.isOpen());
+	}
+
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright 2006-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.springframework.security.oauth2.http.client;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.ClientHttpResponse;
+
+public class PooledClientHttpRequestFactoryTests {
+
+	private MockWebServer server = new MockWebServer();
+
+	private PooledClientHttpRequestFactory factory;
+
+	@Before
+	public void init() throws Exception {
+		server.start();
+	}
+
+	@After
+	public void close() throws Exception {
+		if (factory != null) {
+			factory.destroy();
+		}
+		server.shutdown();
+	}
+
+	@Test
+	public void testDefaultTimeouts() throws Exception {
+		RequestConfigFactory configFactory = new RequestConfigFactory();
+		factory = configFactory;
+		RequestConfig config = configFactory.getRequestConfig();
+		assertEquals(5000, config.getConnectTimeout());
+		assertEquals(10000, config.getSocketTimeout());
+		assertEquals(1000, config.getConnectionRequestTimeout());
+	}
+
+	@Test
+	public void testRedirectNotFollowed() throws Exception {
+		factory = new PooledClientHttpRequestFactory();
+		server.enqueue(new MockResponse().setResponseCode(302).setHeader("Location", server.url("/other").toString()));
+		server.enqueue(new MockResponse().setBody("other"));
+		ClientHttpResponse response = factory.createRequest(server.url("/start").uri(), HttpMethod.GET).execute();
+		try {
+			assertEquals(302, response.getRawStatusCode());
+		}
+		finally {
+			response.close();
+		}
+		assertEquals(1, server.getRequestCount());
+	}
+
+	@Test
+	public void testDefaultPoolLimit() throws Exception {
+		factory = new PooledClientHttpRequestFactory();
+		assertEquals(20, factory.getPoolStats().getMax());
+	}
+
+	@Test
+	public void testPoolStatsReflectLimitAndUsage() throws Exception {
+		factory = new PooledClientHttpRequestFactory(1, 1);
+		factory.setConnectionRequestTimeout(100);
+		assertEquals(1, factory.getPoolStats().getMax());
+		server.enqueue(new MockResponse().setBody("first"));
+		server.enqueue(new MockResponse().setBody("second"));
+
+		ClientHttpResponse first = factory.createRequest(server.url("/").uri(), HttpMethod.GET).execute();
+		assertEquals(1, factory.getPoolStats().getLeased());
+		try {
+			factory.createRequest(server.url("/").uri(), HttpMethod.GET).execute();
+			fail("Expected ConnectionPoolTimeoutException");
+		}
+		catch (ConnectionPoolTimeoutException e) {
+			// expected: the only connection is still leased
+		}
+		first.close();
+		assertEquals(0, factory.getPoolStats().getLeased());
+		assertEquals(1, factory.getPoolStats().getAvailable());
+
+		ClientHttpResponse second = factory.createRequest(server.url("/").uri(), HttpMethod.GET).execute();
+		try {
+			assertEquals(200, second.getRawStatusCode());
+		}
+		finally {
+			second.close();
+		}
+		assertEquals(2, server.getRequestCount());
+	}
+
+	private static class RequestConfigFactory extends PooledClientHttpRequestFactory {
+
+		public RequestConfig getRequestConfig() {
+			return createRequestConfig(getHttpClient());
+		}
+
+	}
+
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright 2006-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.springframework.security.oauth2.http.client;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+
+import org.junit.Test;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpResponse;
+
+public class RequestMetricsInterceptorTests {
+
+	private RequestMetricsInterceptor interceptor = new RequestMetricsInterceptor();
+
+	private HttpRequest request = mock(HttpRequest.class);
+
+	private ClientHttpRequestExecution execution = mock(ClientHttpRequestExecution.class);
+
+	@Test
+	public void testCountsRequestsAndFailures() throws Exception {
+		ClientHttpResponse ok = mock(ClientHttpResponse.class);
+		when(ok.getRawStatusCode()).thenReturn(200);
+		ClientHttpResponse error = mock(ClientHttpResponse.class);
+		when(error.getRawStatusCode()).thenReturn(500);
+		when(execution.execute(any(HttpRequest.class), any(byte[].class))).thenReturn(ok, error).thenThrow(
+				new IOException("down"));
+
+		interceptor.intercept(request, new byte[0], execution);
+		interceptor.intercept(request, new byte[0], execution);
+		try {
+			interceptor.intercept(request, new byte[0], execution);
+			fail("Expected IOException");
+		}
+		catch (IOException e) {
+			// expected
+		}
+
+		assertEquals(3, interceptor.getRequestCount());
+		assertEquals(2, interceptor.getFailureCount());
+		assertTrue(interceptor.getMaxLatencyMillis() >= interceptor.getMeanLatencyMillis());
+		interceptor.reset();
+		assertEquals(0, interceptor.getRequestCount());
+	}
+
+}
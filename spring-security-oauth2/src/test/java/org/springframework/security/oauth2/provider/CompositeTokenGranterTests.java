@@ -0,0 +1,127 @@
+/*
+ * Copyright 2006-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.springframework.security.oauth2.provider;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.springframework.security.oauth2.common.DefaultOAuth2AccessToken;
+import org.springframework.security.oauth2.common.OAuth2AccessToken;
+import org.springframework.security.oauth2.provider.client.BaseClientDetails;
+import org.springframework.security.oauth2.provider.token.AbstractTokenGranter;
+import org.springframework.security.oauth2.provider.token.AuthorizationServerTokenServices;
+
+public class CompositeTokenGranterTests {
+
+	private List<String> calls = new ArrayList<String>();
+
+	private TokenRequest tokenRequest = new TokenRequest(Collections.<String, String> emptyMap(), "foo", null, null);
+
+	@Test
+	public void testDispatchToDeclaredGrantType() {
+		CompositeTokenGranter granter = new CompositeTokenGranter(Arrays.<TokenGranter> asList(new AwareGranter("a",
+				"one"), new AwareGranter("b", "two")));
+		assertEquals("b", granter.grant("two", tokenRequest).getValue());
+		assertEquals(Arrays.asList("b"), calls);
+	}
+
+	@Test
+	public void testUnawareGrantersAskedInOrder() {
+		CompositeTokenGranter granter = new CompositeTokenGranter(Arrays.<TokenGranter> asList(new PlainGranter("a",
+				null), new AwareGranter("b", "two"), new PlainGranter("c", "two")));
+		assertEquals("b", granter.grant("two", tokenRequest).getValue());
+		assertEquals(Arrays.asList("a", "b"), calls);
+	}
+
+	@Test
+	public void testUndeclaredGrantTypeAsksAllGranters() {
+		CompositeTokenGranter granter = new CompositeTokenGranter(Arrays.<TokenGranter> asList(new AwareGranter("a",
+				"one"), new PlainGranter("b", "three")));
+		assertEquals("b", granter.grant("three", tokenRequest).getValue());
+		assertNull(granter.grant("four", tokenRequest));
+		assertEquals(Arrays.asList("a", "b", "a", "b"), calls);
+	}
+
+	@Test
+	public void testAbstractTokenGranterSubclassHandlingExtraGrantTypes() {
+		ClientDetailsService clientDetailsService = Mockito.mock(ClientDetailsService.class);
+		Mockito.when(clientDetailsService.loadClientByClientId("foo")).thenReturn(new BaseClientDetails());
+		TokenGranter custom = new AbstractTokenGranter(Mockito.mock(AuthorizationServerTokenServices.class),
+				clientDetailsService, Mockito.mock(OAuth2RequestFactory.class), "custom") {
+			@Override
+			public OAuth2AccessToken grant(String grantType, TokenRequest tokenRequest) {
+				if ("password".equals(grantType) || "extra".equals(grantType)) {
+					calls.add("custom");
+					return new DefaultOAuth2AccessToken("custom");
+				}
+				return super.grant(grantType, tokenRequest);
+			}
+		};
+		CompositeTokenGranter granter = new CompositeTokenGranter(Arrays.<TokenGranter> asList(custom,
+				new AwareGranter("b", "password")));
+		assertEquals("custom", granter.grant("password", tokenRequest).getValue());
+		assertEquals("custom", granter.grant("extra", tokenRequest).getValue());
+		assertEquals(Arrays.asList("custom", "custom"), calls);
+	}
+
+	@Test
+	public void testAddTokenGranter() {
+		CompositeTokenGranter granter = new CompositeTokenGranter(Arrays.<TokenGranter> asList(new AwareGranter("a",
+				"one")));
+		assertNull(granter.grant("two", tokenRequest));
+		granter.addTokenGranter(new AwareGranter("b", "two"));
+		assertEquals("b", granter.grant("two", tokenRequest).getValue());
+	}
+
+	private class PlainGranter implements TokenGranter {
+
+		private final String name;
+
+		private final String grantType;
+
+		public PlainGranter(String name, String grantType) {
+			this.name = name;
+			this.grantType = grantType;
+		}
+
+		public OAuth2AccessToken grant(String grantType, TokenRequest tokenRequest) {
+			calls.add(name);
+			return grantType.equals(this.grantType) ? new DefaultOAuth2AccessToken(name) : null;
+		}
+
+	}
+
+	private class AwareGranter extends PlainGranter implements GrantTypeAwareTokenGranter {
+
+		private final String grantType;
+
+		public AwareGranter(String name, String grantType) {
+			super(name, grantType);
+			this.grantType = grantType;
+		}
+
+		public Set<String> getGrantTypes() {
+			return Collections.singleton(grantType);
+		}
+
+	}
+
+}
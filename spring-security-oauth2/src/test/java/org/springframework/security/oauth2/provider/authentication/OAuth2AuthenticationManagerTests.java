@@ -14,12 +14,19 @@
 package org.springframework.security.oauth2.provider.authentication;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Date;
 
 import org.junit.Test;
 import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.oauth2.common.DefaultOAuth2AccessToken;
 import org.springframework.security.oauth2.provider.OAuth2Authentication;
 import org.springframework.security.oauth2.provider.RequestTokenFactory;
 import org.springframework.security.oauth2.provider.token.ResourceServerTokenServices;
@@ -42,6 +49,7 @@ public class OAuth2AuthenticationManagerTests {
 
 	{
 		manager.setTokenServices(tokenServices);
+		Mockito.when(tokenServices.readAccessToken("FOO")).thenReturn(new DefaultOAuth2AccessToken("FOO"));
 	}
 
 	@Test
@@ -87,4 +95,90 @@ public class OAuth2AuthenticationManagerTests {
 		assertEquals("DETAILS", ((OAuth2AuthenticationDetails) result.getDetails()).getDecodedDetails());
 	}
 
+	@Test
+	public void testCachedAuthenticationReused() throws Exception {
+		authentication.setDetails("DETAILS");
+		Mockito.when(tokenServices.loadAuthentication("FOO")).thenReturn(authentication);
+		manager.setCacheSeconds(60);
+		Authentication first = manager.authenticate(requestWithDetails("BAR"));
+		Authentication second = manager.authenticate(requestWithDetails("SPAM"));
+		Mockito.verify(tokenServices, Mockito.times(1)).loadAuthentication("FOO");
+		assertNotSame(first, second);
+		assertEquals(first.getPrincipal(), second.getPrincipal());
+		assertTrue(second.isAuthenticated());
+		assertEquals("BAR", ((OAuth2AuthenticationDetails) first.getDetails()).getTokenValue());
+		assertEquals("SPAM", ((OAuth2AuthenticationDetails) second.getDetails()).getTokenValue());
+		assertEquals("DETAILS", ((OAuth2AuthenticationDetails) second.getDetails()).getDecodedDetails());
+	}
+
+	@Test
+	public void testCachedAuthenticationEvictedOnRevocation() throws Exception {
+		Mockito.when(tokenServices.loadAuthentication("FOO")).thenReturn(authentication);
+		manager.setCacheSeconds(60);
+		manager.authenticate(new PreAuthenticatedAuthenticationToken("FOO", ""));
+		manager.tokenRevoked("FOO");
+		manager.authenticate(new PreAuthenticatedAuthenticationToken("FOO", ""));
+		Mockito.verify(tokenServices, Mockito.times(2)).loadAuthentication("FOO");
+	}
+
+	@Test
+	public void testCachedAuthenticationExpiresWithToken() throws Exception {
+		DefaultOAuth2AccessToken token = new DefaultOAuth2AccessToken("FOO");
+		token.setExpiration(new Date(System.currentTimeMillis() + 200));
+		Mockito.when(tokenServices.readAccessToken("FOO")).thenReturn(token);
+		Mockito.when(tokenServices.loadAuthentication("FOO")).thenReturn(authentication);
+		manager.setCacheSeconds(60);
+		manager.authenticate(new PreAuthenticatedAuthenticationToken("FOO", ""));
+		manager.authenticate(new PreAuthenticatedAuthenticationToken("FOO", ""));
+		Mockito.verify(tokenServices, Mockito.times(1)).loadAuthentication("FOO");
+		Thread.sleep(300);
+		manager.authenticate(new PreAuthenticatedAuthenticationToken("FOO", ""));
+		Mockito.verify(tokenServices, Mockito.times(2)).loadAuthentication("FOO");
+	}
+
+	@Test
+	public void testAuthenticationNotCachedWhenTokenNoLongerStored() throws Exception {
+		Mockito.when(tokenServices.readAccessToken("FOO")).thenReturn(null);
+		Mockito.when(tokenServices.loadAuthentication("FOO")).thenReturn(authentication);
+		manager.setCacheSeconds(60);
+		manager.authenticate(new PreAuthenticatedAuthenticationToken("FOO", ""));
+		manager.authenticate(new PreAuthenticatedAuthenticationToken("FOO", ""));
+		Mockito.verify(tokenServices, Mockito.times(2)).loadAuthentication("FOO");
+	}
+
+	@Test
+	public void testAuthenticationLoadedBeforeRevocationNotCached() throws Exception {
+		Mockito.when(tokenServices.loadAuthentication("FOO")).thenAnswer(new Answer<OAuth2Authentication>() {
+			public OAuth2Authentication answer(InvocationOnMock invocation) throws Throwable {
+				// the token is revoked after it was loaded but before it is cached
+				manager.tokenRevoked("FOO");
+				return authentication;
+			}
+		});
+		manager.setCacheSeconds(60);
+		manager.authenticate(new PreAuthenticatedAuthenticationToken("FOO", ""));
+		manager.authenticate(new PreAuthenticatedAuthenticationToken("FOO", ""));
+		Mockito.verify(tokenServices, Mockito.times(2)).loadAuthentication("FOO");
+	}
+
+	@Test
+	public void testCachedAuthenticationEvictedOnClientChange() throws Exception {
+		Mockito.when(tokenServices.loadAuthentication("FOO")).thenReturn(authentication);
+		manager.setCacheSeconds(60);
+		manager.authenticate(new PreAuthenticatedAuthenticationToken("FOO", ""));
+		manager.clientDetailsChanged("bar");
+		manager.authenticate(new PreAuthenticatedAuthenticationToken("FOO", ""));
+		manager.clientDetailsChanged("foo");
+		manager.authenticate(new PreAuthenticatedAuthenticationToken("FOO", ""));
+		Mockito.verify(tokenServices, Mockito.times(2)).loadAuthentication("FOO");
+	}
+
+	private PreAuthenticatedAuthenticationToken requestWithDetails(String tokenValue) {
+		PreAuthenticatedAuthenticationToken request = new PreAuthenticatedAuthenticationToken("FOO", "");
+		MockHttpServletRequest servletRequest = new MockHttpServletRequest();
+		servletRequest.setAttribute(OAuth2AuthenticationDetails.ACCESS_TOKEN_VALUE, tokenValue);
+		request.setDetails(new OAuth2AuthenticationDetails(servletRequest));
+		return request;
+	}
+
 }
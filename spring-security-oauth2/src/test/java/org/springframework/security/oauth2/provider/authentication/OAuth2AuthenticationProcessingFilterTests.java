@@ -150,4 +150,61 @@ public class OAuth2AuthenticationProcessingFilterTests {
 		Mockito.verify(eventPublisher, Mockito.never()).publishAuthenticationSuccess(Mockito.any(Authentication.class));
 	}
 
+	@Test
+	public void testSuccessEventsSuppressed() throws Exception {
+		request.addHeader("Authorization", "Bearer FOO");
+		AuthenticationEventPublisher eventPublisher = Mockito.mock(AuthenticationEventPublisher.class);
+		filter.setAuthenticationEventPublisher(eventPublisher);
+		filter.setPublishSuccessEvents(false);
+		filter.doFilter(request, null, chain);
+		Mockito.verify(eventPublisher, Mockito.never()).publishAuthenticationSuccess(Mockito.any(Authentication.class));
+		assertEquals(authentication, SecurityContextHolder.getContext().getAuthentication());
+	}
+
+	@Test
+	public void testMalformedTokenRejectedWithoutAuthentication() throws Exception {
+		AuthenticationManager authenticationManager = Mockito.mock(AuthenticationManager.class);
+		filter.setAuthenticationManager(authenticationManager);
+		filter.setValidateTokenFormat(true);
+		for (String token : new String[] { "a b", "<script>", "a.b", ".b.c", "a=b", "a.b.c.d" }) {
+			request = new MockHttpServletRequest();
+			request.addParameter("access_token", token);
+			response = new MockHttpServletResponse();
+			filter.doFilter(request, response, chain);
+			assertEquals(token, 401, response.getStatus());
+		}
+		Mockito.verifyZeroInteractions(authenticationManager, chain);
+	}
+
+	@Test
+	public void testWellFormedTokensAccepted() throws Exception {
+		filter.setValidateTokenFormat(true);
+		for (String token : new String[] { "FOO", "3f1c9a4e-2b7d-4c55-9a61-0e8b2d7f4c10", "eyJhbGciOiJub25lIn0.e30.",
+				"a.b.c.d.e", "dGVzdA==" }) {
+			request = new MockHttpServletRequest();
+			request.addParameter("access_token", token);
+			filter.doFilter(request, response, chain);
+			assertEquals(token, authentication, SecurityContextHolder.getContext().getAuthentication());
+			SecurityContextHolder.clearContext();
+		}
+	}
+
+	@Test
+	public void testTooLongTokenRejected() throws Exception {
+		filter.setValidateTokenFormat(true);
+		filter.setMaxTokenLength(3);
+		request.addHeader("Authorization", "Bearer FOOO");
+		filter.doFilter(request, response, chain);
+		assertEquals(401, response.getStatus());
+		assertNull(SecurityContextHolder.getContext().getAuthentication());
+	}
+
+	@Test
+	public void testBearerHeaderParsing() throws Exception {
+		request.addHeader("Authorization", "bearer  FOO , realm=\"x\"");
+		filter.doFilter(request, null, chain);
+		assertEquals("FOO ", request.getAttribute(OAuth2AuthenticationDetails.ACCESS_TOKEN_VALUE));
+		assertEquals("bearer", request.getAttribute(OAuth2AuthenticationDetails.ACCESS_TOKEN_TYPE));
+	}
+
 }
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.springframework.security.oauth2.provider.client;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.util.Collections;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.security.oauth2.provider.ClientDetails;
+import org.springframework.security.oauth2.provider.ClientDetailsChangeListener;
+import org.springframework.security.oauth2.provider.NoSuchClientException;
+
+public class CachingClientDetailsServiceTests {
+
+	private EmbeddedDatabase db;
+
+	private JdbcTemplate jdbcTemplate;
+
+	private JdbcClientDetailsService delegate;
+
+	private CachingClientDetailsService service;
+
+	@Before
+	public void setUp() throws Exception {
+		db = new EmbeddedDatabaseBuilder().addDefaultScripts().build();
+		jdbcTemplate = new JdbcTemplate(db);
+		delegate = new JdbcClientDetailsService(db);
+		service = new CachingClientDetailsService(delegate);
+		BaseClientDetails client = new BaseClientDetails("foo", null, "read", "client_credentials", "ROLE_CLIENT");
+		delegate.addClientDetails(client);
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		db.shutdown();
+	}
+
+	@Test
+	public void testClientCached() {
+		ClientDetails client = service.loadClientByClientId("foo");
+		jdbcTemplate.update("delete from oauth_client_details where client_id=?", "foo");
+		assertSame(client, service.loadClientByClientId("foo"));
+	}
+
+	@Test(expected = NoSuchClientException.class)
+	public void testClientNotCachedWhenDisabled() {
+		service.setCacheSeconds(0);
+		service.loadClientByClientId("foo");
+		jdbcTemplate.update("delete from oauth_client_details where client_id=?", "foo");
+		service.loadClientByClientId("foo");
+	}
+
+	@Test
+	public void testPreload() throws Exception {
+		service.setPreload(true);
+		service.afterPropertiesSet();
+		jdbcTemplate.update("delete from oauth_client_details where client_id=?", "foo");
+		assertEquals("foo", service.loadClientByClientId("foo").getClientId());
+	}
+
+	@Test
+	public void testRefreshReplacesEntriesInPlace() throws Exception {
+		delegate.addClientDetails(new BaseClientDetails("bar", null, "read", "client_credentials", "ROLE_CLIENT"));
+		service.loadClientByClientId("bar");
+		ClientDetails client = service.loadClientByClientId("foo");
+		jdbcTemplate.update("delete from oauth_client_details where client_id=?", "bar");
+		jdbcTemplate.update("update oauth_client_details set scope=? where client_id=?", "write", "foo");
+		service.refresh();
+		assertNotSame(client, service.loadClientByClientId("foo"));
+		assertEquals("[write]", service.loadClientByClientId("foo").getScope().toString());
+		try {
+			service.loadClientByClientId("bar");
+			fail("Expected NoSuchClientException");
+		}
+		catch (NoSuchClientException e) {
+			// expected: no longer listed, so no longer cached
+		}
+	}
+
+	@Test(expected = NoSuchClientException.class)
+	public void testRemoveEvicts() {
+		service.loadClientByClientId("foo");
+		service.removeClientDetails("foo");
+		service.loadClientByClientId("foo");
+	}
+
+	@Test(expected = NoSuchClientException.class)
+	public void testChangeNotificationEvicts() {
+		delegate.setChangeListeners(Collections.<ClientDetailsChangeListener> singletonList(service));
+		service.loadClientByClientId("foo");
+		delegate.removeClientDetails("foo");
+		service.loadClientByClientId("foo");
+	}
+
+	@Test
+	public void testUpdateSecretEvictsAndNotifies() {
+		final StringBuilder changed = new StringBuilder();
+		service.setChangeListeners(Collections.<ClientDetailsChangeListener> singletonList(new ClientDetailsChangeListener() {
+			public void clientDetailsChanged(String clientId) {
+				changed.append(clientId);
+			}
+		}));
+		service.loadClientByClientId("foo");
+		service.updateClientSecret("foo", "bar");
+		assertEquals("bar", service.loadClientByClientId("foo").getClientSecret());
+		assertEquals("foo", changed.toString());
+	}
+
+}
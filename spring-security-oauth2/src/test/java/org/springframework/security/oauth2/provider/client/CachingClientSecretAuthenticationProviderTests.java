@@ -0,0 +1,105 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.springframework.security.oauth2.provider.client;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.oauth2.provider.ClientDetails;
+
+public class CachingClientSecretAuthenticationProviderTests {
+
+	private CachingClientSecretAuthenticationProvider provider = new CachingClientSecretAuthenticationProvider();
+
+	private InMemoryClientDetailsService clientDetailsService = new InMemoryClientDetailsService();
+
+	private final AtomicInteger matches = new AtomicInteger();
+
+	@Before
+	public void init() {
+		BaseClientDetails client = new BaseClientDetails("foo", null, null, "client_credentials", "ROLE_CLIENT");
+		client.setClientSecret("{enc}secret");
+		clientDetailsService.setClientDetailsStore(Collections.singletonMap("foo", (ClientDetails) client));
+		provider.setUserDetailsService(new ClientDetailsUserDetailsService(clientDetailsService));
+		provider.setPasswordEncoder(new PasswordEncoder() {
+			public String encode(CharSequence rawPassword) {
+				return "{enc}" + rawPassword;
+			}
+
+			public boolean matches(CharSequence rawPassword, String encodedPassword) {
+				matches.incrementAndGet();
+				return encode(rawPassword).equals(encodedPassword);
+			}
+		});
+	}
+
+	@Test
+	public void testVerifiedSecretCached() {
+		assertTrue(provider.authenticate(new UsernamePasswordAuthenticationToken("foo", "secret")).isAuthenticated());
+		assertTrue(provider.authenticate(new UsernamePasswordAuthenticationToken("foo", "secret")).isAuthenticated());
+		assertEquals(1, matches.get());
+	}
+
+	@Test
+	public void testWrongSecretNotAccepted() {
+		provider.authenticate(new UsernamePasswordAuthenticationToken("foo", "secret"));
+		try {
+			provider.authenticate(new UsernamePasswordAuthenticationToken("foo", "wrong"));
+			fail("Expected BadCredentialsException");
+		}
+		catch (BadCredentialsException e) {
+			// expected
+		}
+		assertEquals(2, matches.get());
+	}
+
+	@Test
+	public void testChangedSecretVerifiedAgain() {
+		provider.authenticate(new UsernamePasswordAuthenticationToken("foo", "secret"));
+		((BaseClientDetails) clientDetailsService.loadClientByClientId("foo")).setClientSecret("{enc}other");
+		try {
+			provider.authenticate(new UsernamePasswordAuthenticationToken("foo", "secret"));
+			fail("Expected BadCredentialsException");
+		}
+		catch (BadCredentialsException e) {
+			// expected
+		}
+		assertEquals(2, matches.get());
+	}
+
+	@Test
+	public void testClientChangeEvicts() {
+		provider.authenticate(new UsernamePasswordAuthenticationToken("foo", "secret"));
+		provider.clientDetailsChanged("foo");
+		provider.authenticate(new UsernamePasswordAuthenticationToken("foo", "secret"));
+		assertEquals(2, matches.get());
+	}
+
+	@Test
+	public void testCacheDisabled() {
+		provider.setCacheSeconds(0);
+		provider.authenticate(new UsernamePasswordAuthenticationToken("foo", "secret"));
+		provider.authenticate(new UsernamePasswordAuthenticationToken("foo", "secret"));
+		assertEquals(2, matches.get());
+	}
+
+}
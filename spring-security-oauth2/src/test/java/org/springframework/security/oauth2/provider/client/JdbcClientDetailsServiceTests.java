@@ -5,10 +5,12 @@ import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 
 import org.junit.After;
@@ -21,6 +23,7 @@ import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.oauth2.provider.ClientAlreadyExistsException;
 import org.springframework.security.oauth2.provider.ClientDetails;
+import org.springframework.security.oauth2.provider.ClientDetailsChangeListener;
 import org.springframework.security.oauth2.provider.NoSuchClientException;
 import org.springframework.security.oauth2.provider.client.BaseClientDetails;
 import org.springframework.security.oauth2.provider.client.JdbcClientDetailsService;
@@ -329,4 +332,25 @@ public class JdbcClientDetailsServiceTests {
 		assertEquals(1, count);
 	}
 
+	@Test
+	public void testChangeListenersNotified() {
+		final List<String> changed = new ArrayList<String>();
+		service.setChangeListeners(Collections.<ClientDetailsChangeListener> singletonList(new ClientDetailsChangeListener() {
+			public void clientDetailsChanged(String clientId) {
+				changed.add(clientId);
+			}
+		}));
+
+		BaseClientDetails clientDetails = new BaseClientDetails();
+		clientDetails.setClientId("aclient");
+
+		service.addClientDetails(clientDetails);
+		assertEquals(0, changed.size());
+		service.updateClientDetails(clientDetails);
+		service.updateClientSecret("aclient", "secret");
+		service.removeClientDetails("aclient");
+
+		assertEquals(Arrays.asList("aclient", "aclient", "aclient"), changed);
+	}
+
 }
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.springframework.security.oauth2.provider.client;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.oauth2.provider.ClientDetails;
+import org.springframework.security.oauth2.provider.ClientDetailsService;
+import org.springframework.security.oauth2.provider.ClientRegistrationException;
+import org.springframework.security.oauth2.provider.CompositeTokenGranter;
+import org.springframework.security.oauth2.provider.TokenGranter;
+import org.springframework.security.oauth2.provider.endpoint.TokenEndpoint;
+import org.springframework.security.oauth2.provider.password.ResourceOwnerPasswordTokenGranter;
+import org.springframework.security.oauth2.provider.request.DefaultOAuth2RequestFactory;
+import org.springframework.security.oauth2.provider.token.DefaultTokenServices;
+import org.springframework.security.oauth2.provider.token.store.InMemoryTokenStore;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+public class RequestScopedClientDetailsServiceTests {
+
+	private final AtomicInteger lookups = new AtomicInteger();
+
+	private RequestScopedClientDetailsService clientDetailsService;
+
+	private TokenEndpoint endpoint = new TokenEndpoint();
+
+	@Before
+	public void init() throws Exception {
+		final BaseClientDetails client = new BaseClientDetails("foo", null, "read", "client_credentials,password,refresh_token",
+				"ROLE_CLIENT");
+		clientDetailsService = new RequestScopedClientDetailsService(new ClientDetailsService() {
+			public ClientDetails loadClientByClientId(String clientId) throws ClientRegistrationException {
+				lookups.incrementAndGet();
+				return client;
+			}
+		});
+		DefaultTokenServices tokenServices = new DefaultTokenServices();
+		tokenServices.setTokenStore(new InMemoryTokenStore());
+		tokenServices.setClientDetailsService(clientDetailsService);
+		DefaultOAuth2RequestFactory requestFactory = new DefaultOAuth2RequestFactory(clientDetailsService);
+		AuthenticationManager authenticationManager = new AuthenticationManager() {
+			public Authentication authenticate(Authentication authentication) throws AuthenticationException {
+				return new UsernamePasswordAuthenticationToken(authentication.getPrincipal(), null,
+						AuthorityUtils.commaSeparatedStringToAuthorityList("ROLE_USER"));
+			}
+		};
+		endpoint.setTokenGranter(new CompositeTokenGranter(Arrays.<TokenGranter> asList(
+				new ClientCredentialsTokenGranter(tokenServices, clientDetailsService, requestFactory),
+				new ResourceOwnerPasswordTokenGranter(authenticationManager, tokenServices, clientDetailsService,
+						requestFactory))));
+		endpoint.setOAuth2RequestFactory(requestFactory);
+		endpoint.setClientDetailsService(clientDetailsService);
+		RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+	}
+
+	@After
+	public void close() {
+		RequestContextHolder.resetRequestAttributes();
+	}
+
+	@Test
+	public void testClientCredentialsGrantLoadsClientOnce() throws Exception {
+		assertNotNull(postAccessToken("client_credentials"));
+		assertEquals(1, lookups.get());
+	}
+
+	@Test
+	public void testPasswordGrantLoadsClientOnce() throws Exception {
+		assertNotNull(postAccessToken("password"));
+		assertEquals(1, lookups.get());
+	}
+
+	@Test
+	public void testEachRequestLoadsClient() throws Exception {
+		postAccessToken("client_credentials");
+		RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+		postAccessToken("client_credentials");
+		assertEquals(2, lookups.get());
+	}
+
+	@Test
+	public void testNoRequestLoadsEveryTime() throws Exception {
+		RequestContextHolder.resetRequestAttributes();
+		clientDetailsService.loadClientByClientId("foo");
+		clientDetailsService.loadClientByClientId("foo");
+		assertEquals(2, lookups.get());
+	}
+
+	private Object postAccessToken(String grantType) throws Exception {
+		// client authentication, as done by the filter in front of the endpoint
+		new ClientDetailsUserDetailsService(clientDetailsService).loadUserByUsername("foo");
+		Map<String, String> parameters = new HashMap<String, String>();
+		parameters.put("grant_type", grantType);
+		parameters.put("client_id", "foo");
+		parameters.put("username", "marissa");
+		parameters.put("password", "koala");
+		return endpoint.postAccessToken(new UsernamePasswordAuthenticationToken("foo", null,
+				AuthorityUtils.commaSeparatedStringToAuthorityList("ROLE_CLIENT")), parameters).getBody();
+	}
+
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.security.oauth2.provider.endpoint;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.security.Principal;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.mockito.stubbing.Answer;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.oauth2.common.DefaultOAuth2AccessToken;
+import org.springframework.security.oauth2.common.OAuth2AccessToken;
+import org.springframework.security.oauth2.common.exceptions.InvalidGrantException;
+import org.springframework.security.oauth2.common.exceptions.InvalidRequestException;
+import org.springframework.security.oauth2.common.exceptions.OAuth2Exception;
+import org.springframework.security.oauth2.common.util.OAuth2Utils;
+import org.springframework.security.oauth2.provider.ClientDetails;
+import org.springframework.security.oauth2.provider.ClientDetailsService;
+import org.springframework.security.oauth2.provider.OAuth2RequestFactory;
+import org.springframework.security.oauth2.provider.TokenGranter;
+import org.springframework.security.oauth2.provider.TokenRequest;
+import org.springframework.security.oauth2.provider.client.BaseClientDetails;
+
+@RunWith(MockitoJUnitRunner.class)
+public class BatchTokenEndpointTests {
+
+	@Mock
+	private TokenGranter tokenGranter;
+
+	@Mock
+	private OAuth2RequestFactory authorizationRequestFactory;
+
+	@Mock
+	private ClientDetailsService clientDetailsService;
+
+	private BatchTokenEndpoint endpoint;
+
+	private Principal clientAuthentication = new UsernamePasswordAuthenticationToken("client", null,
+			Collections.singleton(new SimpleGrantedAuthority("ROLE_CLIENT")));
+
+	@SuppressWarnings("unchecked")
+	@Before
+	public void init() {
+		TokenEndpoint tokenEndpoint = new TokenEndpoint();
+		tokenEndpoint.setTokenGranter(tokenGranter);
+		tokenEndpoint.setOAuth2RequestFactory(authorizationRequestFactory);
+		tokenEndpoint.setClientDetailsService(clientDetailsService);
+		endpoint = new BatchTokenEndpoint(tokenEndpoint);
+		BaseClientDetails clientDetails = new BaseClientDetails();
+		clientDetails.setClientId("client");
+		when(clientDetailsService.loadClientByClientId("client")).thenReturn(clientDetails);
+		when(authorizationRequestFactory.createTokenRequest(any(Map.class), any(ClientDetails.class))).thenAnswer(
+				new Answer<TokenRequest>() {
+					public TokenRequest answer(InvocationOnMock invocation) throws Throwable {
+						Map<String, String> parameters = (Map<String, String>) invocation.getArguments()[0];
+						return new TokenRequest(parameters, "client", OAuth2Utils.parseParameterList(parameters
+								.get(OAuth2Utils.SCOPE)), parameters.get(OAuth2Utils.GRANT_TYPE));
+					}
+				});
+		when(tokenGranter.grant(anyString(), any(TokenRequest.class))).thenAnswer(new Answer<OAuth2AccessToken>() {
+			public OAuth2AccessToken answer(InvocationOnMock invocation) throws Throwable {
+				TokenRequest request = (TokenRequest) invocation.getArguments()[1];
+				DefaultOAuth2AccessToken token = new DefaultOAuth2AccessToken("FOO-" + request.getScope().iterator().next());
+				token.setScope(request.getScope());
+				return token;
+			}
+		});
+	}
+
+	@Test
+	public void testBatchOfTokens() throws Exception {
+		ResponseEntity<List<Object>> response = endpoint.postAccessTokens(clientAuthentication,
+				Arrays.asList(createRequest("read"), createRequest("write")));
+		assertEquals(HttpStatus.OK, response.getStatusCode());
+		assertEquals("no-store", response.getHeaders().getFirst("Cache-Control"));
+		assertEquals(2, response.getBody().size());
+		assertEquals("FOO-read", ((OAuth2AccessToken) response.getBody().get(0)).getValue());
+		assertEquals("FOO-write", ((OAuth2AccessToken) response.getBody().get(1)).getValue());
+		verify(clientDetailsService, times(1)).loadClientByClientId("client");
+	}
+
+	@Test(expected = InvalidRequestException.class)
+	public void testBatchTooLarge() throws Exception {
+		endpoint.setMaxBatchSize(1);
+		endpoint.postAccessTokens(clientAuthentication, Arrays.asList(createRequest("read"), createRequest("write")));
+	}
+
+	@Test(expected = InvalidRequestException.class)
+	public void testEmptyBatch() throws Exception {
+		endpoint.postAccessTokens(clientAuthentication, Collections.<Map<String, String>> emptyList());
+	}
+
+	@Test
+	public void testMissingGrantTypeOnlyFailsThatRequest() throws Exception {
+		Map<String, String> invalid = createRequest("write");
+		invalid.remove(OAuth2Utils.GRANT_TYPE);
+		ResponseEntity<List<Object>> response = endpoint.postAccessTokens(clientAuthentication,
+				Arrays.asList(createRequest("read"), invalid, createRequest("trust")));
+		assertEquals(HttpStatus.OK, response.getStatusCode());
+		assertEquals(3, response.getBody().size());
+		assertEquals("FOO-read", ((OAuth2AccessToken) response.getBody().get(0)).getValue());
+		assertTrue(response.getBody().get(1) instanceof InvalidRequestException);
+		assertEquals("FOO-trust", ((OAuth2AccessToken) response.getBody().get(2)).getValue());
+	}
+
+	@Test
+	public void testGranterFailureKeepsTokensAlreadyGranted() throws Exception {
+		doReturn(new DefaultOAuth2AccessToken("FOO")).doThrow(new InvalidGrantException("Bad credentials"))
+				.doReturn(null).when(tokenGranter).grant(anyString(), any(TokenRequest.class));
+		ResponseEntity<List<Object>> response = endpoint.postAccessTokens(clientAuthentication,
+				Arrays.asList(createRequest("read"), createRequest("write"), createRequest("trust")));
+		assertEquals(3, response.getBody().size());
+		assertEquals("FOO", ((OAuth2AccessToken) response.getBody().get(0)).getValue());
+		assertEquals("invalid_grant", ((OAuth2Exception) response.getBody().get(1)).getOAuth2ErrorCode());
+		assertEquals("unsupported_grant_type", ((OAuth2Exception) response.getBody().get(2)).getOAuth2ErrorCode());
+	}
+
+	private Map<String, String> createRequest(String scope) {
+		Map<String, String> parameters = new HashMap<String, String>();
+		parameters.put(OAuth2Utils.GRANT_TYPE, "client_credentials");
+		parameters.put(OAuth2Utils.CLIENT_ID, "client");
+		parameters.put(OAuth2Utils.SCOPE, scope);
+		return parameters;
+	}
+
+}
@@ -17,18 +17,26 @@ package org.springframework.security.oauth2.provider.endpoint;
 
 import org.junit.Before;
 import org.junit.Test;
+import org.springframework.security.oauth2.common.DefaultOAuth2AccessToken;
 import org.springframework.security.oauth2.common.OAuth2AccessToken;
+import org.springframework.security.oauth2.common.exceptions.InvalidRequestException;
 import org.springframework.security.oauth2.provider.OAuth2Authentication;
 import org.springframework.security.oauth2.provider.token.AccessTokenConverter;
+import org.springframework.security.oauth2.provider.token.BulkResourceServerTokenServices;
 import org.springframework.security.oauth2.provider.token.ResourceServerTokenServices;
 
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.mockito.Matchers.anyCollectionOf;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 /**
@@ -37,9 +45,11 @@ import static org.mockito.Mockito.when;
 public class CheckTokenEndpointTest {
 	private CheckTokenEndpoint checkTokenEndpoint;
 
+	private ResourceServerTokenServices resourceServerTokenServices;
+
 	@Before
 	public void setUp() {
-		ResourceServerTokenServices resourceServerTokenServices = mock(ResourceServerTokenServices.class);
+		resourceServerTokenServices = mock(ResourceServerTokenServices.class);
 		OAuth2AccessToken accessToken = mock(OAuth2AccessToken.class);
 		OAuth2Authentication authentication = mock(OAuth2Authentication.class);
 		when(resourceServerTokenServices.readAccessToken(anyString())).thenReturn(accessToken);
@@ -53,6 +63,43 @@ public class CheckTokenEndpointTest {
 		this.checkTokenEndpoint.setAccessTokenConverter(accessTokenConverter);
 	}
 
+	@Test
+	public void checkTokensWhenSomeTokensUnknownThenReturnInactive() throws Exception {
+		when(resourceServerTokenServices.readAccessToken("unknown")).thenReturn(null);
+		Map<String, ?> response = this.checkTokenEndpoint.checkTokens(Arrays.asList("access-token-1234", "unknown"));
+		assertEquals(2, response.size());
+		assertEquals(Boolean.TRUE, ((Map<?, ?>) response.get("access-token-1234")).get("active"));
+		assertEquals(Boolean.FALSE, ((Map<?, ?>) response.get("unknown")).get("active"));
+	}
+
+	@Test
+	public void checkTokensWhenBulkTokenServicesThenReadTogether() throws Exception {
+		BulkResourceServerTokenServices tokenServices = mock(BulkResourceServerTokenServices.class);
+		OAuth2AccessToken accessToken = new DefaultOAuth2AccessToken("access-token-1234");
+		OAuth2Authentication authentication = mock(OAuth2Authentication.class);
+		when(tokenServices.readAccessTokens(anyCollectionOf(String.class))).thenReturn(
+				Collections.singletonMap("access-token-1234", accessToken));
+		when(tokenServices.loadAuthentications(anyCollectionOf(OAuth2AccessToken.class))).thenReturn(
+				Collections.singletonMap("access-token-1234", authentication));
+		CheckTokenEndpoint endpoint = new CheckTokenEndpoint(tokenServices);
+		AccessTokenConverter accessTokenConverter = mock(AccessTokenConverter.class);
+		when(accessTokenConverter.convertAccessToken(accessToken, authentication)).thenReturn(new HashMap());
+		endpoint.setAccessTokenConverter(accessTokenConverter);
+
+		Map<String, ?> response = endpoint.checkTokens(Arrays.asList("access-token-1234", "unknown", "unknown"));
+		assertEquals(2, response.size());
+		assertEquals(Boolean.TRUE, ((Map<?, ?>) response.get("access-token-1234")).get("active"));
+		assertEquals(Boolean.FALSE, ((Map<?, ?>) response.get("unknown")).get("active"));
+		verify(tokenServices).readAccessTokens(anyCollectionOf(String.class));
+		verify(tokenServices, never()).readAccessToken(anyString());
+	}
+
+	@Test(expected = InvalidRequestException.class)
+	public void checkTokensWhenTooManyTokensThenThrowInvalidRequestException() throws Exception {
+		this.checkTokenEndpoint.setMaxBatchSize(1);
+		this.checkTokenEndpoint.checkTokens(Arrays.asList("token1", "token2"));
+	}
+
 	// gh-1070
 	@Test
 	public void checkTokenWhenTokenValidThenReturnActiveAttribute() throws Exception {
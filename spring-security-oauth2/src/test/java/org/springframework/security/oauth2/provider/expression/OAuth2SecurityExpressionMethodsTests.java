@@ -19,7 +19,9 @@ package org.springframework.security.oauth2.provider.expression;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashSet;
 
 import org.junit.Test;
 import org.springframework.security.access.AccessDeniedException;
@@ -143,4 +145,18 @@ public class OAuth2SecurityExpressionMethodsTests {
 		assertFalse(new OAuth2SecurityExpressionMethods(new OAuth2Authentication(clientAuthentication, null)).isUser());
 	}
 
+	@Test
+	public void testScopesMatching() throws Exception {
+		OAuth2Request clientAuthentication = RequestTokenFactory.createOAuth2Request("foo", false,
+				new HashSet<String>(Arrays.asList("read", "billing_admin:manage_scopes")));
+
+		Authentication userAuthentication = null;
+		OAuth2Authentication oAuth2Authentication = new OAuth2Authentication(clientAuthentication, userAuthentication);
+		OAuth2SecurityExpressionMethods root = new OAuth2SecurityExpressionMethods(oAuth2Authentication);
+		assertTrue(root.hasScopeMatching("read"));
+		assertTrue(root.hasScopeMatching(".*_admin:manage_scopes"));
+		assertTrue(root.hasAnyScopeMatching("write", "re.d"));
+		assertFalse(root.hasScopeMatching("rea"));
+		assertFalse(root.hasAnyScopeMatching("write", ".*_admin:read_scopes"));
+	}
 }
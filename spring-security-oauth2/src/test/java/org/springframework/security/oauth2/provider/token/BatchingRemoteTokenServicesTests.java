@@ -0,0 +1,204 @@
+/*
+ * Copyright 2006-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.springframework.security.oauth2.provider.token;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.oauth2.common.exceptions.InvalidTokenException;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.web.client.RestTemplate;
+
+public class BatchingRemoteTokenServicesTests {
+
+	private BatchingRemoteTokenServices services = new BatchingRemoteTokenServices();
+
+	private RestTemplate restTemplate = mock(RestTemplate.class);
+
+	private ArgumentCaptor<HttpEntity> requestCaptor = ArgumentCaptor.forClass(HttpEntity.class);
+
+	private ExecutorService executor = Executors.newFixedThreadPool(4);
+
+	private CountDownLatch blocked = new CountDownLatch(1);
+
+	private CountDownLatch release = new CountDownLatch(1);
+
+	private AtomicReference<Map<String, Object>> batchForm = new AtomicReference<Map<String, Object>>();
+
+	@Before
+	public void init() {
+		services.setClientId("client");
+		services.setClientSecret("secret");
+		services.setCheckTokenEndpointUrl("/oauth/check_token");
+		services.setRestTemplate(restTemplate);
+	}
+
+	@After
+	public void close() {
+		release.countDown();
+		executor.shutdownNow();
+	}
+
+	@Test
+	public void testConcurrentChecksSentInOneRequest() throws Exception {
+		Map<String, Object> response = new HashMap<String, Object>();
+		response.put("a", Collections.singletonMap("active", true));
+		response.put("b", Collections.singletonMap("active", true));
+		response.put("c", Collections.singletonMap("active", false));
+		respondToBatchWith(response);
+		services.setMaxBatchSize(3);
+		services.setBatchWindowMillis(10000);
+
+		Future<OAuth2Authentication> blocking = startBlockingCheck();
+		List<Future<OAuth2Authentication>> results = new ArrayList<Future<OAuth2Authentication>>();
+		for (String token : new String[] { "a", "b", "c" }) {
+			results.add(executor.submit(check(token)));
+		}
+
+		assertNotNull(results.get(0).get());
+		assertNotNull(results.get(1).get());
+		try {
+			results.get(2).get();
+			fail("Expected InvalidTokenException");
+		}
+		catch (ExecutionException e) {
+			assertTrue(e.getCause() instanceof InvalidTokenException);
+		}
+		release.countDown();
+		assertNotNull(blocking.get());
+		// the blocking check and one batch
+		verify(restTemplate, times(2)).exchange(anyString(), any(HttpMethod.class), any(HttpEntity.class),
+				any(Class.class));
+		assertEquals(3, ((List<?>) batchForm.get().get("tokens")).size());
+	}
+
+	@Test
+	public void testBatchErrorFailsEveryTokenAsInvalid() throws Exception {
+		respondToBatchWith(Collections.<String, Object> singletonMap("error", "server_error"));
+		services.setMaxBatchSize(2);
+		services.setBatchWindowMillis(10000);
+
+		startBlockingCheck();
+		List<Future<OAuth2Authentication>> results = new ArrayList<Future<OAuth2Authentication>>();
+		for (String token : new String[] { "a", "b" }) {
+			results.add(executor.submit(check(token)));
+		}
+
+		for (Future<OAuth2Authentication> result : results) {
+			try {
+				result.get();
+				fail("Expected InvalidTokenException");
+			}
+			catch (ExecutionException e) {
+				assertTrue(e.getCause() instanceof InvalidTokenException);
+			}
+		}
+	}
+
+	@Test
+	public void testLoneCheckDoesNotWaitForWindow() throws Exception {
+		respondWith(Collections.<String, Object> singletonMap("active", true));
+		services.setBatchWindowMillis(10000);
+		long start = System.currentTimeMillis();
+		assertNotNull(services.loadAuthentication("a"));
+		assertTrue(System.currentTimeMillis() - start < 5000);
+	}
+
+	@Test
+	public void testSingleCheckSentAsOrdinaryRequest() throws Exception {
+		respondWith(Collections.<String, Object> singletonMap("active", true));
+		services.setBatchWindowMillis(1);
+		assertNotNull(services.loadAuthentication("a"));
+		Map<?, ?> form = (Map<?, ?>) requestCaptor.getValue().getBody();
+		assertEquals("a", ((List<?>) form.get("token")).get(0));
+	}
+
+	@Test(expected = InvalidTokenException.class)
+	public void testSingleCheckInactive() throws Exception {
+		respondWith(Collections.<String, Object> singletonMap("active", false));
+		services.setBatchWindowMillis(1);
+		services.loadAuthentication("a");
+	}
+
+	/**
+	 * Keep a single token check in flight (until released), so that the checks that follow are batched.
+	 */
+	private Future<OAuth2Authentication> startBlockingCheck() throws Exception {
+		Future<OAuth2Authentication> blocking = executor.submit(check("blocking"));
+		blocked.await();
+		return blocking;
+	}
+
+	private void respondToBatchWith(final Map<String, Object> body) {
+		when(restTemplate.exchange(anyString(), any(HttpMethod.class), any(HttpEntity.class), any(Class.class)))
+				.thenAnswer(new Answer<ResponseEntity<Map>>() {
+					@SuppressWarnings("unchecked")
+					public ResponseEntity<Map> answer(InvocationOnMock invocation) throws Throwable {
+						Map<String, Object> form = (Map<String, Object>) ((HttpEntity<?>) invocation.getArguments()[2])
+								.getBody();
+						if (form.containsKey("tokens")) {
+							batchForm.set(form);
+							return new ResponseEntity<Map>(body, HttpStatus.OK);
+						}
+						blocked.countDown();
+						release.await();
+						return new ResponseEntity<Map>(Collections.singletonMap("active", true), HttpStatus.OK);
+					}
+				});
+	}
+
+	private void respondWith(Map<String, Object> body) {
+		when(restTemplate.exchange(anyString(), any(HttpMethod.class), requestCaptor.capture(), any(Class.class)))
+				.thenReturn(new ResponseEntity<Map>(body, HttpStatus.OK));
+	}
+
+	private Callable<OAuth2Authentication> check(final String token) {
+		return new Callable<OAuth2Authentication>() {
+			public OAuth2Authentication call() throws Exception {
+				return services.loadAuthentication(token);
+			}
+		};
+	}
+
+}
@@ -5,6 +5,8 @@ import org.junit.Before;
 import org.junit.Test;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.authentication.ProviderManager;
@@ -20,13 +22,20 @@ import org.springframework.security.oauth2.common.DefaultOAuth2RefreshToken;
 import org.springframework.security.oauth2.common.OAuth2AccessToken;
 import org.springframework.security.oauth2.common.OAuth2RefreshToken;
 import org.springframework.security.oauth2.common.exceptions.InvalidTokenException;
+import org.springframework.security.oauth2.provider.ClientDetails;
+import org.springframework.security.oauth2.provider.ClientDetailsService;
+import org.springframework.security.oauth2.provider.NoSuchClientException;
 import org.springframework.security.oauth2.provider.OAuth2Authentication;
 import org.springframework.security.oauth2.provider.OAuth2Request;
 import org.springframework.security.oauth2.provider.TokenRequest;
+import org.springframework.security.oauth2.provider.authentication.OAuth2AuthenticationManager;
+import org.springframework.security.oauth2.provider.client.BaseClientDetails;
 import org.springframework.security.web.authentication.preauth.PreAuthenticatedAuthenticationProvider;
 import org.springframework.security.web.authentication.preauth.PreAuthenticatedAuthenticationToken;
 
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicReference;
 
 public class DefaultTokenServicesTests {
 
@@ -51,6 +60,198 @@ public class DefaultTokenServicesTests {
 		services.loadAuthentication("FOO");
 	}
 	
+	@Test
+	public void testClientValidityCached() {
+		ClientDetailsService clientDetailsService = Mockito.mock(ClientDetailsService.class);
+		Mockito.when(clientDetailsService.loadClientByClientId("myclient")).thenReturn(new BaseClientDetails());
+		Mockito.when(tokenStore.readAccessToken("FOO")).thenReturn(new DefaultOAuth2AccessToken("FOO"));
+		Mockito.when(tokenStore.readAuthentication(Mockito.any(OAuth2AccessToken.class))).thenReturn(
+				createMockOAuth2Authentication("myclient", createMockUser("joeuser", "PROCESSOR"), null));
+		services.setClientDetailsService(clientDetailsService);
+		services.setClientValidityCacheSeconds(60);
+
+		services.loadAuthentication("FOO");
+		services.loadAuthentication("FOO");
+		Mockito.verify(clientDetailsService, Mockito.times(1)).loadClientByClientId("myclient");
+
+		services.clientDetailsChanged("myclient");
+		Mockito.when(clientDetailsService.loadClientByClientId("myclient")).thenThrow(
+				new NoSuchClientException("No client"));
+		try {
+			services.loadAuthentication("FOO");
+			Assert.fail("Expected InvalidTokenException");
+		}
+		catch (InvalidTokenException e) {
+			// expected
+		}
+	}
+
+	@Test
+	public void testClientChangedDuringCheckNotCachedAsValid() {
+		ClientDetailsService clientDetailsService = Mockito.mock(ClientDetailsService.class);
+		Mockito.when(clientDetailsService.loadClientByClientId("myclient")).thenAnswer(new Answer<ClientDetails>() {
+			public ClientDetails answer(InvocationOnMock invocation) throws Throwable {
+				// the client changes after its old details were loaded
+				services.clientDetailsChanged("myclient");
+				return new BaseClientDetails();
+			}
+		});
+		Mockito.when(tokenStore.readAccessToken("FOO")).thenReturn(new DefaultOAuth2AccessToken("FOO"));
+		Mockito.when(tokenStore.readAuthentication(Mockito.any(OAuth2AccessToken.class))).thenReturn(
+				createMockOAuth2Authentication("myclient", createMockUser("joeuser", "PROCESSOR"), null));
+		services.setClientDetailsService(clientDetailsService);
+		services.setClientValidityCacheSeconds(60);
+
+		services.loadAuthentication("FOO");
+		services.loadAuthentication("FOO");
+		Mockito.verify(clientDetailsService, Mockito.times(2)).loadClientByClientId("myclient");
+	}
+
+	@Test
+	public void testClientValidityNotCachedByDefault() {
+		ClientDetailsService clientDetailsService = Mockito.mock(ClientDetailsService.class);
+		Mockito.when(clientDetailsService.loadClientByClientId("myclient")).thenReturn(new BaseClientDetails());
+		Mockito.when(tokenStore.readAccessToken("FOO")).thenReturn(new DefaultOAuth2AccessToken("FOO"));
+		Mockito.when(tokenStore.readAuthentication(Mockito.any(OAuth2AccessToken.class))).thenReturn(
+				createMockOAuth2Authentication("myclient", createMockUser("joeuser", "PROCESSOR"), null));
+		services.setClientDetailsService(clientDetailsService);
+
+		services.loadAuthentication("FOO");
+		services.loadAuthentication("FOO");
+		Mockito.verify(clientDetailsService, Mockito.times(2)).loadClientByClientId("myclient");
+	}
+
+	@Test
+	public void testClientTokenCached() {
+		services.setClientTokenCacheSeconds(60);
+		OAuth2Authentication authentication = new OAuth2Authentication(createMockOAuth2Request("myclient"), null);
+
+		OAuth2AccessToken first = services.createAccessToken(authentication);
+		OAuth2AccessToken second = services.createAccessToken(authentication);
+
+		Assert.assertSame(first, second);
+		Mockito.verify(tokenStore, Mockito.times(1)).getAccessToken(authentication);
+		Mockito.verify(tokenStore, Mockito.times(1)).storeAccessToken(first, authentication);
+	}
+
+	@Test
+	public void testClientTokenEvictedOnRevoke() {
+		services.setClientTokenCacheSeconds(60);
+		OAuth2Authentication authentication = new OAuth2Authentication(createMockOAuth2Request("myclient"), null);
+
+		OAuth2AccessToken first = services.createAccessToken(authentication);
+		services.revokeToken(first.getValue());
+		OAuth2AccessToken second = services.createAccessToken(authentication);
+
+		Assert.assertNotEquals(first.getValue(), second.getValue());
+		Mockito.verify(tokenStore, Mockito.times(2)).getAccessToken(authentication);
+	}
+
+	@Test
+	public void testClientTokenNotCachedAgainDuringRevoke() {
+		services.setClientTokenCacheSeconds(60);
+		final OAuth2Authentication authentication = new OAuth2Authentication(createMockOAuth2Request("myclient"), null);
+		final AtomicReference<OAuth2AccessToken> stored = new AtomicReference<OAuth2AccessToken>();
+		Mockito.when(tokenStore.getAccessToken(authentication)).thenAnswer(new Answer<OAuth2AccessToken>() {
+			public OAuth2AccessToken answer(InvocationOnMock invocation) throws Throwable {
+				return stored.get();
+			}
+		});
+		final OAuth2AccessToken first = services.createAccessToken(authentication);
+		stored.set(first);
+		Mockito.when(tokenStore.readAccessToken(first.getValue())).thenReturn(first);
+		Mockito.doAnswer(new Answer<Void>() {
+			public Void answer(InvocationOnMock invocation) throws Throwable {
+				// A concurrent token request while the token is still stored
+				services.createAccessToken(authentication);
+				stored.set(null);
+				return null;
+			}
+		}).when(tokenStore).removeAccessToken(first);
+
+		services.revokeToken(first.getValue());
+
+		Assert.assertNotEquals(first.getValue(), services.createAccessToken(authentication).getValue());
+	}
+
+	@Test
+	public void testClientTokenReadBeforeRevokeNotCachedAfterIt() {
+		final OAuth2Authentication authentication = new OAuth2Authentication(createMockOAuth2Request("myclient"), null);
+		final OAuth2AccessToken first = services.createAccessToken(authentication);
+		services.setClientTokenCacheSeconds(60);
+		final AtomicReference<OAuth2AccessToken> stored = new AtomicReference<OAuth2AccessToken>(first);
+		final AtomicReference<Boolean> revokeDuringRead = new AtomicReference<Boolean>(true);
+		Mockito.when(tokenStore.readAccessToken(first.getValue())).thenReturn(first);
+		Mockito.doAnswer(new Answer<Void>() {
+			public Void answer(InvocationOnMock invocation) throws Throwable {
+				stored.set(null);
+				return null;
+			}
+		}).when(tokenStore).removeAccessToken(first);
+		Mockito.when(tokenStore.getAccessToken(authentication)).thenAnswer(new Answer<OAuth2AccessToken>() {
+			public OAuth2AccessToken answer(InvocationOnMock invocation) throws Throwable {
+				OAuth2AccessToken read = stored.get();
+				if (revokeDuringRead.getAndSet(false)) {
+					// The whole revocation happens after this request read the token and before it caches it
+					services.revokeToken(first.getValue());
+				}
+				return read;
+			}
+		});
+
+		Assert.assertEquals(first.getValue(), services.createAccessToken(authentication).getValue());
+
+		Assert.assertNotEquals(first.getValue(), services.createAccessToken(authentication).getValue());
+	}
+
+	@Test
+	public void testRevocationListenersNotifiedAfterRemoval() {
+		final OAuth2AuthenticationManager manager = new OAuth2AuthenticationManager();
+		manager.setTokenServices(services);
+		manager.setCacheSeconds(60);
+		services.setRevocationListeners(Collections.<TokenRevocationListener> singletonList(manager));
+		final AtomicReference<OAuth2AccessToken> stored = new AtomicReference<OAuth2AccessToken>(
+				new DefaultOAuth2AccessToken("FOO"));
+		Mockito.when(tokenStore.readAccessToken("FOO")).thenAnswer(new Answer<OAuth2AccessToken>() {
+			public OAuth2AccessToken answer(InvocationOnMock invocation) throws Throwable {
+				return stored.get();
+			}
+		});
+		Mockito.when(tokenStore.readAuthentication(Mockito.any(OAuth2AccessToken.class))).thenReturn(
+				createMockOAuth2Authentication("myclient", createMockUser("joeuser", "PROCESSOR"), null));
+		Mockito.doAnswer(new Answer<Void>() {
+			public Void answer(InvocationOnMock invocation) throws Throwable {
+				// A concurrent lookup while the token is still stored
+				manager.authenticate(new PreAuthenticatedAuthenticationToken("FOO", ""));
+				stored.set(null);
+				return null;
+			}
+		}).when(tokenStore).removeAccessToken(Mockito.any(OAuth2AccessToken.class));
+
+		manager.authenticate(new PreAuthenticatedAuthenticationToken("FOO", ""));
+		services.revokeToken("FOO");
+
+		try {
+			manager.authenticate(new PreAuthenticatedAuthenticationToken("FOO", ""));
+			Assert.fail("Expected InvalidTokenException");
+		}
+		catch (InvalidTokenException e) {
+			// expected
+		}
+	}
+
+	@Test
+	public void testUserTokenNotCached() {
+		services.setClientTokenCacheSeconds(60);
+		OAuth2Authentication authentication = createMockOAuth2Authentication("myclient",
+				createMockUser("joeuser", "PROCESSOR"), null);
+
+		services.createAccessToken(authentication);
+		services.createAccessToken(authentication);
+
+		Mockito.verify(tokenStore, Mockito.times(2)).getAccessToken(authentication);
+	}
+
 	@Test
 	public void testRefreshAccessTokenWithReauthentication() {
 		UserDetails user = createMockUser("joeuser", "PROCESSOR");
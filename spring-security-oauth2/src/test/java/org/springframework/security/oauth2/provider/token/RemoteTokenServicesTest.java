@@ -32,9 +32,13 @@ import java.util.Map;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.fail;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 /**
@@ -138,4 +142,59 @@ public class RemoteTokenServicesTest {
 		OAuth2Authentication authentication = this.remoteTokenServices.loadAuthentication("access-token-1234");
 		assertNotNull(authentication);
 	}
+
+	@Test
+	public void loadAuthenticationWhenCacheEnabledThenIntrospectOnce() throws Exception {
+		Map responseAttrs = new HashMap();
+		responseAttrs.put("active", true);
+		RestTemplate restTemplate = mockRestTemplate(responseAttrs);
+		this.remoteTokenServices.setCacheSeconds(60);
+
+		OAuth2Authentication first = this.remoteTokenServices.loadAuthentication("access-token-1234");
+		OAuth2Authentication second = this.remoteTokenServices.loadAuthentication("access-token-1234");
+		assertNotNull(first);
+		assertNotSame(first, second);
+		assertEquals(first, second);
+		verify(restTemplate, times(1)).exchange(anyString(), any(HttpMethod.class), any(HttpEntity.class), any(Class.class));
+	}
+
+	@Test
+	public void loadAuthenticationWhenTokenExpiresBeforeCachePeriodThenNotCached() throws Exception {
+		Map responseAttrs = new HashMap();
+		responseAttrs.put("active", true);
+		responseAttrs.put("exp", System.currentTimeMillis() / 1000);
+		RestTemplate restTemplate = mockRestTemplate(responseAttrs);
+		this.remoteTokenServices.setCacheSeconds(60);
+
+		this.remoteTokenServices.loadAuthentication("access-token-1234");
+		this.remoteTokenServices.loadAuthentication("access-token-1234");
+		verify(restTemplate, times(2)).exchange(anyString(), any(HttpMethod.class), any(HttpEntity.class), any(Class.class));
+	}
+
+	@Test
+	public void loadAuthenticationWhenCacheEnabledAndTokenInvalidThenNegativeCached() throws Exception {
+		Map responseAttrs = new HashMap();
+		responseAttrs.put("active", false);
+		RestTemplate restTemplate = mockRestTemplate(responseAttrs);
+		this.remoteTokenServices.setCacheSeconds(60);
+
+		for (int i = 0; i < 2; i++) {
+			try {
+				this.remoteTokenServices.loadAuthentication("access-token-1234");
+				fail("Expected InvalidTokenException");
+			}
+			catch (InvalidTokenException e) {
+				// expected
+			}
+		}
+		verify(restTemplate, times(1)).exchange(anyString(), any(HttpMethod.class), any(HttpEntity.class), any(Class.class));
+	}
+
+	private RestTemplate mockRestTemplate(Map responseAttrs) {
+		ResponseEntity<Map> response = new ResponseEntity<Map>(responseAttrs, HttpStatus.OK);
+		RestTemplate restTemplate = mock(RestTemplate.class);
+		when(restTemplate.exchange(anyString(), any(HttpMethod.class), any(HttpEntity.class), any(Class.class))).thenReturn(response);
+		this.remoteTokenServices.setRestTemplate(restTemplate);
+		return restTemplate;
+	}
 }
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.springframework.security.oauth2.provider.token;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.junit.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.security.oauth2.provider.OAuth2Request;
+
+public class StreamingAuthenticationKeyGeneratorTests {
+
+	private DefaultAuthenticationKeyGenerator expected = new DefaultAuthenticationKeyGenerator();
+
+	private StreamingAuthenticationKeyGenerator generator = new StreamingAuthenticationKeyGenerator();
+
+	@Test
+	public void testClientOnly() {
+		assertSameKey(createAuthentication("client", null, scopes("read", "write")));
+	}
+
+	@Test
+	public void testUser() {
+		assertSameKey(createAuthentication("client", "marissa", scopes("read", "write")));
+	}
+
+	@Test
+	public void testNoScopes() {
+		assertSameKey(createAuthentication("client", "marissa", scopes()));
+	}
+
+	@Test
+	public void testUnsortedScopes() {
+		assertSameKey(createAuthentication("client", "marissa", scopes("write", "admin", "read")));
+	}
+
+	@Test
+	public void testSortedScopes() {
+		assertSameKey(createAuthentication("client", "marissa", new TreeSet<String>(scopes("write", "admin", "read"))));
+	}
+
+	@Test
+	public void testNonAsciiValues() {
+		assertSameKey(createAuthentication("cliént", "用户😀", scopes("réad", "über")));
+	}
+
+	@Test
+	public void testUnpairedSurrogate() {
+		assertSameKey(createAuthentication("client", "bad\ud83d", scopes("read")));
+	}
+
+	@Test
+	public void testLongValues() {
+		StringBuilder builder = new StringBuilder();
+		for (int i = 0; i < 500; i++) {
+			builder.append("scopeé").append(i);
+		}
+		assertSameKey(createAuthentication("client", builder.toString(), scopes("read")));
+		assertSameKey(createAuthentication("client", "marissa", scopes("read")));
+	}
+
+	private void assertSameKey(OAuth2Authentication authentication) {
+		assertEquals(expected.extractKey(authentication), generator.extractKey(authentication));
+	}
+
+	private Set<String> scopes(String... scopes) {
+		return new LinkedHashSet<String>(Arrays.asList(scopes));
+	}
+
+	private OAuth2Authentication createAuthentication(String clientId, String username, Set<String> scopes) {
+		OAuth2Request request = new OAuth2Request(null, clientId, null, true, scopes, null, null, null, null);
+		UsernamePasswordAuthenticationToken user = username == null ? null : new UsernamePasswordAuthenticationToken(
+				username, "", AuthorityUtils.commaSeparatedStringToAuthorityList("ROLE_USER"));
+		return new OAuth2Authentication(request, user);
+	}
+
+}
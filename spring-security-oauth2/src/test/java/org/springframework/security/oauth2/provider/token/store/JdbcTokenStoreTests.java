@@ -1,9 +1,11 @@
 package org.springframework.security.oauth2.provider.token.store;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 
 import java.util.List;
+import java.util.Map;
 
 import org.company.oauth2.CustomAuthentication;
 import org.company.oauth2.CustomOAuth2AccessToken;
@@ -156,6 +158,27 @@ public class JdbcTokenStoreTests extends TokenStoreBaseTests {
 		assertEquals(expectedAuthentication, actualAuthentication);
 	}
 
+	@Test
+	public void testReadAccessTokensAndAuthentications() {
+		// authentication_id is the primary key, so each token needs an authentication of its own
+		OAuth2Authentication authentication1 = new OAuth2Authentication(RequestTokenFactory.createOAuth2Request("id1", false), new TestAuthentication("test1", false));
+		OAuth2Authentication authentication2 = new OAuth2Authentication(RequestTokenFactory.createOAuth2Request("id2", false), new TestAuthentication("test2", false));
+		getTokenStore().storeAccessToken(new DefaultOAuth2AccessToken("token1"), authentication1);
+		getTokenStore().storeAccessToken(new DefaultOAuth2AccessToken("token2"), authentication2);
+
+		List<String> values = Arrays.asList("token1", "token2", "unknown");
+		Map<String, OAuth2AccessToken> tokens = getTokenStore().readAccessTokens(values);
+		assertEquals(2, tokens.size());
+		assertEquals("token1", tokens.get("token1").getValue());
+		assertEquals("token2", tokens.get("token2").getValue());
+
+		Map<String, OAuth2Authentication> authentications = getTokenStore().readAuthentications(values);
+		assertEquals(2, authentications.size());
+		assertEquals(authentication1, authentications.get("token1"));
+		assertEquals(authentication2, authentications.get("token2"));
+		assertFalse(authentications.containsKey("unknown"));
+	}
+
 	@After
 	public void tearDown() throws Exception {
 		db.shutdown();
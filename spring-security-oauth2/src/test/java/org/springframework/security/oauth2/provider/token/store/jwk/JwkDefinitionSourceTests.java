@@ -22,6 +22,10 @@ import org.powermock.core.classloader.annotations.PrepareForTest;
 import org.powermock.modules.junit4.PowerMockRunner;
 import org.springframework.security.jwt.codec.Codecs;
 import org.springframework.security.jwt.crypto.sign.SignatureVerifier;
+import org.springframework.security.oauth2.client.discovery.ProviderConfiguration;
+import org.springframework.security.oauth2.client.discovery.ProviderDiscoveryClient;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClientException;
 
 import java.io.IOException;
 import java.io.InputStream;
@@ -29,6 +33,9 @@ import java.net.URL;
 import java.util.Arrays;
 import java.util.Collections;
 
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.when;
 import static org.powermock.api.mockito.PowerMockito.*;
@@ -61,6 +68,36 @@ public class JwkDefinitionSourceTests {
 		verifyStatic();
 	}
 
+	@Test
+	public void getDefinitionLoadIfNecessaryWhenDiscoveryClientThenLoadFromDiscoveredJwkSetUrl() throws Exception {
+		ProviderConfiguration.Builder builder = new ProviderConfiguration.Builder();
+		builder.jwkSetUri(JwkDefinitionSourceTests.class.getResource("jwk-set.json").toString());
+		ProviderDiscoveryClient discoveryClient = mock(ProviderDiscoveryClient.class);
+		when(discoveryClient.discover()).thenReturn(builder.build());
+		JwkDefinitionSource jwkDefinitionSource = new JwkDefinitionSource(discoveryClient);
+		assertNotNull(jwkDefinitionSource.getDefinitionLoadIfNecessary("_Ci3-VfV_N0YAG22NQOgOUpFBDDcDe_rJxpu5JK702o", null));
+	}
+
+	@Test(expected = JwkException.class)
+	public void getDefinitionLoadIfNecessaryWhenNoDiscoveredJwkSetUrlThenThrowJwkException() throws Exception {
+		ProviderDiscoveryClient discoveryClient = mock(ProviderDiscoveryClient.class);
+		when(discoveryClient.discover()).thenReturn(new ProviderConfiguration.Builder().build());
+		new JwkDefinitionSource(discoveryClient).getDefinitionLoadIfNecessary("invalid-key-id", null);
+	}
+
+	@Test
+	public void getDefinitionLoadIfNecessaryWhenDiscoveryFailsThenThrowJwkException() throws Exception {
+		ProviderDiscoveryClient discoveryClient = mock(ProviderDiscoveryClient.class);
+		RestClientException failure = new ResourceAccessException("Connection refused");
+		when(discoveryClient.discover()).thenThrow(failure);
+		try {
+			new JwkDefinitionSource(discoveryClient).getDefinitionLoadIfNecessary("invalid-key-id", null);
+			fail("Expected JwkException");
+		} catch (JwkException ex) {
+			assertSame(failure, ex.getCause());
+		}
+	}
+
 	// gh-1010
 	@Test
 	public void getVerifierWhenModulusMostSignificantBitIs1ThenVerifierStillVerifyContentSignature() throws Exception {
@@ -18,6 +18,9 @@ package org.springframework.security.oauth2.provider.token.store.redis;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.ArgumentCaptor;
+import org.mockito.Matchers;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 import org.springframework.data.redis.connection.jedis.JedisConnection;
 import org.springframework.data.redis.connection.jedis.JedisConnectionFactory;
 import org.springframework.security.authentication.TestingAuthenticationToken;
@@ -31,6 +34,9 @@ import org.springframework.security.oauth2.provider.RequestTokenFactory;
 
 import java.util.*;
 
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.*;
 
@@ -113,4 +119,49 @@ public class RedisTokenStoreMockTests {
 		}
 	}
 
-}
\ No newline at end of file
+	@Test
+	public void readAccessTokensUsesSingleMGet() {
+		final JdkSerializationStrategy serializationStrategy = new JdkSerializationStrategy();
+		final OAuth2AccessToken oauth2AccessToken = new DefaultOAuth2AccessToken("access-token-1");
+		when(connection.mGet(Matchers.<byte[]>anyVararg())).thenAnswer(new Answer<List<byte[]>>() {
+			public List<byte[]> answer(InvocationOnMock invocation) throws Throwable {
+				Object[] keys = invocation.getArguments();
+				assertEquals(2, keys.length);
+				assertArrayEquals(serializationStrategy.serialize("access:access-token-1"), (byte[]) keys[0]);
+				assertArrayEquals(serializationStrategy.serialize("access:unknown"), (byte[]) keys[1]);
+				return Arrays.asList(serializationStrategy.serialize(oauth2AccessToken), null);
+			}
+		});
+
+		Map<String, OAuth2AccessToken> accessTokens = tokenStore.readAccessTokens(Arrays.asList("access-token-1",
+				"unknown"));
+
+		assertEquals(1, accessTokens.size());
+		assertEquals(oauth2AccessToken, accessTokens.get("access-token-1"));
+		verify(connection, times(1)).mGet(Matchers.<byte[]>anyVararg());
+		verify(connection, never()).get(any(byte[].class));
+		verify(connection).close();
+	}
+
+	@Test
+	public void readAuthenticationsUsesSingleMGet() {
+		final JdkSerializationStrategy serializationStrategy = new JdkSerializationStrategy();
+		final OAuth2Authentication oauth2Authentication = new OAuth2Authentication(request, authentication);
+		when(connection.mGet(Matchers.<byte[]>anyVararg())).thenReturn(
+				Arrays.asList(null, serializationStrategy.serialize(oauth2Authentication)));
+
+		Map<String, OAuth2Authentication> authentications = tokenStore.readAuthentications(Arrays.asList("unknown",
+				"access-token-1"));
+
+		assertEquals(1, authentications.size());
+		assertEquals(oauth2Authentication, authentications.get("access-token-1"));
+		verify(connection, times(1)).mGet(Matchers.<byte[]>anyVararg());
+	}
+
+	@Test
+	public void readAccessTokensWithNoTokensDoesNotConnect() {
+		assertTrue(tokenStore.readAccessTokens(Collections.<String>emptyList()).isEmpty());
+		verify(connectionFactory, never()).getConnection();
+	}
+
+}